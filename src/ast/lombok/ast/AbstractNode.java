@@ -43,6 +43,7 @@ abstract class AbstractNode implements Node {
 	private List<Message> messages;
 	@Getter @Setter private Object nativeNode;
 	@Getter @Setter private PositionFactory positionFactory;
+	private LazyNodes.Loader lazyLoader;
 	
 	@Override public boolean isGenerated() {
 		return position.getGeneratedBy() != null;
@@ -149,6 +150,24 @@ abstract class AbstractNode implements Node {
 		return false;
 	}
 	
+	/**
+	 * Runs the pending lazy loader, if there is one. Generated nodes call this before accessing any field marked as lazily loaded in their template.
+	 */
+	protected void loadLazyChildren() {
+		LazyNodes.Loader loader = lazyLoader;
+		if (loader == null) return;
+		lazyLoader = null;
+		loader.load(this);
+	}
+	
+	void setLazyLoader(LazyNodes.Loader loader) {
+		this.lazyLoader = loader;
+	}
+	
+	boolean hasLazyLoader() {
+		return lazyLoader != null;
+	}
+	
 	void addDanglingNode(Node dangling) {
 		if (dangling == null) return;
 		if (danglings == null) danglings = new ArrayList<Node>();
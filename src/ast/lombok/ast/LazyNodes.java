@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast;
+
+/**
+ * Some children, such as method bodies, can be filled in on demand instead of up front: A node can be given a loader, which runs the first time
+ * one of those children, or the node's list of children, is accessed. Which fields are lazily loaded is up to the node's template.
+ */
+public class LazyNodes {
+	public interface Loader {
+		/**
+		 * Fills in the lazily loaded children of {@code node}. Called at most once per registration.
+		 */
+		void load(Node node);
+	}
+	
+	/**
+	 * Registers a loader on {@code on}, replacing any pending loader.
+	 * 
+	 * @throws IllegalArgumentException If {@code on} is not one of the node types generated by lombok.ast.
+	 */
+	public static void setLoader(Node on, Loader loader) {
+		if (!(on instanceof AbstractNode)) throw new IllegalArgumentException("Lazy loading not supported for " + on.getClass().getName());
+		((AbstractNode) on).setLazyLoader(loader);
+	}
+	
+	/**
+	 * Returns {@code true} if {@code node} has a loader that hasn't run yet.
+	 */
+	public static boolean isPending(Node node) {
+		return node instanceof AbstractNode && ((AbstractNode) node).hasLazyLoader();
+	}
+	
+	/**
+	 * Runs the pending loader of {@code node}, if any.
+	 */
+	public static void load(Node node) {
+		if (node instanceof AbstractNode) ((AbstractNode) node).loadLazyChildren();
+	}
+}
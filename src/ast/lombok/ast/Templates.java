@@ -32,6 +32,7 @@ import java.util.regex.Pattern;
 import lombok.ast.template.CopyMethod;
 import lombok.ast.template.ForcedType;
 import lombok.ast.template.GenerateAstNode;
+import lombok.ast.template.LazilyLoaded;
 import lombok.ast.template.Mandatory;
 import lombok.ast.template.NotChildOfNode;
 import lombok.ast.template.ParentAccessor;
@@ -1342,7 +1343,7 @@ class MethodDeclarationTemplate {
 	@Mandatory("new lombok.ast.Identifier()") @ForcedType Identifier methodName5;
 	@ParentAccessor("Parameter") List<VariableDefinition> parameters6;
 	List<TypeReference> thrownTypeReferences7;
-	@ParentAccessor Block body8;
+	@ParentAccessor @LazilyLoaded Block body8;
 	
 	@NotChildOfNode
 	int explicitArrayDimensions9;
@@ -1363,19 +1364,19 @@ class ConstructorDeclarationTemplate {
 	@Mandatory("new lombok.ast.Identifier()") @ForcedType Identifier typeName4;
 	@ParentAccessor("Parameter") List<VariableDefinition> parameters5;
 	List<TypeReference> thrownTypeReferences6;
-	@ParentAccessor @Mandatory Block body7;
+	@ParentAccessor @Mandatory @LazilyLoaded Block body7;
 	
 	//TODO test if our syntax checkers flag misnamed constructors.
 }
 
 @GenerateAstNode(implementing=TypeMember.class, mixin=TypeMemberMixin.class)
 class InstanceInitializerTemplate {
-	@ParentAccessor @Mandatory Block body1;
+	@ParentAccessor @Mandatory @LazilyLoaded Block body1;
 }
 
 @GenerateAstNode(implementing=TypeMember.class, mixin=TypeMemberMixin.class)
 class StaticInitializerTemplate {
-	@ParentAccessor @Mandatory Block body1;
+	@ParentAccessor @Mandatory @LazilyLoaded Block body1;
 }
 
 @GenerateAstNode(implementing=TypeBody.class)
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the classes that parboiled generates for our parsers to a directory, so that they can be shipped in the jar
+ * and {@link ParserGroup} does not have to generate them on startup.
+ * 
+ * Parboiled has no public API for this, so we reach into its transformer; this needs to be revisited whenever parboiled is upgraded.
+ * The classes depend on the exact bytecode of the parsers, so this has to run again after every compile.
+ */
+class GenerateParserClasses {
+	private static final Class<?>[] PARSERS = {
+		BasicsParser.class, LiteralsParser.class, TypesParser.class,
+		ExpressionsParser.class, StatementsParser.class, StructuresParser.class,
+	};
+	
+	public static void main(String[] args) throws Exception {
+		if (args.length != 1) {
+			System.err.println("Usage: GenerateParserClasses <output directory>");
+			System.exit(1);
+		}
+		
+		File out = new File(args[0]);
+		Method extend = Class.forName("org.parboiled.transform.ParserTransformer").getDeclaredMethod("extendParserClass", Class.class);
+		extend.setAccessible(true);
+		int count = 0;
+		for (Class<?> parser : PARSERS) {
+			Object classNode = extend.invoke(null, parser);
+			Field name = classNode.getClass().getField("name");
+			write(out, (String) name.get(classNode), (byte[]) call(classNode, "getClassCode"));
+			count++;
+			
+			for (Object ruleMethod : ((Map<?, ?>) call(classNode, "getRuleMethods")).values()) {
+				for (Object group : (List<?>) call(ruleMethod, "getGroups")) {
+					/*
+					 * Groups are shared between parsers by name; the code is only there for the parser that generated the group first.
+					 * Parboiled 0.9.7 has no getter for it.
+					 */
+					byte[] code = (byte[]) get(group, "groupClassCode");
+					if (code == null) continue;
+					write(out, (String) call(call(group, "getGroupClassType"), "getInternalName"), code);
+					count++;
+				}
+			}
+		}
+		System.out.println("Wrote " + count + " parser classes to " + out);
+	}
+	
+	private static Object call(Object target, String methodName) throws Exception {
+		Method method = target.getClass().getMethod(methodName);
+		method.setAccessible(true);
+		return method.invoke(target);
+	}
+	
+	private static Object get(Object target, String fieldName) throws Exception {
+		Field field = target.getClass().getDeclaredField(fieldName);
+		field.setAccessible(true);
+		return field.get(target);
+	}
+	
+	private static void write(File root, String internalName, byte[] code) throws IOException {
+		File file = new File(root, internalName + ".class");
+		file.getParentFile().mkdirs();
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(code);
+		} finally {
+			out.close();
+		}
+	}
+}
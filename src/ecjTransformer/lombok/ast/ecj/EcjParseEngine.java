@@ -0,0 +1,536 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.ecj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import lombok.ast.AlternateConstructorInvocation;
+import lombok.ast.AnnotationDeclaration;
+import lombok.ast.AnnotationElement;
+import lombok.ast.ArrayCreation;
+import lombok.ast.ArrayDimension;
+import lombok.ast.Assert;
+import lombok.ast.BinaryExpression;
+import lombok.ast.Case;
+import lombok.ast.Catch;
+import lombok.ast.Default;
+import lombok.ast.EmptyDeclaration;
+import lombok.ast.EnumTypeBody;
+import lombok.ast.Expression;
+import lombok.ast.ForwardingAstVisitor;
+import lombok.ast.Identifier;
+import lombok.ast.KeywordModifier;
+import lombok.ast.Literal;
+import lombok.ast.Modifiers;
+import lombok.ast.Node;
+import lombok.ast.NormalTypeBody;
+import lombok.ast.Position;
+import lombok.ast.RawListAccessor;
+import lombok.ast.Select;
+import lombok.ast.StringLiteral;
+import lombok.ast.SuperConstructorInvocation;
+import lombok.ast.TypeReference;
+import lombok.ast.TypeReferencePart;
+import lombok.ast.TypeVariable;
+import lombok.ast.UnaryExpression;
+import lombok.ast.VariableDefinition;
+import lombok.ast.VariableDefinitionEntry;
+import lombok.ast.grammar.ParseEngine;
+
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.internal.compiler.CompilationResult;
+import org.eclipse.jdt.internal.compiler.DefaultErrorHandlingPolicies;
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.parser.Parser;
+import org.eclipse.jdt.internal.compiler.parser.Scanner;
+import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
+import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
+import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
+
+/**
+ * Parses compilation units with the ecj parser and converts the result with {@link EcjTreeConverter}, which is
+ * considerably faster than the grammar. Files with syntax errors are left to the grammar and its error recovery.
+ * 
+ * The tree is the one the grammar builds, with the same positions: those ecj doesn't keep, or keeps differently, are worked out
+ * from the text, and stray semicolons that ecj drops are put back. Input that still contains a backslash-u escape after
+ * preprocessing is left to the grammar too, as ecj would decode it a second time.
+ */
+public class EcjParseEngine implements ParseEngine {
+	private final CompilerOptions options;
+	
+	public EcjParseEngine() {
+		this(defaultOptions());
+	}
+	
+	public EcjParseEngine(CompilerOptions options) {
+		this.options = options;
+	}
+	
+	/**
+	 * Java 1.6 options that keep string concatenations as written instead of folding them into one literal.
+	 */
+	public static CompilerOptions defaultOptions() {
+		CompilerOptions options = new CompilerOptions();
+		options.complianceLevel = ClassFileConstants.JDK1_6;
+		options.sourceLevel = ClassFileConstants.JDK1_6;
+		options.targetJDK = ClassFileConstants.JDK1_6;
+		options.parseLiteralExpressionsAsConstants = false;
+		return options;
+	}
+	
+	@Override public Node parseCompilationUnit(String input, String name) {
+		if (containsUnicodeEscape(input)) return null;
+		Parser parser = new Parser(new ProblemReporter(
+				DefaultErrorHandlingPolicies.proceedWithAllProblems(),
+				options,
+				new DefaultProblemFactory()
+			), options.parseLiteralExpressionsAsConstants);
+		CompilationUnit sourceUnit = new CompilationUnit(input.toCharArray(), name, "UTF-8");
+		CompilationResult compilationResult = new CompilationResult(sourceUnit, 0, 0, 0);
+		CompilationUnitDeclaration cud = parser.parse(sourceUnit, compilationResult);
+		if (cud == null || cud.hasErrors()) return null;
+		
+		GrammarAligner aligner;
+		try {
+			aligner = new GrammarAligner(input, options);
+		} catch (InvalidInputException e) {
+			return null;
+		}
+		
+		EcjTreeConverter converter = new EcjTreeConverter();
+		converter.visit(input, cud);
+		Node unit = converter.get();
+		unit.accept(aligner);
+		return unit;
+	}
+	
+	/**
+	 * The input has had its backslash-u escapes decoded already, but ecj decodes them again, so a backslash-u that is left,
+	 * such as one whose backslash was itself written as an escape, would be read differently than the grammar reads it.
+	 */
+	static boolean containsUnicodeEscape(String input) {
+		for (int i = input.indexOf("\\u"); i != -1; i = input.indexOf("\\u", i + 1)) {
+			int backslashes = 0;
+			while (i - backslashes > 0 && input.charAt(i - backslashes - 1) == '\\') backslashes++;
+			if (backslashes % 2 == 0) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Brings the positions ecj gives into line with the grammar's, as far as that can be worked out from the tree and the text around each node.
+	 * Starts that ecj puts on a comment, such as the javadoc of a declaration, move to the first token after it. Parenthesized expressions
+	 * don't include their parentheses. Ends that ecj puts on a name grow to take in the type arguments, bounds, initializers or terminator
+	 * that follow it. Nodes ecj has no position for, like modifier keywords, get one. String literals also get their text as written,
+	 * where ecj only keeps their value, and stray semicolons that ecj drops come back as empty declarations.
+	 * 
+	 * Names and keywords are looked up among the tokens ecj's scanner finds in the input, so that the same text in a comment isn't taken for them.
+	 */
+	private static final class GrammarAligner extends ForwardingAstVisitor {
+		private final String input;
+		private int[] tokenKinds = new int[256], tokenStarts = new int[256], tokenEnds = new int[256];
+		private int tokenCount;
+		
+		GrammarAligner(String input, CompilerOptions options) throws InvalidInputException {
+			this.input = input;
+			Scanner scanner = new Scanner(false, false, false, options.sourceLevel, options.complianceLevel, null, null, true);
+			scanner.setSource(input.toCharArray());
+			for (int kind = scanner.getNextToken(); kind != TerminalTokens.TokenNameEOF; kind = scanner.getNextToken()) {
+				if (tokenCount == tokenKinds.length) {
+					tokenKinds = Arrays.copyOf(tokenKinds, tokenCount * 2);
+					tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+					tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+				}
+				tokenKinds[tokenCount] = kind;
+				tokenStarts[tokenCount] = scanner.getCurrentTokenStartPosition();
+				tokenEnds[tokenCount] = scanner.getCurrentTokenEndPosition() + 1;
+				tokenCount++;
+			}
+		}
+		
+		/**
+		 * Returns the index of the first token that starts at or after {@code position}.
+		 */
+		private int firstTokenFrom(int position) {
+			int low = 0, high = tokenCount;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (tokenStarts[mid] < position) low = mid + 1;
+				else high = mid;
+			}
+			return low;
+		}
+		
+		/**
+		 * Returns the start of the last token of the given {@link TerminalTokens kind} that starts before {@code position}, or -1 if there is none.
+		 */
+		private int lastTokenBefore(int kind, int position) {
+			for (int i = firstTokenFrom(position) - 1; i >= 0; i--) {
+				if (tokenKinds[i] == kind) return tokenStarts[i];
+			}
+			return -1;
+		}
+		
+		@Override public boolean visitNode(Node node) {
+			Position p = node.getPosition();
+			if (p.isUnplaced()) return false;
+			int start = skipTrivia(input, p.getStart(), p.getEnd());
+			if (start != p.getStart()) node.setPosition(new Position(start, p.getEnd()));
+			if (node instanceof Expression) stripParens((Expression) node);
+			return false;
+		}
+		
+		@Override public boolean visitCompilationUnit(lombok.ast.CompilationUnit node) {
+			node.setPosition(new Position(0, input.length()));
+			return false;
+		}
+		
+		@Override public boolean visitIdentifier(Identifier node) {
+			Position p = node.getPosition();
+			String name = node.astValue();
+			if (p.isUnplaced() || name == null) return false;
+			for (int i = firstTokenFrom(p.getStart()); i < tokenCount && tokenEnds[i] <= p.getEnd(); i++) {
+				if (tokenEnds[i] - tokenStarts[i] == name.length() && input.startsWith(name, tokenStarts[i])) {
+					node.setPosition(new Position(tokenStarts[i], tokenEnds[i]));
+					break;
+				}
+			}
+			return false;
+		}
+		
+		@Override public boolean visitStringLiteral(StringLiteral node) {
+			visitNode(node);
+			Position p = node.getPosition();
+			if (p.isUnplaced() || p.getEnd() > input.length()) return false;
+			String text = input.substring(p.getStart(), p.getEnd());
+			if (text.length() > 1 && text.startsWith("\"") && text.endsWith("\"")) node.rawValue(text);
+			return false;
+		}
+		
+		/**
+		 * The grammar places modifiers from the start of their declaration up to the last keyword or annotation, which ecj doesn't keep track of,
+		 * so this finds them in the text.
+		 */
+		@Override public boolean visitModifiers(Modifiers node) {
+			Node parent = node.getParent();
+			if (parent == null || parent.getPosition().isUnplaced()) return false;
+			int start = parent.getPosition().getStart();
+			int end = start;
+			int pos = start;
+			Iterator<Node> keywords = node.rawKeywords().iterator();
+			Iterator<Node> annotations = node.rawAnnotations().iterator();
+			Node keyword = keywords.hasNext() ? keywords.next() : null;
+			Node annotation = annotations.hasNext() ? annotations.next() : null;
+			while (keyword != null || annotation != null) {
+				pos = skipTrivia(input, pos, input.length());
+				if (annotation != null && input.startsWith("@", pos)) {
+					annotation.setPosition(new Position(pos, Math.max(pos, annotation.getPosition().getEnd())));
+					pos = annotation.getPosition().getEnd();
+					annotation = annotations.hasNext() ? annotations.next() : null;
+				} else if (keyword instanceof KeywordModifier && input.startsWith(((KeywordModifier) keyword).astName(), pos)) {
+					keyword.setPosition(new Position(pos, pos + ((KeywordModifier) keyword).astName().length()));
+					pos = keyword.getPosition().getEnd();
+					keyword = keywords.hasNext() ? keywords.next() : null;
+				} else {
+					break;
+				}
+				end = pos;
+			}
+			node.setPosition(new Position(start, end));
+			return false;
+		}
+		
+		@Override public void endVisit(Node node) {
+			if (node instanceof BinaryExpression) {
+				Node left = ((BinaryExpression) node).rawLeft();
+				if (left != null) extendStart(node, left);
+			} else if (node instanceof TypeReferencePart) {
+				TypeReferencePart part = (TypeReferencePart) node;
+				if (part.getPosition().isUnplaced() && part.astIdentifier() != null) part.setPosition(part.astIdentifier().getPosition());
+				if (!part.rawTypeArguments().isEmpty()) extendEnd(node, part.rawTypeArguments().last(), '>');
+			} else if (node instanceof TypeReference) {
+				alignTypeReference((TypeReference) node);
+			} else if (node instanceof TypeVariable) {
+				TypeVariable variable = (TypeVariable) node;
+				if (!variable.rawExtending().isEmpty()) extendEnd(node, variable.rawExtending().last(), (char) 0);
+			} else if (node instanceof VariableDefinitionEntry) {
+				alignVariableDefinitionEntry((VariableDefinitionEntry) node);
+			} else if (node instanceof VariableDefinition) {
+				VariableDefinition definition = (VariableDefinition) node;
+				if (!definition.rawVariables().isEmpty()) extendEnd(node, definition.rawVariables().last(), (char) 0);
+				Node type = definition.rawTypeReference();
+				if (node.getParent() instanceof Catch && type != null && !type.getPosition().isUnplaced() && !node.getPosition().isUnplaced()) {
+					// The grammar starts the parameter of a catch block at its type, after any modifiers.
+					node.setPosition(new Position(type.getPosition().getStart(), node.getPosition().getEnd()));
+				}
+			} else if (node instanceof Assert) {
+				extendEnd(node, node, ';');
+			} else if (node instanceof Case || node instanceof Default) {
+				extendEnd(node, node, ':');
+			} else if (node instanceof AnnotationElement) {
+				AnnotationElement element = (AnnotationElement) node;
+				if (element.rawValue() == null || element.rawValue().getPosition().isUnplaced()) return;
+				if (element.astName() == null || element.getPosition().isUnplaced()) element.setPosition(element.rawValue().getPosition());
+				else extendEnd(node, element.rawValue(), (char) 0);
+			} else if (node instanceof Catch) {
+				Catch c = (Catch) node;
+				if (c.rawExceptionDeclaration() == null || c.rawBody() == null || c.rawBody().getPosition().isUnplaced()) return;
+				int keyword = lastTokenBefore(TerminalTokens.TokenNamecatch, c.rawExceptionDeclaration().getPosition().getStart());
+				if (keyword != -1) c.setPosition(new Position(keyword, c.rawBody().getPosition().getEnd()));
+			} else if (node instanceof ArrayCreation) {
+				alignArrayDimensions((ArrayCreation) node);
+			} else if (node instanceof Select) {
+				Select select = (Select) node;
+				if (!select.getPosition().isUnplaced() || select.rawOperand() == null || select.astIdentifier() == null) return;
+				Position operand = outer(select.rawOperand()), name = select.astIdentifier().getPosition();
+				if (!operand.isUnplaced() && !name.isUnplaced()) select.setPosition(new Position(operand.getStart(), name.getEnd()));
+			} else if (node instanceof Literal && node.getPosition().isUnplaced()) {
+				alignFoldedLiteral((Literal) node);
+			} else if (node instanceof NormalTypeBody && !(node.getParent() instanceof AnnotationDeclaration)) {
+				Position p = node.getPosition();
+				if (!p.isUnplaced()) restoreEmptyDeclarations(((NormalTypeBody) node).rawMembers(), p.getStart() + 1, p.getEnd() - 1);
+			} else if (node instanceof EnumTypeBody) {
+				alignEnumTypeBody((EnumTypeBody) node);
+			} else if (node instanceof lombok.ast.CompilationUnit) {
+				alignCompilationUnit((lombok.ast.CompilationUnit) node);
+			} else if (node instanceof AlternateConstructorInvocation) {
+				includeTypeArguments(node, ((AlternateConstructorInvocation) node).rawConstructorTypeArguments());
+			} else if (node instanceof SuperConstructorInvocation && ((SuperConstructorInvocation) node).rawQualifier() == null) {
+				includeTypeArguments(node, ((SuperConstructorInvocation) node).rawConstructorTypeArguments());
+			}
+		}
+		
+		private void alignCompilationUnit(lombok.ast.CompilationUnit unit) {
+			int from = 0;
+			if (unit.rawPackageDeclaration() != null) from = Math.max(from, unit.rawPackageDeclaration().getPosition().getEnd());
+			if (!unit.rawImportDeclarations().isEmpty()) from = Math.max(from, unit.rawImportDeclarations().last().getPosition().getEnd());
+			restoreEmptyDeclarations(unit.rawTypeDeclarations(), from, input.length());
+		}
+		
+		/**
+		 * Members of an enum start after the semicolon that ends its constants.
+		 */
+		private void alignEnumTypeBody(EnumTypeBody body) {
+			Position p = body.getPosition();
+			if (p.isUnplaced()) return;
+			int from = p.getStart() + 1;
+			if (!body.rawConstants().isEmpty()) {
+				Position last = body.rawConstants().last().getPosition();
+				if (last.isUnplaced()) return;
+				from = last.getEnd();
+			}
+			from = skipTrivia(input, from, p.getEnd() - 1);
+			if (input.charAt(from) == ',') from = skipTrivia(input, from + 1, p.getEnd() - 1);
+			if (input.charAt(from) != ';') return;
+			restoreEmptyDeclarations(body.rawMembers(), from + 1, p.getEnd() - 1);
+		}
+		
+		/**
+		 * ecj drops stray semicolons between declarations, which the grammar keeps as {@link EmptyDeclaration}s except in annotation
+		 * declarations, so this puts them back in from the text between {@code from} and {@code to}.
+		 */
+		private void restoreEmptyDeclarations(RawListAccessor<?, ?> declarations, int from, int to) {
+			List<Node> present = new ArrayList<Node>();
+			for (Node declaration : declarations) present.add(declaration);
+			int pos = from;
+			for (Node declaration : present) {
+				Position p = declaration.getPosition();
+				if (p.isUnplaced()) return;
+				for (Node empty : emptyDeclarations(pos, p.getStart())) declarations.addBefore(declaration, empty);
+				pos = p.getEnd();
+			}
+			for (Node empty : emptyDeclarations(pos, to)) declarations.addToEnd(empty);
+		}
+		
+		private List<Node> emptyDeclarations(int from, int to) {
+			List<Node> empties = new ArrayList<Node>();
+			for (int i = skipTrivia(input, from, to); i < to && input.charAt(i) == ';'; i = skipTrivia(input, i + 1, to)) {
+				empties.add(new EmptyDeclaration().setPosition(new Position(i, i + 1)));
+			}
+			return empties;
+		}
+		
+		/**
+		 * ecj folds the minus into literals like {@code -2147483648}, which can't be written without it, so the literal it produces
+		 * has no position of its own; the grammar places it after the minus.
+		 */
+		private void alignFoldedLiteral(Literal literal) {
+			Node parent = ((Node) literal).getParent();
+			String raw = literal.rawValue();
+			if (!(parent instanceof UnaryExpression) || raw == null || parent.getPosition().isUnplaced()) return;
+			int start = parent.getPosition().getEnd() - raw.length();
+			if (start >= 0 && input.startsWith(raw, start)) ((Node) literal).setPosition(new Position(start, start + raw.length()));
+		}
+		
+		/**
+		 * The grammar places a type from its first part up to its last part, or the last of the brackets right after it. ecj leaves
+		 * out the bounds of type variables, and takes in brackets written after a variable name and the dots of a varargs parameter.
+		 */
+		private void alignTypeReference(TypeReference type) {
+			if (type.rawParts().isEmpty()) return;
+			Position first = type.rawParts().first().getPosition(), last = type.rawParts().last().getPosition();
+			if (first.isUnplaced() || last.isUnplaced()) return;
+			int start = type.getPosition().isUnplaced() ? first.getStart() : Math.min(type.getPosition().getStart(), first.getStart());
+			type.setPosition(new Position(start, last.getEnd()));
+			for (int i = 0; i < type.astArrayDimensions(); i++) extendEnd(type, type, '[', ']');
+		}
+		
+		/**
+		 * The grammar places a variable from its name up to its initializer, or the last of the brackets after its name.
+		 */
+		private void alignVariableDefinitionEntry(VariableDefinitionEntry entry) {
+			Identifier name = entry.astName();
+			if (name == null || name.getPosition().isUnplaced()) return;
+			entry.setPosition(name.getPosition());
+			for (int i = 0; i < entry.astArrayDimensions(); i++) extendEnd(entry, entry, '[', ']');
+			if (entry.rawInitializer() != null) extendEnd(entry, entry.rawInitializer(), (char) 0);
+		}
+		
+		private void alignArrayDimensions(ArrayCreation creation) {
+			Node type = creation.rawComponentTypeReference();
+			if (type == null || type.getPosition().isUnplaced()) return;
+			int pos = type.getPosition().getEnd();
+			for (Node dimension : creation.rawDimensions()) {
+				int open = skipTrivia(input, pos, input.length());
+				if (!input.startsWith("[", open)) return;
+				Node size = ((ArrayDimension) dimension).rawDimension();
+				int close = skipTrivia(input, size == null || size.getPosition().isUnplaced() ? open + 1 : size.getPosition().getEnd(), input.length());
+				if (!input.startsWith("]", close)) return;
+				dimension.setPosition(new Position(open, close + 1));
+				pos = close + 1;
+			}
+		}
+		
+		/**
+		 * ecj starts {@code this(...)} and {@code super(...)} at the keyword, even when type arguments come before it.
+		 */
+		private void includeTypeArguments(Node node, RawListAccessor<?, ?> typeArguments) {
+			if (typeArguments.isEmpty() || typeArguments.first().getPosition().isUnplaced()) return;
+			int open = lastTokenBefore(TerminalTokens.TokenNameLESS, typeArguments.first().getPosition().getStart());
+			Position p = node.getPosition();
+			if (open != -1 && !p.isUnplaced() && open < p.getStart()) node.setPosition(new Position(open, p.getEnd()));
+		}
+		
+		private void extendStart(Node node, Node first) {
+			Position p = node.getPosition(), q = outer(first);
+			if (p.isUnplaced() || q.isUnplaced() || q.getStart() >= p.getStart()) return;
+			node.setPosition(new Position(q.getStart(), p.getEnd()));
+		}
+		
+		/**
+		 * Returns the position of {@code node} including any parentheses around it.
+		 */
+		private static Position outer(Node node) {
+			if (node instanceof Expression) {
+				List<Position> parens = ((Expression) node).astParensPositions();
+				if (!parens.isEmpty()) return parens.get(parens.size() - 1);
+			}
+			return node.getPosition();
+		}
+		
+		/**
+		 * Moves the end of {@code node} to the end of {@code last} if that is further along, and then past each of {@code terminators} in turn,
+		 * as long as they follow. A {@code 0} terminator matches nothing.
+		 */
+		private void extendEnd(Node node, Node last, char... terminators) {
+			Position p = node.getPosition(), q = node == last ? p : outer(last);
+			if (p.isUnplaced() || q.isUnplaced()) return;
+			int end = Math.max(p.getEnd(), q.getEnd());
+			for (char terminator : terminators) {
+				if (terminator == 0) continue;
+				int at = skipTrivia(input, end, input.length());
+				if (at >= input.length() || input.charAt(at) != terminator) break;
+				end = at + 1;
+			}
+			if (end != p.getEnd()) node.setPosition(new Position(p.getStart(), end));
+		}
+		
+		/**
+		 * ecj places a parenthesized expression on its outermost parentheses; the grammar places it within the innermost ones
+		 * and records the position of each pair, innermost first.
+		 */
+		private void stripParens(Expression node) {
+			List<Position> parens = node.astParensPositions();
+			if (parens.isEmpty()) return;
+			Position p = ((Node) node).getPosition();
+			int[] opens = new int[parens.size()], closes = new int[parens.size()];
+			int start = p.getStart(), end = p.getEnd();
+			for (int i = 0; i < opens.length; i++) {
+				if (start >= end || input.charAt(start) != '(' || input.charAt(end - 1) != ')') return;
+				opens[i] = start;
+				closes[i] = end;
+				start = skipTrivia(input, start + 1, end - 1);
+				end = trimTrivia(input, start, end - 1);
+			}
+			((Node) node).setPosition(new Position(start, end));
+			for (int i = 0; i < opens.length; i++) parens.set(i, new Position(opens[opens.length - 1 - i], closes[opens.length - 1 - i]));
+		}
+	}
+	
+	/**
+	 * Returns the position of the first character at or after {@code start}, but before {@code end}, that isn't whitespace or part of a comment.
+	 */
+	static int skipTrivia(String input, int start, int end) {
+		int i = start;
+		while (i < end) {
+			char c = input.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (input.startsWith("//", i)) {
+				while (i < end && input.charAt(i) != '\n' && input.charAt(i) != '\r') i++;
+			} else if (input.startsWith("/*", i)) {
+				int close = input.indexOf("*/", i + 2);
+				if (close == -1 || close + 2 > end) return start;
+				i = close + 2;
+			} else {
+				return i;
+			}
+		}
+		return end == input.length() ? end : start;
+	}
+	
+	/**
+	 * Returns {@code end} moved back past any whitespace and comments, but not past {@code start}.
+	 */
+	static int trimTrivia(String input, int start, int end) {
+		int i = end;
+		while (i > start) {
+			char c = input.charAt(i - 1);
+			if (Character.isWhitespace(c)) {
+				i--;
+			} else if (input.startsWith("*/", i - 2) && i - 2 > start) {
+				int open = input.lastIndexOf("/*", i - 3);
+				if (open < start) return i;
+				i = open;
+			} else {
+				return i;
+			}
+		}
+		return i;
+	}
+}
@@ -27,13 +27,13 @@ import lombok.ast.Node;
 import lombok.ast.Position;
 
 public class BasicsActions extends SourceActions {
-	public BasicsActions(Source source) {
-		super(source);
+	public BasicsActions(ParserGroup group) {
+		super(group);
 	}
 	
 	public Node createIdentifier(String text, org.parboiled.Node<Node> rawIdentifier) {
 		Identifier id = new Identifier();
-		if (text != null) id.astValue(text);
+		if (text != null) id.astValue(source().internIdentifier(text));
 		
 		int start = rawIdentifier.getStartIndex();
 		int end = Math.max(start, rawIdentifier.getEndIndex());
@@ -42,28 +42,23 @@ public class BasicsActions extends SourceActions {
 	}
 	
 	public boolean checkIfKeyword(String text) {
-		return text == null || !BasicsParser.KEYWORDS.contains(text);
+		return text == null || !BasicsParser.isKeyword(text);
 	}
 	
 	public boolean logComment(String text) {
-		if (text.startsWith("//")) return logLineComment(text);
-		else return logBlockComment(text);
-	}
-	
-	public boolean logBlockComment(String text) {
-		if (text.startsWith("/*")) text = text.substring(2);
-		if (text.endsWith("*/")) text = text.substring(0, text.length() - 2);
-		Comment c = new Comment().astBlockComment(true).astContent(text);
-		c.setPosition(new Position(startPos(), currentPos()));
-		source.registerComment(getContext(), c);
+		source().registerComment(getContext(), createComment(text, startPos(), currentPos()));
 		return true;
 	}
 	
-	public boolean logLineComment(String text) {
-		if (text.startsWith("//")) text = text.substring(2);
-		Comment c = new Comment().astBlockComment(false).astContent(text);
-		c.setPosition(new Position(startPos(), currentPos()));
-		source.registerComment(getContext(), c);
-		return true;
+	/**
+	 * Creates the comment node for {@code text}, which is a complete line or block comment including its delimiters.
+	 */
+	static Comment createComment(String text, int start, int end) {
+		boolean blockComment = !text.startsWith("//");
+		if (text.startsWith("//") || text.startsWith("/*")) text = text.substring(2);
+		if (blockComment && text.endsWith("*/")) text = text.substring(0, text.length() - 2);
+		Comment c = new Comment().astBlockComment(blockComment).astContent(text);
+		c.setPosition(new Position(start, end));
+		return c;
 	}
 }
@@ -43,14 +43,14 @@ public class BasicsParser extends BaseParser<Node> {
 	
 	public BasicsParser(ParserGroup group) {
 		this.group = group;
-		this.actions = new BasicsActions(group.getSource());
+		this.actions = new BasicsActions(group);
 	}
 	
 	/**
 	 * Eats up any whitespace and comments at the current position.
 	 */
 	public Rule optWS() {
-		return ZeroOrMore(FirstOf(comment(), whitespaceChar())).label("ws");
+		return FirstOf(new TriviaMatcher(group, true), ZeroOrMore(FirstOf(comment(), whitespaceChar()))).label("ws");
 	}
 	
 	/**
@@ -58,7 +58,56 @@ public class BasicsParser extends BaseParser<Node> {
 	 * but only matches if there is at least one comment or whitespace character to gobble up.
 	 */
 	public Rule mandatoryWS() {
-		return OneOrMore(FirstOf(comment(), whitespaceChar())).label("ws");
+		return FirstOf(new TriviaMatcher(group, false), OneOrMore(FirstOf(comment(), whitespaceChar()))).label("ws");
+	}
+	
+	/**
+	 * Skips a whole run of whitespace and comments in one step, using the runs found by the source's {@link JavaLexer}.
+	 * If the lexer can't answer for the current position, this matcher fails, and the character-by-character rules take over.
+	 * It also serves as the grammar's {@link Source#checkpoint(org.parboiled.Context) checkpoint}.
+	 */
+	private static class TriviaMatcher extends CharSetMatcher<Node> {
+		private final ParserGroup group;
+		private final boolean allowEmpty;
+		
+		TriviaMatcher(ParserGroup group, boolean allowEmpty) {
+			super(Characters.of(" \t\f\r\n/"));
+			this.group = group;
+			this.allowEmpty = allowEmpty;
+		}
+		
+		@Override public boolean match(MatcherContext<Node> context) {
+			Source source = group.getSource();
+			if (source == null) return false;
+			/*
+			 * We get here after nearly every token, which makes this a good spot to check whether the parse should go on. This has to come
+			 * before the lexer check, so the limits still hold while recovering from errors, when there is no lexer.
+			 */
+			source.checkpoint(context);
+			JavaLexer lexer = source.getLexer();
+			if (lexer == null) return false;
+			
+			int run = lexer.runAt(context.getCurrentIndex());
+			if (run == -1) {
+				/* No whitespace or comment can start here, so there's nothing to skip. */
+				return allowEmpty && !isTriviaStart(context.getCurrentChar());
+			}
+			
+			int end = lexer.runEnd(run);
+			while (context.getCurrentIndex() < end) context.advanceIndex();
+			/* A node is only needed to hang comments on; plain whitespace nodes are never read. */
+			if (lexer.firstComment(run) == lexer.endComment(run)) return true;
+			context.createNode();
+			for (int i = lexer.firstComment(run); i < lexer.endComment(run); i++) {
+				int start = lexer.commentStart(i), commentEnd = lexer.commentEnd(i);
+				source.registerComment(context.getNode(), BasicsActions.createComment(lexer.text(start, commentEnd), start, commentEnd));
+			}
+			return true;
+		}
+		
+		private static boolean isTriviaStart(char c) {
+			return c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n' || c == '/';
+		}
 	}
 	
 	public Rule testLexBreak() {
@@ -97,9 +146,31 @@ public class BasicsParser extends BaseParser<Node> {
 			"public", "private", "protected"
 	));
 	
+	/**
+	 * A perfect hash table of the {@link #KEYWORDS}; the slot of a word is derived from its first 2 characters and its length.
+	 */
+	private static final String[] KEYWORD_TABLE = new String[128];
+	static {
+		for (String keyword : KEYWORDS) {
+			int slot = keywordSlot(keyword);
+			if (KEYWORD_TABLE[slot] != null) throw new IllegalStateException("Keywords collide: " + keyword + " and " + KEYWORD_TABLE[slot]);
+			KEYWORD_TABLE[slot] = keyword;
+		}
+	}
+	
+	private static int keywordSlot(String word) {
+		return (word.charAt(0) * 5 + word.charAt(1) * 56 + word.length() * 12) & 127;
+	}
+	
+	static boolean isKeyword(String word) {
+		int length = word.length();
+		if (length < 2 || length > 12) return false;
+		return word.equals(KEYWORD_TABLE[keywordSlot(word)]);
+	}
+	
 	@SuppressSubnodes
 	public Rule identifierRaw() {
-		return Sequence(new JavaIdentifierStartMatcher(), ZeroOrMore(new JavaIdentifierPartMatcher()));
+		return new JavaIdentifierMatcher();
 	}
 	
 	public Rule identifierPart() {
@@ -111,30 +182,32 @@ public class BasicsParser extends BaseParser<Node> {
 			super(Characters.of("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_$"));
 		}
 		
+		/* Only used as a lookahead, so the node would never be looked at. */
 		@Override public boolean match(MatcherContext<Node> context) {
 			char current = context.getCurrentChar();
 			if (Character.isJavaIdentifierPart(current)) {
 				context.advanceIndex();
-				context.createNode();
 				return true;
 			}
 			return false;
 		}
 	}
 	
-	private static class JavaIdentifierStartMatcher extends CharSetMatcher<Node> {
-		public JavaIdentifierStartMatcher() {
+	/**
+	 * Matches an entire identifier as a single node, instead of creating a node for each of its characters.
+	 */
+	private static class JavaIdentifierMatcher extends CharSetMatcher<Node> {
+		public JavaIdentifierMatcher() {
 			super(Characters.of("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ_$"));
 		}
 		
 		@Override public boolean match(MatcherContext<Node> context) {
-			char current = context.getCurrentChar();
-			if (Character.isJavaIdentifierStart(current)) {
+			if (!Character.isJavaIdentifierStart(context.getCurrentChar())) return false;
+			do {
 				context.advanceIndex();
-				context.createNode();
-				return true;
-			}
-			return false;
+			} while (Character.isJavaIdentifierPart(context.getCurrentChar()));
+			context.createNode();
+			return true;
 		}
 	}
 	
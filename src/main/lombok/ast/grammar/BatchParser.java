@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Parses many {@link Source}s at once, spreading the work over a thread pool.
+ * 
+ * Each worker thread parses with its own grammar (see {@link ParserGroup#forCurrentThread()}), and each source is only ever touched by a single worker,
+ * so no locking is involved. Results are handed to a {@link Listener} on the thread that called {@code parse}, so listeners need not be thread-safe.
+ * 
+ * The pool is supplied by the caller and is never shut down by this class.
+ */
+public class BatchParser {
+	/**
+	 * Determines the order in which parsed sources are handed to the {@link Listener}.
+	 */
+	public enum Delivery {
+		/** Sources are delivered in the order in which they were supplied, even if a later source finishes first. */
+		ORDERED,
+		/** Sources are delivered as soon as they are parsed. */
+		UNORDERED;
+	}
+	
+	public interface Listener {
+		/**
+		 * Called once for each source, after it has been parsed as a compilation unit.
+		 * 
+		 * @param problems The problems found in {@code source}; empty if it parsed cleanly.
+		 */
+		void parsed(Source source, List<ParseProblem> problems);
+	}
+	
+	private final ExecutorService executor;
+	
+	public BatchParser(ExecutorService executor) {
+		if (executor == null) throw new NullPointerException("executor");
+		this.executor = executor;
+	}
+	
+	/**
+	 * Parses all {@code sources} with a fixed pool of {@code threads} threads, which is shut down afterwards.
+	 * 
+	 * @return A map from each source to its problems, iterating in the order of {@code sources}.
+	 */
+	public static Map<Source, List<ParseProblem>> parseAll(Collection<? extends Source> sources, int threads) {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			return new BatchParser(executor).parse(sources);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Parses all {@code sources} as compilation units and blocks until they are all done.
+	 * 
+	 * @return A map from each source to its problems, iterating in the order of {@code sources}.
+	 */
+	public Map<Source, List<ParseProblem>> parse(Collection<? extends Source> sources) {
+		final Map<Source, List<ParseProblem>> result = Maps.newLinkedHashMap();
+		parse(sources, Delivery.ORDERED, new Listener() {
+			@Override public void parsed(Source source, List<ParseProblem> problems) {
+				result.put(source, problems);
+			}
+		});
+		return Collections.unmodifiableMap(result);
+	}
+	
+	/**
+	 * Parses all {@code sources} as compilation units, reporting each one to {@code listener} as dictated by {@code delivery}.
+	 * Blocks until every source has been delivered.
+	 * 
+	 * If parsing any source throws an exception, or the calling thread is interrupted, all outstanding work is cancelled
+	 * and the exception is rethrown (wrapped in a {@code RuntimeException} if it is checked).
+	 */
+	public void parse(Collection<? extends Source> sources, Delivery delivery, Listener listener) {
+		CompletionService<Source> completion = new ExecutorCompletionService<Source>(executor);
+		List<Future<Source>> futures = Lists.newArrayListWithCapacity(sources.size());
+		boolean done = false;
+		try {
+			for (Source source : sources) futures.add(completion.submit(new ParseTask(source)));
+			
+			for (int i = 0; i < futures.size(); i++) {
+				Future<Source> future = delivery == Delivery.ORDERED ? futures.get(i) : completion.take();
+				Source source = future.get();
+				listener.parsed(source, source.getProblems());
+			}
+			done = true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw Throwables.propagate(e);
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		} finally {
+			if (!done) for (Future<Source> future : futures) future.cancel(true);
+		}
+	}
+	
+	private static class ParseTask implements Callable<Source> {
+		private final Source source;
+		
+		ParseTask(Source source) {
+			this.source = source;
+		}
+		
+		@Override public Source call() {
+			source.parseCompilationUnit();
+			return source;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.List;
+
+import lombok.ast.Node;
+
+import org.parboiled.MatcherContext;
+import org.parboiled.Rule;
+import org.parboiled.matchers.FirstOfMatcher;
+import org.parboiled.matchers.Matcher;
+import org.parboiled.support.InputBuffer;
+
+import com.google.common.collect.Lists;
+
+/**
+ * A {@code FirstOf} that only tries the alternatives that can start with the current character and, for alternatives that start with
+ * a keyword, only when that keyword is there. The remaining alternatives are tried in their original order, so this matches exactly what
+ * a plain {@code FirstOf} would; it just doesn't bother with the alternatives that would fail on their first character.
+ * 
+ * Alternatives are given by a {@link Builder}. Their first characters must be ASCII; at any other character, all alternatives are tried.
+ * During error recovery all alternatives are tried as well, as recovery edits the input and bases its repairs on every alternative that failed.
+ * The same goes for sources that have {@link Source#setDispatching(boolean) dispatching} turned off.
+ */
+final class DispatchMatcher extends FirstOfMatcher<Node> {
+	static final String IDENTIFIER_START = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ_$";
+	static final String DIGITS = "0123456789";
+	/** Anything that can start an expression: a primary expression, a cast or a prefix operator. */
+	static final String EXPRESSION_START = IDENTIFIER_START + DIGITS + "(.'\"+-!~";
+	/** Anything that can start a declaration: a modifier, annotation or type. */
+	static final String DECLARATION_START = IDENTIFIER_START + "@";
+	
+	private final ParserGroup group;
+	private final int[][] candidates;
+	private final String[][] words;
+	
+	private DispatchMatcher(ParserGroup group, Rule[] alternatives, int[][] candidates, String[][] words) {
+		super(alternatives);
+		this.group = group;
+		this.candidates = candidates;
+		this.words = words;
+	}
+	
+	static Builder builder(ParserGroup group) {
+		return new Builder(group);
+	}
+	
+	@Override public boolean match(MatcherContext<Node> context) {
+		char c = context.getCurrentChar();
+		Source source = group.getSource();
+		/* The source drops its lexer when the input buffer gets edited by error recovery. */
+		if (c >= candidates.length || source == null || !source.isDispatching() || source.getLexer() == null) return super.match(context);
+		
+		List<Matcher<Node>> children = getChildren();
+		for (int i : candidates[c]) {
+			if (words[i] != null && !atWord(context, words[i])) continue;
+			if (context.getSubContext(children.get(i)).runMatcher()) {
+				context.createNode();
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns {@code true} unless it's certain that none of {@code words} is at the current position.
+	 */
+	private static boolean atWord(MatcherContext<Node> context, String[] words) {
+		InputBuffer input = context.getInputBuffer();
+		int start = context.getCurrentIndex();
+		for (String word : words) {
+			int i = 0;
+			while (i < word.length() && input.charAt(start + i) == word.charAt(i)) i++;
+			char next = input.charAt(start + i);
+			if (next >= 128) return true;
+			if (i == word.length() && !Character.isJavaIdentifierPart(next)) return true;
+		}
+		return false;
+	}
+	
+	static final class Builder {
+		private final ParserGroup group;
+		private final List<Rule> alternatives = Lists.newArrayList();
+		private final List<String> firstChars = Lists.newArrayList();
+		private final List<String[]> words = Lists.newArrayList();
+		
+		private Builder(ParserGroup group) {
+			this.group = group;
+		}
+		
+		/**
+		 * Adds an alternative that can only start with one of {@code chars}.
+		 */
+		Builder chars(String chars, Rule alternative) {
+			alternatives.add(alternative);
+			firstChars.add(chars);
+			words.add(null);
+			return this;
+		}
+		
+		/**
+		 * Adds an alternative that can only start with one of the space separated {@code keywords}.
+		 */
+		Builder words(String keywords, Rule alternative) {
+			String[] split = keywords.split(" ");
+			StringBuilder chars = new StringBuilder();
+			for (String word : split) chars.append(word.charAt(0));
+			alternatives.add(alternative);
+			firstChars.add(chars.toString());
+			words.add(split);
+			return this;
+		}
+		
+		Rule build() {
+			int[][] candidates = new int[128][];
+			int[] found = new int[alternatives.size()];
+			for (char c = 0; c < candidates.length; c++) {
+				int count = 0;
+				for (int i = 0; i < alternatives.size(); i++) {
+					if (firstChars.get(i).indexOf(c) != -1) found[count++] = i;
+				}
+				candidates[c] = new int[count];
+				System.arraycopy(found, 0, candidates[c], 0, count);
+			}
+			return new DispatchMatcher(group, alternatives.toArray(new Rule[0]), candidates, words.toArray(new String[0][]));
+		}
+	}
+}
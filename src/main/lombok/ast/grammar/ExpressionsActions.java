@@ -22,6 +22,7 @@
 package lombok.ast.grammar;
 
 import java.util.List;
+import java.util.Map;
 
 import lombok.ast.ArrayAccess;
 import lombok.ast.ArrayCreation;
@@ -48,28 +49,98 @@ import lombok.ast.UnaryExpression;
 import lombok.ast.UnaryOperator;
 import lombok.ast.VariableReference;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
 public class ExpressionsActions extends SourceActions {
-	public ExpressionsActions(Source source) {
-		super(source);
+	public ExpressionsActions(ParserGroup group) {
+		super(group);
+	}
+	
+	/**
+	 * Binary operators grouped by precedence level, from the most tightly binding group to the least.
+	 */
+	private static final String[][] BINARY_OPERATOR_LEVELS = {
+			{"*", "/", "%"},
+			{"+", "-"},
+			{">>>", "<<<", "<<", ">>"},
+			{"<=", ">=", "<", ">"},
+			{"===", "!==", "==", "!="},
+			{"&"},
+			{"^"},
+			{"|"},
+			{"&&"},
+			{"^^"},
+			{"||"},
+	};
+	
+	private static final Map<String, Integer> BINARY_OPERATOR_PRECEDENCE; static {
+		ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builder();
+		for (int i = 0; i < BINARY_OPERATOR_LEVELS.length; i++) {
+			for (String operator : BINARY_OPERATOR_LEVELS[i]) builder.put(operator, i);
+		}
+		BINARY_OPERATOR_PRECEDENCE = builder.build();
+	}
+	
+	static int precedenceOf(String operator) {
+		Integer level = operator == null ? null : BINARY_OPERATOR_PRECEDENCE.get(operator);
+		return level == null ? BINARY_OPERATOR_LEVELS.length : level;
+	}
+	
+	private static class Operand {
+		final Node value;
+		final org.parboiled.Node<Node> start, end;
+		
+		Operand(Node value, org.parboiled.Node<Node> start, org.parboiled.Node<Node> end) {
+			this.value = value;
+			this.start = start;
+			this.end = end;
+		}
 	}
 	
-	public Node createLeftAssociativeBinaryExpression(
+	/**
+	 * Turns a flat list of operands separated by binary operators into a tree of binary expressions, by precedence climbing.
+	 * All binary operators are left associative, so of two operators with the same precedence, the leftmost one binds first.
+	 */
+	public Node createBinaryExpressionsByPrecedence(
 			org.parboiled.Node<Node> head,
-			List<org.parboiled.Node<Node>> operatorsNodes, 
+			List<org.parboiled.Node<Node>> operatorsNodes,
 			List<String> operators,
 			List<org.parboiled.Node<Node>> tail) {
 		
-		Node currentLeft = head.getValue();
+		if (operators.isEmpty()) return head.getValue();
+		
+		List<Operand> operands = Lists.newArrayList();
+		List<Integer> pending = Lists.newArrayList();
+		operands.add(new Operand(head.getValue(), head, head));
 		
 		for (int i = 0; i < operators.size(); i++) {
-			currentLeft = new BinaryExpression()
-					.rawLeft(currentLeft)
-					.rawRight(tail.get(i).getValue()).rawOperator(operators.get(i));
-			source.registerStructure(currentLeft, operatorsNodes.get(i));
-			positionSpan(currentLeft, head, tail.get(i));
+			int precedence = precedenceOf(operators.get(i));
+			while (!pending.isEmpty() && precedenceOf(operators.get(pending.get(pending.size() - 1))) <= precedence) {
+				reduceBinaryExpression(operands, pending, operatorsNodes, operators);
+			}
+			pending.add(i);
+			operands.add(new Operand(tail.get(i).getValue(), tail.get(i), tail.get(i)));
 		}
 		
-		return currentLeft;
+		while (!pending.isEmpty()) reduceBinaryExpression(operands, pending, operatorsNodes, operators);
+		
+		return operands.get(0).value;
+	}
+	
+	private void reduceBinaryExpression(List<Operand> operands, List<Integer> pending,
+			List<org.parboiled.Node<Node>> operatorsNodes, List<String> operators) {
+		
+		int op = pending.remove(pending.size() - 1);
+		Operand right = operands.remove(operands.size() - 1);
+		Operand left = operands.remove(operands.size() - 1);
+		
+		Node result = new BinaryExpression()
+				.rawLeft(left.value)
+				.rawRight(right.value).rawOperator(operators.get(op));
+		source().registerStructure(result, operatorsNodes.get(op));
+		positionSpan(result, left.start, right.end);
+		operands.add(new Operand(result, left.start, right.end));
 	}
 	
 	public Node createAssignmentExpression(Node lhs, String operator, Node rhs) {
@@ -85,8 +156,8 @@ public class ExpressionsActions extends SourceActions {
 		
 		InlineIfExpression result = new InlineIfExpression()
 				.rawCondition(head).rawIfTrue(tail1).rawIfFalse(tail2);
-		source.registerStructure(result, operator1Node);
-		source.registerStructure(result, operator2Node);
+		source().registerStructure(result, operator1Node);
+		source().registerStructure(result, operator2Node);
 		return posify(result);
 	}
 	
@@ -167,9 +238,9 @@ public class ExpressionsActions extends SourceActions {
 	}
 	
 	public Node createQualifiedConstructorInvocation(
-			Node constructorTypeArgs,
+			org.parboiled.Node<Node> constructorTypeArgs,
 			org.parboiled.Node<Node> identifier, org.parboiled.Node<Node> classTypeArgs,
-			Node methodArguments, Node classBody) {
+			org.parboiled.Node<Node> methodArguments, Node classBody) {
 		
 		TypeReferencePart classTypeArgs0;
 		boolean classTypeArgsCorrect = false;
@@ -198,17 +269,8 @@ public class ExpressionsActions extends SourceActions {
 				.rawTypeReference(typeReference)
 				.rawAnonymousClassBody(classBody);
 		
-		if (constructorTypeArgs instanceof TemporaryNode.TypeArguments) {
-			for (Node arg : ((TemporaryNode.TypeArguments)constructorTypeArgs).arguments) {
-				constructorInvocation.rawConstructorTypeArguments().addToEnd(arg);
-			}
-		}
-		
-		if (methodArguments instanceof TemporaryNode.MethodArguments) {
-			for (Node arg : ((TemporaryNode.MethodArguments)methodArguments).arguments) {
-				constructorInvocation.rawArguments().addToEnd(arg);
-			}
-		}
+		for (Node arg : elements(constructorTypeArgs)) constructorInvocation.rawConstructorTypeArguments().addToEnd(arg);
+		for (Node arg : elements(methodArguments)) constructorInvocation.rawArguments().addToEnd(arg);
 		
 		return posify(constructorInvocation);
 	}
@@ -231,22 +293,14 @@ public class ExpressionsActions extends SourceActions {
 		return current;
 	}
 	
-	public Node createMethodInvocationOperation(org.parboiled.Node<Node> dot, Node typeArguments, Node name, Node arguments) {
-		MethodInvocation mi = new MethodInvocation().astName(createIdentifierIfNeeded(name, currentPos()));
-		
-		if (typeArguments instanceof TemporaryNode.TypeArguments) {
-			for (Node arg : ((TemporaryNode.TypeArguments)typeArguments).arguments) {
-				mi.rawMethodTypeArguments().addToEnd(arg);
-			}
-		} else DanglingNodes.addDanglingNode(mi, typeArguments);
+	public Node createMethodInvocationOperation(org.parboiled.Node<Node> dot, org.parboiled.Node<Node> typeArguments, Node name,
+			org.parboiled.Node<Node> arguments) {
 		
-		if (arguments instanceof TemporaryNode.MethodArguments) {
-			for (Node arg : ((TemporaryNode.MethodArguments)arguments).arguments) {
-				mi.rawArguments().addToEnd(arg);
-			}
-		} else DanglingNodes.addDanglingNode(mi, arguments);
+		MethodInvocation mi = new MethodInvocation().astName(createIdentifierIfNeeded(name, currentPos()));
+		for (Node arg : elements(mi, typeArguments)) mi.rawMethodTypeArguments().addToEnd(arg);
+		for (Node arg : elements(mi, arguments)) mi.rawArguments().addToEnd(arg);
 		
-		source.registerStructure(mi, dot);
+		source().registerStructure(mi, dot);
 		
 		return posify(mi);
 	}
@@ -281,38 +335,27 @@ public class ExpressionsActions extends SourceActions {
 		return current;
 	}
 	
-	public Node createPrimary(Node identifier, Node methodArguments) {
+	public Node createPrimary(Node identifier, org.parboiled.Node<Node> methodArguments) {
 		Identifier id = createIdentifierIfNeeded(identifier, currentPos());
 		
-		if (methodArguments instanceof TemporaryNode.MethodArguments) {
+		if (methodArguments != null) {
 			MethodInvocation invoke = new MethodInvocation().astName(id);
-			for (Node arg : ((TemporaryNode.MethodArguments)methodArguments).arguments) {
-				invoke.rawArguments().addToEnd(arg);
-			}
+			for (Node arg : elements(invoke, methodArguments)) invoke.rawArguments().addToEnd(arg);
 			return posify(invoke);
 		} else {
-			VariableReference ref = new VariableReference().astIdentifier(id);
-			DanglingNodes.addDanglingNode(ref, methodArguments);
-			return posify(ref);
+			return posify(new VariableReference().astIdentifier(id));
 		}
 	}
 	
-	public Node createUnqualifiedConstructorInvocation(Node constructorTypeArgs, Node type, Node args, Node anonymousClassBody) {
+	public Node createUnqualifiedConstructorInvocation(org.parboiled.Node<Node> constructorTypeArgs, Node type,
+			org.parboiled.Node<Node> args, Node anonymousClassBody) {
+		
 		ConstructorInvocation result = new ConstructorInvocation()
 				.rawTypeReference(type)
 				.rawAnonymousClassBody(anonymousClassBody);
 		
-		if (constructorTypeArgs instanceof TemporaryNode.TypeArguments) {
-			for (Node arg : ((TemporaryNode.TypeArguments)constructorTypeArgs).arguments) {
-				result.rawConstructorTypeArguments().addToEnd(arg);
-			}
-		}
-		
-		if (args instanceof TemporaryNode.MethodArguments) {
-			for (Node arg : ((TemporaryNode.MethodArguments)args).arguments) {
-				result.rawArguments().addToEnd(arg);
-			}
-		} else DanglingNodes.addDanglingNode(result, args);
+		for (Node arg : elements(constructorTypeArgs)) result.rawConstructorTypeArguments().addToEnd(arg);
+		for (Node arg : elements(result, args)) result.rawArguments().addToEnd(arg);
 		
 		return posify(result);
 	}
@@ -351,7 +394,7 @@ public class ExpressionsActions extends SourceActions {
 		if ("super".equals(text)) result = new Super().rawQualifier(qualifier);
 		else if ("class".equals(text)) result = new ClassLiteral().rawTypeReference(qualifier);
 		else result = new This().rawQualifier(qualifier);
-		if (dot != null) source.registerStructure(result, dot);
+		if (dot != null) source().registerStructure(result, dot);
 		return posify(result);
 	}
 	
@@ -364,6 +407,10 @@ public class ExpressionsActions extends SourceActions {
 	}
 	
 	public boolean typeIsAlsoLegalAsExpression(Node type) {
+		return isAlsoLegalAsExpression(type);
+	}
+	
+	static boolean isAlsoLegalAsExpression(Node type) {
 		if (!(type instanceof TypeReference)) return true;
 		TypeReference tr = (TypeReference)type;
 		if (tr.astArrayDimensions() > 0) return false;
@@ -33,8 +33,25 @@ public class ExpressionsParser extends BaseParser<Node> {
 	final ParserGroup group;
 	final ExpressionsActions actions;
 	
+	static final NodePath ONE_OR_MORE_SEQUENCE = new NodePath("OneOrMore/Sequence");
+	static final NodePath OPTIONAL_SEQUENCE_HEAD = new NodePath("Optional/Sequence/head");
+	static final NodePath OPTIONAL_SEQUENCE_ZERO_OR_MORE_SEQUENCE_TAIL = new NodePath("Optional/Sequence/ZeroOrMore/Sequence/tail");
+	static final NodePath OPTIONAL_METHOD_ARGS = new NodePath("Optional/methodArgs");
+	static final NodePath ZERO_OR_MORE_FIRST_OF = new NodePath("ZeroOrMore/FirstOf");
+	static final NodePath ZERO_OR_MORE_SEQUENCE = new NodePath("ZeroOrMore/Sequence");
+	static final NodePath ZERO_OR_MORE_OPERATOR_CT_OPERATOR = new NodePath("ZeroOrMore/operatorCt/operator");
+	static final NodePath ONE_OR_MORE_OPERATOR_CT_OPERATOR = new NodePath("OneOrMore/operatorCt/operator");
+	static final NodePath INSTANCEOF_TYPE_CT_TYPE = new NodePath("instanceof/typeCt/type");
+	static final NodePath OPTIONAL_SEQUENCE_OPERATOR1 = new NodePath("Optional/Sequence/operator1");
+	static final NodePath OPTIONAL_SEQUENCE_OPERATOR2 = new NodePath("Optional/Sequence/operator2");
+	static final NodePath OPTIONAL_SEQUENCE_TAIL1 = new NodePath("Optional/Sequence/tail1");
+	static final NodePath OPTIONAL_SEQUENCE_TAIL2 = new NodePath("Optional/Sequence/tail2");
+	static final NodePath ASSIGNMENT_SEQUENCE_OPERATOR = new NodePath("assignment/Sequence/operator");
+	static final NodePath ZERO_OR_MORE_SEQUENCE_OPERATOR = new NodePath("ZeroOrMore/Sequence/operator");
+	static final NodePath ZERO_OR_MORE_SEQUENCE_TAIL = new NodePath("ZeroOrMore/Sequence/tail");
+	
 	public ExpressionsParser(ParserGroup group) {
-		this.actions = new ExpressionsActions(group.getSource());
+		this.actions = new ExpressionsActions(group);
 		this.group = group;
 	}
 	
@@ -42,14 +59,15 @@ public class ExpressionsParser extends BaseParser<Node> {
 	 * P0
 	 */
 	public Rule primaryExpression() {
-		return FirstOf(
-				parenGrouping(),
-				group.literals.anyLiteral(),
-				unqualifiedThisOrSuperLiteral(),
-				arrayCreationExpression(),
-				unqualifiedConstructorInvocation(),
-				qualifiedClassOrThisOrSuperLiteral(),
-				identifierExpression());
+		return DispatchMatcher.builder(group)
+				.chars("(", parenGrouping())
+				.chars(DispatchMatcher.DIGITS + ".'\"ntf", group.literals.anyLiteral())
+				.words("this super", unqualifiedThisOrSuperLiteral())
+				.words("new", arrayCreationExpression())
+				.words("new", unqualifiedConstructorInvocation())
+				.chars(DispatchMatcher.IDENTIFIER_START, qualifiedClassOrThisOrSuperLiteral())
+				.chars(DispatchMatcher.IDENTIFIER_START, identifierExpression())
+				.build();
 	}
 	
 	Rule parenGrouping() {
@@ -89,7 +107,7 @@ public class ExpressionsParser extends BaseParser<Node> {
 				group.types.type().label("type"),
 				group.structures.methodArguments().label("args"),
 				Optional(group.structures.typeBody()).label("classBody"),
-				set(actions.createUnqualifiedConstructorInvocation(value("constructorTypeArgs"), value("type"), value("args"), value("classBody"))));
+				set(actions.createUnqualifiedConstructorInvocation(node("constructorTypeArgs"), value("type"), node("args"), value("classBody"))));
 	}
 	
 	/**
@@ -105,7 +123,7 @@ public class ExpressionsParser extends BaseParser<Node> {
 						Optional(anyExpression()).label("dimension"), Ch(']'), group.basics.optWS(),
 						set(actions.createDimension(value("dimension"), node("openArray"))))),
 				Optional(arrayInitializer()).label("initializer"),
-				set(actions.createArrayCreationExpression(value("type"), values("OneOrMore/Sequence"), value("initializer"))));
+				set(actions.createArrayCreationExpression(value("type"), actions.values(ONE_OR_MORE_SEQUENCE), value("initializer"))));
 	}
 	
 	public Rule arrayInitializer() {
@@ -119,15 +137,15 @@ public class ExpressionsParser extends BaseParser<Node> {
 						Optional(Ch(',')),
 						group.basics.optWS())),
 				Ch('}'), group.basics.optWS(),
-				set(actions.createArrayInitializerExpression(value("Optional/Sequence/head"), values("Optional/Sequence/ZeroOrMore/Sequence/tail"))));
+				set(actions.createArrayInitializerExpression(actions.value(OPTIONAL_SEQUENCE_HEAD), actions.values(OPTIONAL_SEQUENCE_ZERO_OR_MORE_SEQUENCE_TAIL))));
 	}
 	
 	Rule identifierExpression() {
 		return Sequence(
 				group.basics.identifier(),
 				set(),
-				Optional(Sequence(group.structures.methodArguments(), set()).label("methodArgs")),
-				set(actions.createPrimary(value(), value("Optional/methodArgs"))));
+				Optional(group.structures.methodArguments().label("methodArgs")),
+				set(actions.createPrimary(value(), actions.node(OPTIONAL_METHOD_ARGS))));
 	}
 	
 	public Rule anyExpression() {
@@ -159,7 +177,7 @@ public class ExpressionsParser extends BaseParser<Node> {
 						arrayAccessOperation().label("arrayAccess"),
 						methodInvocationWithTypeArgsOperation().label("methodInvocation"),
 						select().label("select"))),
-				set(actions.createLevel1Expression(node("head"), nodes("ZeroOrMore/FirstOf"))));
+				set(actions.createLevel1Expression(node("head"), actions.nodes(ZERO_OR_MORE_FIRST_OF))));
 	}
 	
 	Rule arrayAccessOperation() {
@@ -175,7 +193,7 @@ public class ExpressionsParser extends BaseParser<Node> {
 				group.types.typeArguments().label("typeArguments"),
 				group.basics.identifier().label("name"),
 				group.structures.methodArguments().label("methodArguments"),
-				set(actions.createMethodInvocationOperation(node("dot"), value("typeArguments"), value("name"), value("methodArguments"))));
+				set(actions.createMethodInvocationOperation(node("dot"), node("typeArguments"), value("name"), node("methodArguments"))));
 	}
 	
 	Rule select() {
@@ -206,8 +224,8 @@ public class ExpressionsParser extends BaseParser<Node> {
 						group.types.typeArguments().label("classTypeArgs"),
 						group.structures.methodArguments().label("methodArguments"),
 						Optional(group.structures.typeBody()).label("classBody"),
-						set(actions.createQualifiedConstructorInvocation(value("constructorTypeArgs"), node("innerClassName"), node("classTypeArgs"), value("methodArguments"), value("classBody"))))),
-				set(actions.createChainOfQualifiedConstructorInvocations(node("head"), nodes("ZeroOrMore/Sequence"))));
+						set(actions.createQualifiedConstructorInvocation(node("constructorTypeArgs"), node("innerClassName"), node("classTypeArgs"), node("methodArguments"), value("classBody"))))),
+				set(actions.createChainOfQualifiedConstructorInvocations(node("head"), actions.nodes(ZERO_OR_MORE_SEQUENCE))));
 	}
 	
 	/**
@@ -221,7 +239,7 @@ public class ExpressionsParser extends BaseParser<Node> {
 				ZeroOrMore(Sequence(
 						FirstOf(String("++"), String("--")).label("operator"),
 						group.basics.optWS()).label("operatorCt")),
-				set(actions.createUnaryPostfixExpression(value(), nodes("ZeroOrMore/operatorCt/operator"), texts("ZeroOrMore/operatorCt/operator"))));
+				set(actions.createUnaryPostfixExpression(value(), actions.nodes(ZERO_OR_MORE_OPERATOR_CT_OPERATOR), actions.texts(ZERO_OR_MORE_OPERATOR_CT_OPERATOR))));
 	}
 	
 	Rule postfixIncrementExpression() {
@@ -230,7 +248,7 @@ public class ExpressionsParser extends BaseParser<Node> {
 				OneOrMore(Sequence(
 						FirstOf(String("++"), String("--")).label("operator"),
 						group.basics.optWS()).label("operatorCt")),
-				set(actions.createUnaryPostfixExpression(value(), nodes("OneOrMore/operatorCt/operator"), texts("OneOrMore/operatorCt/operator"))));
+				set(actions.createUnaryPostfixExpression(value(), actions.nodes(ONE_OR_MORE_OPERATOR_CT_OPERATOR), actions.texts(ONE_OR_MORE_OPERATOR_CT_OPERATOR))));
 	}
 	
 	Rule prefixIncrementExpression() {
@@ -239,7 +257,7 @@ public class ExpressionsParser extends BaseParser<Node> {
 						FirstOf(String("++"), String("--")).label("operator"),
 						group.basics.optWS()).label("operatorCt")),
 						postfixIncrementExpressionChaining().label("operand"), set(),
-				set(actions.createUnaryPrefixExpressions(node("operand"), nodes("OneOrMore/operatorCt/operator"), texts("OneOrMore/operatorCt/operator"))));
+				set(actions.createUnaryPrefixExpressions(node("operand"), actions.nodes(ONE_OR_MORE_OPERATOR_CT_OPERATOR), actions.texts(ONE_OR_MORE_OPERATOR_CT_OPERATOR))));
 	}
 	
 	/**
@@ -268,114 +286,55 @@ public class ExpressionsParser extends BaseParser<Node> {
 	}
 	
 	/**
-	 * P3
-	 * 
-	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.17">JLS section 15.17</a>
-	 */
-	Rule multiplicativeExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprMultiplicative", FirstOf(Ch('*'), solitarySymbol('/'), Ch('%')), level2ExpressionChaining());
-	}
-	
-	/**
-	 * P4
-	 * 
-	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.18">JLS section 15.18</a>
-	 */
-	Rule additiveExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprAdditive", FirstOf(solitarySymbol('+'), solitarySymbol('-')), multiplicativeExpressionChaining());
-	}
-	
-	/**
-	 * P5
+	 * P3 to P6
 	 * 
-	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.19">JLS section 15.19</a>
-	 */
-	Rule shiftExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprShift", FirstOf(String(">>>"), String("<<<"), String("<<"), String(">>")), additiveExpressionChaining());
-	}
-	
-	/**
-	 * P6
+	 * The multiplicative, additive, shift and relational operators are matched as one flat chain; the tree is then built by
+	 * precedence climbing instead of by descending through one rule per precedence level.
 	 * 
-	 * Technically 'instanceof' is on equal footing with the other operators, but practically speaking this doesn't hold;
+	 * Technically 'instanceof' is on equal footing with the relational operators, but practically speaking this doesn't hold;
 	 * for starters, the RHS of instanceof is a Type and not an expression, and the inevitable type of an instanceof expression (boolean) is
 	 * not compatible as LHS to *ANY* of the operators in this class, including instanceof itself. Therefore, pragmatically speaking, there can only
 	 * be one instanceof, and it has to appear at the end of the chain.
 	 * 
+	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.17">JLS section 15.17</a>
+	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.18">JLS section 15.18</a>
+	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.19">JLS section 15.19</a>
 	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.20">JLS section 15.20</a>
 	 */
 	Rule relationalExpressionChaining() {
 		return Sequence(
-				forLeftAssociativeBinaryExpression("exprRelational", FirstOf(String("<="), String(">="), solitarySymbol('<'), solitarySymbol('>')), shiftExpressionChaining()),
+				binaryOperatorChain("exprRelational", FirstOf(
+						Ch('*'), solitarySymbol('/'), Ch('%'),
+						solitarySymbol('+'), solitarySymbol('-'),
+						String(">>>"), String("<<<"), String("<<"), String(">>"),
+						String("<="), String(">="), solitarySymbol('<'), solitarySymbol('>')),
+						level2ExpressionChaining()),
 				set(),
 				Optional(Sequence(
 						Sequence(String("instanceof"), group.basics.testLexBreak(), group.basics.optWS()),
 						group.types.type().label("type")).label("typeCt")).label("instanceof"),
-				set(actions.createInstanceOfExpression(value(), value("instanceof/typeCt/type"))));
+				set(actions.createInstanceOfExpression(value(), actions.value(INSTANCEOF_TYPE_CT_TYPE))));
 	}
 	
 	/**
-	 * P7
+	 * P7 to P12
 	 * 
-	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.21">JLS section 15.21</a>
-	 */
-	Rule equalityExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprEquality", FirstOf(String("==="), String("!=="), String("=="), String("!=")), relationalExpressionChaining());
-	}
-	
-	/**
-	 * P8
+	 * The equality, bitwise and logical operators are matched as one flat chain of relational expressions, and grouped by precedence climbing.
 	 * 
-	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.22">JLS section 15.22</a>
-	 */
-	Rule bitwiseAndExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprBitwiseAnd", solitarySymbol('&'), equalityExpressionChaining());
-	}
-	
-	/**
-	 * P9
-	 * 
-	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.22">JLS section 15.22</a>
-	 */
-	Rule bitwiseXorExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprBitwiseXor", solitarySymbol('^'), bitwiseAndExpressionChaining());
-	}
-	
-	/**
-	 * P10
+	 * {@code ^^} is not a legal operator; however, it is entirely imaginable someone presumes it does exist.
+	 * It also has no other sensible meaning, so we will parse it (binding between {@code &&} and {@code ||}) and flag it as a syntax error in AST phase.
 	 * 
+	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.21">JLS section 15.21</a>
 	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.22">JLS section 15.22</a>
-	 */
-	Rule bitwiseOrExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprBitwiseOr", solitarySymbol('|'), bitwiseXorExpressionChaining());
-	}
-	
-	/**
-	 * P11
-	 * 
 	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.23">JLS section 15.23</a>
-	 */
-	Rule conditionalAndExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprLogicalAnd", String("&&"), bitwiseOrExpressionChaining());
-	}
-	
-	/**
-	 * P12'
-	 * 
-	 * This is not a legal operator; however, it is entirely imaginable someone presumes it does exist.
-	 * It also has no other sensible meaning, so we will parse it and flag it as a syntax error in AST phase.
-	 */
-	Rule conditionalXorExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprLogicalXor", String("^^"), conditionalAndExpressionChaining());
-	}
-	
-	/**
-	 * P12
-	 * 
 	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#15.24">JLS section 15.24</a>
 	 */
 	Rule conditionalOrExpressionChaining() {
-		return forLeftAssociativeBinaryExpression("exprLogicalOr", String("||"), conditionalXorExpressionChaining());
+		return binaryOperatorChain("exprLogicalOr", FirstOf(
+				String("==="), String("!=="), String("=="), String("!="),
+				solitarySymbol('&'), solitarySymbol('^'), solitarySymbol('|'),
+				String("&&"), String("^^"), String("||")),
+				relationalExpressionChaining());
 	}
 	
 	/**
@@ -397,8 +356,8 @@ public class ExpressionsParser extends BaseParser<Node> {
 								inlineIfExpressionChaining().label("tail2")
 								)),
 				set(actions.createInlineIfExpression(value("head"),
-						node("Optional/Sequence/operator1"), node("Optional/Sequence/operator2"),
-						value("Optional/Sequence/tail1"), value("Optional/Sequence/tail2"))),
+						actions.node(OPTIONAL_SEQUENCE_OPERATOR1), actions.node(OPTIONAL_SEQUENCE_OPERATOR2),
+						actions.value(OPTIONAL_SEQUENCE_TAIL1), actions.value(OPTIONAL_SEQUENCE_TAIL2))),
 				group.basics.optWS());
 	}
 	
@@ -416,7 +375,7 @@ public class ExpressionsParser extends BaseParser<Node> {
 						assignmentOperator().label("operator"),
 						group.basics.optWS(),
 						assignmentExpressionChaining().label("RHS"))).label("assignment"),
-				set(actions.createAssignmentExpression(value(), text("assignment/Sequence/operator"), value("assignment"))));
+				set(actions.createAssignmentExpression(value(), actions.text(ASSIGNMENT_SEQUENCE_OPERATOR), value("assignment"))));
 	}
 	
 	// TODO add checks to see if an LHS that isn't valid for assignment shows up as a syntax error of some sort, e.g. a.b() = 2;
@@ -446,12 +405,14 @@ public class ExpressionsParser extends BaseParser<Node> {
 	}
 	
 	/**
+	 * Matches {@code operand (operator operand)*}; the resulting binary expressions are grouped by the precedence of each operator.
+	 * 
 	 * @param operator Careful; operator has to match _ONLY_ the operator, not any whitespace around it (otherwise we'd have to remove comments from it, which isn't feasible).
 	 */
 	@Cached
-	Rule forLeftAssociativeBinaryExpression(String labelName, Rule operator, Rule nextHigher) {
+	Rule binaryOperatorChain(String labelName, Rule operator, Rule operand) {
 		return Sequence(
-				nextHigher.label("head"), new Action<Node>() {
+				operand.label("head"), new Action<Node>() {
 					@Override public boolean run(Context<Node> context) {
 						setContext(context);
 						return set();
@@ -461,15 +422,17 @@ public class ExpressionsParser extends BaseParser<Node> {
 				ZeroOrMore(Sequence(
 						operator.label("operator"),
 						group.basics.optWS(),
-						nextHigher.label("tail"),
+						operand.label("tail"),
 						group.basics.optWS())),
 				new Action<Node>() {
 					@Override public boolean run(Context<Node> context) {
 						setContext(context);
-						return set(actions.createLeftAssociativeBinaryExpression(
+						/* Only action expressions get the context handed to the actions object; this hand-written action has to do it itself. */
+						actions.setContext(context);
+						return set(actions.createBinaryExpressionsByPrecedence(
 								node("head"),
-								nodes("ZeroOrMore/Sequence/operator"), texts("ZeroOrMore/Sequence/operator"),
-								nodes("ZeroOrMore/Sequence/tail")));
+								actions.nodes(ZERO_OR_MORE_SEQUENCE_OPERATOR), actions.texts(ZERO_OR_MORE_SEQUENCE_OPERATOR),
+								actions.nodes(ZERO_OR_MORE_SEQUENCE_TAIL)));
 					}
 				},
 				group.basics.optWS()).label(labelName);
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Totals the work done by each rule path of the grammar over any number of parse runs, such as all files of a code base.
+ * 
+ * Feed it with {@link Source#addProfileInformation(GrammarProfile)}, then write the totals with {@link #writeCollapsedStacks(Appendable, Metric)},
+ * which can be fed to flame graph tools, or {@link #writeTable(Appendable, Metric, int)}. Rule paths are the labels of the matchers from the root
+ * down, without input positions. This class is thread safe; each parse run is merged in one step once it finishes.
+ */
+public class GrammarProfile {
+	public enum Metric {
+		/** How often the rule was run. */
+		INVOCATIONS,
+		/** How often the rule failed to match. */
+		FAILURES,
+		/** Characters the rule had consumed before it failed, which all have to be matched again by some other rule. */
+		BACKTRACKED_CHARS,
+		/** Nanoseconds spent in the rule itself, not counting the rules it ran. */
+		SELF_TIME,
+		/** Nanoseconds spent in the rule, including the rules it ran. */
+		TIME;
+	}
+	
+	private final Entry root = new Entry(null);
+	private int runs;
+	
+	/**
+	 * The statistics for a single rule path; the root entry has no label and is never reported.
+	 */
+	static final class Entry {
+		final String label;
+		final Map<String, Entry> children = Maps.newLinkedHashMap();
+		long invocations, failures, backtrackedChars, nanos;
+		
+		Entry(String label) {
+			this.label = label;
+		}
+		
+		Entry child(String label) {
+			Entry child = children.get(label);
+			if (child == null) {
+				child = new Entry(label);
+				children.put(label, child);
+			}
+			return child;
+		}
+		
+		long selfNanos() {
+			long self = nanos;
+			for (Entry child : children.values()) self -= child.nanos;
+			return Math.max(0, self);
+		}
+		
+		long get(Metric metric) {
+			switch (metric) {
+			case INVOCATIONS: return invocations;
+			case FAILURES: return failures;
+			case BACKTRACKED_CHARS: return backtrackedChars;
+			case SELF_TIME: return selfNanos();
+			case TIME: return nanos;
+			default: throw new IllegalArgumentException("Unknown metric: " + metric);
+			}
+		}
+		
+		void addAll(Entry other) {
+			invocations += other.invocations;
+			failures += other.failures;
+			backtrackedChars += other.backtrackedChars;
+			nanos += other.nanos;
+			for (Entry otherChild : other.children.values()) child(otherChild.label).addAll(otherChild);
+		}
+	}
+	
+	/**
+	 * Adds the statistics of a finished parse run, as gathered from {@code runRoot}, the unlabelled root of that run.
+	 */
+	synchronized void add(Entry runRoot) {
+		root.addAll(runRoot);
+		runs++;
+	}
+	
+	/**
+	 * Returns the total of {@code metric} over all rule paths. For {@link Metric#INVOCATIONS} this is how many times any matcher was run,
+	 * which is a measure of the work done that doesn't depend on the machine.
+	 */
+	public synchronized long getTotal(Metric metric) {
+		if (metric == Metric.TIME) metric = Metric.SELF_TIME;
+		return total(root, metric);
+	}
+	
+	private static long total(Entry entry, Metric metric) {
+		long total = entry.label == null ? 0 : entry.get(metric);
+		for (Entry child : entry.children.values()) total += total(child, metric);
+		return total;
+	}
+	
+	/**
+	 * Returns how many parse runs have been added to this profile.
+	 */
+	public synchronized int getRuns() {
+		return runs;
+	}
+	
+	/**
+	 * Writes one line per rule path in the collapsed stack format ({@code compilationUnit;typeDeclaration;... 1234}) used by flame graph tools.
+	 * 
+	 * The number on each line is the rule's own share of {@code metric}, so that tools that add up a rule's children get the right totals.
+	 * {@link Metric#TIME} is therefore written as {@link Metric#SELF_TIME}. Paths with nothing to count are left out.
+	 * 
+	 * Labels such as {@code ';'} hold characters that mean something in this format; these are written as {@code %} followed by their
+	 * hexadecimal character code, as are whitespace and {@code %} itself. An empty label is written as {@code %}.
+	 */
+	public synchronized void writeCollapsedStacks(Appendable out, Metric metric) throws IOException {
+		if (metric == Metric.TIME) metric = Metric.SELF_TIME;
+		for (Entry child : root.children.values()) writeCollapsedStacks(out, metric, escapeFrame(child.label), child);
+	}
+	
+	private static void writeCollapsedStacks(Appendable out, Metric metric, String stack, Entry entry) throws IOException {
+		long value = entry.get(metric);
+		if (value > 0) out.append(stack).append(' ').append(String.valueOf(value)).append('\n');
+		for (Entry child : entry.children.values()) writeCollapsedStacks(out, metric, stack + ";" + escapeFrame(child.label), child);
+	}
+	
+	static String escapeFrame(String label) {
+		if (label == null || label.isEmpty()) return "%";
+		StringBuilder out = new StringBuilder(label.length());
+		for (int i = 0; i < label.length(); i++) {
+			char c = label.charAt(i);
+			if (c == ';' || c == '%' || Character.isWhitespace(c) || Character.isISOControl(c)) out.append(String.format("%%%02X", (int) c));
+			else out.append(c);
+		}
+		return out.toString();
+	}
+	
+	/**
+	 * Writes a tab separated table with a header row and a row per rule path, most expensive according to {@code sortBy} first.
+	 * 
+	 * @param maxRows Write only the first {@code maxRows} rows; a negative number means: All of them.
+	 */
+	public synchronized void writeTable(Appendable out, final Metric sortBy, int maxRows) throws IOException {
+		List<String> paths = Lists.newArrayList();
+		List<Entry> entries = Lists.newArrayList();
+		for (Entry child : root.children.values()) collect(paths, entries, child.label, child);
+		
+		List<Integer> order = Lists.newArrayList();
+		for (int i = 0; i < entries.size(); i++) order.add(i);
+		final List<Entry> sorted = entries;
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override public int compare(Integer a, Integer b) {
+				long x = sorted.get(a).get(sortBy), y = sorted.get(b).get(sortBy);
+				return x < y ? 1 : x > y ? -1 : a.compareTo(b);
+			}
+		});
+		
+		out.append("invocations\tfailures\tbacktracked chars\tself ms\ttotal ms\tpath\n");
+		int count = maxRows;
+		for (int i : order) {
+			if (count-- == 0) break;
+			Entry entry = entries.get(i);
+			out.append(String.format("%d\t%d\t%d\t%.3f\t%.3f\t%s\n",
+					entry.invocations, entry.failures, entry.backtrackedChars,
+					entry.selfNanos() / 1e6, entry.nanos / 1e6, paths.get(i)));
+		}
+	}
+	
+	private static void collect(List<String> paths, List<Entry> entries, String path, Entry entry) {
+		paths.add(path);
+		entries.add(entry);
+		for (Entry child : entry.children.values()) collect(paths, entries, path + "/" + child.label, child);
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.Arrays;
+
+/**
+ * Splits preprocessed java source into its whitespace and comment runs in a single pass, so that the grammar can skip
+ * over a run in one step instead of matching it character by character.
+ * 
+ * A run is a maximal stretch of whitespace and comments, exactly as the {@code optWS} rule would match it starting from the
+ * run's first character. String and character literals are skipped so that comment markers inside them aren't mistaken for comments.
+ */
+final class JavaLexer {
+	private final String input;
+	private int[] runStarts = new int[64], runEnds = new int[64], runFirstComment = new int[65];
+	private int[] commentStarts = new int[16], commentEnds = new int[16];
+	private int runCount, commentCount;
+	private int lastRun;
+	
+	JavaLexer(String input) {
+		this.input = input;
+		lex();
+	}
+	
+	private void lex() {
+		int length = input.length();
+		int i = 0;
+		while (i < length) {
+			char c = input.charAt(i);
+			if (isTriviaStart(i)) {
+				i = scanRun(i);
+			} else if (c == '"' || c == '\'') {
+				for (i++; i < length; i++) {
+					char d = input.charAt(i);
+					if (d == '\\') i++;
+					else if (d == c || d == '\n' || d == '\r') break;
+				}
+				i++;
+			} else if (Character.isJavaIdentifierPart(c)) {
+				do i++; while (i < length && Character.isJavaIdentifierPart(input.charAt(i)));
+			} else {
+				i++;
+			}
+		}
+		runFirstComment[runCount] = commentCount;
+	}
+	
+	private boolean isTriviaStart(int i) {
+		char c = input.charAt(i);
+		if (c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n') return true;
+		if (c != '/' || i + 1 >= input.length()) return false;
+		char d = input.charAt(i + 1);
+		return d == '/' || (d == '*' && input.indexOf("*/", i + 2) != -1);
+	}
+	
+	/**
+	 * Records the run starting at {@code start}, and returns the position just past it.
+	 */
+	private int scanRun(int start) {
+		int length = input.length();
+		int firstComment = commentCount;
+		int i = start;
+		while (i < length && isTriviaStart(i)) {
+			if (input.charAt(i) != '/') {
+				i++;
+				continue;
+			}
+			
+			int commentEnd;
+			if (input.charAt(i + 1) == '*') {
+				commentEnd = input.indexOf("*/", i + 2) + 2;
+			} else {
+				commentEnd = i + 2;
+				while (commentEnd < length && input.charAt(commentEnd) != '\r' && input.charAt(commentEnd) != '\n') commentEnd++;
+				if (input.startsWith("\r\n", commentEnd)) commentEnd += 2;
+				else if (commentEnd < length) commentEnd++;
+			}
+			addComment(i, commentEnd);
+			i = commentEnd;
+		}
+		
+		if (runCount == runStarts.length) {
+			runStarts = Arrays.copyOf(runStarts, runCount * 2);
+			runEnds = Arrays.copyOf(runEnds, runCount * 2);
+			runFirstComment = Arrays.copyOf(runFirstComment, runCount * 2 + 1);
+		}
+		runStarts[runCount] = start;
+		runEnds[runCount] = i;
+		runFirstComment[runCount] = firstComment;
+		runCount++;
+		return i;
+	}
+	
+	private void addComment(int start, int end) {
+		if (commentCount == commentStarts.length) {
+			commentStarts = Arrays.copyOf(commentStarts, commentCount * 2);
+			commentEnds = Arrays.copyOf(commentEnds, commentCount * 2);
+		}
+		commentStarts[commentCount] = start;
+		commentEnds[commentCount] = end;
+		commentCount++;
+	}
+	
+	/**
+	 * Returns the index of the run that starts at {@code position}, or {@code -1} if no run starts there.
+	 * 
+	 * The parser mostly moves forward, so the run after the one that was looked up last is checked before resorting to a binary search.
+	 */
+	int runAt(int position) {
+		int next = lastRun + 1;
+		if (next < runCount && runStarts[next] == position) return lastRun = next;
+		if (lastRun < runCount && runStarts[lastRun] == position) return lastRun;
+		int slot = Arrays.binarySearch(runStarts, 0, runCount, position);
+		if (slot < 0) return -1;
+		return lastRun = slot;
+	}
+	
+	int runEnd(int run) {
+		return runEnds[run];
+	}
+	
+	int firstComment(int run) {
+		return runFirstComment[run];
+	}
+	
+	int endComment(int run) {
+		return runFirstComment[run + 1];
+	}
+	
+	int commentCount() {
+		return commentCount;
+	}
+	
+	int commentStart(int comment) {
+		return commentStarts[comment];
+	}
+	
+	int commentEnd(int comment) {
+		return commentEnds[comment];
+	}
+	
+	String text(int start, int end) {
+		return input.substring(start, end);
+	}
+}
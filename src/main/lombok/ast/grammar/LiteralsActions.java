@@ -30,8 +30,8 @@ import lombok.ast.NullLiteral;
 import lombok.ast.StringLiteral;
 
 public class LiteralsActions extends SourceActions {
-	public LiteralsActions(Source source) {
-		super(source);
+	public LiteralsActions(ParserGroup group) {
+		super(group);
 	}
 	
 	public Node createNullLiteral(String raw) {
@@ -32,17 +32,18 @@ public class LiteralsParser extends BaseParser<Node> {
 	final LiteralsActions actions;
 	
 	public LiteralsParser(ParserGroup group) {
-		this.actions = new LiteralsActions(group.getSource());
+		this.actions = new LiteralsActions(group);
 		this.group = group;
 	}
 	
 	public Rule anyLiteral() {
-		return FirstOf(
-				nullLiteral(),
-				booleanLiteral(),
-				numberLiteral(),
-				charLiteral(),
-				stringLiteral());
+		return DispatchMatcher.builder(group)
+				.words("null", nullLiteral())
+				.words("true false", booleanLiteral())
+				.chars(DispatchMatcher.DIGITS + ".", numberLiteral())
+				.chars("'", charLiteral())
+				.chars("\"", stringLiteral())
+				.build();
 	}
 	
 	/**
@@ -90,19 +91,24 @@ public class LiteralsParser extends BaseParser<Node> {
 	 */
 	public Rule charLiteral() {
 		return Sequence(
-				Sequence(
-						Ch('\''),
-						FirstOf(
-								Sequence(escapedSequence(), Ch('\'')),
-								Sequence(
-										ZeroOrMore(Sequence(TestNot(
-												FirstOf(Ch('\''), group.basics.lineTerminator())), Any())),
-										Ch('\'')),
-								Any())),
+				charLiteralRaw(),
 				set(actions.createCharLiteral(lastText())),
 				group.basics.optWS());
 	}
 	
+	@SuppressSubnodes
+	Rule charLiteralRaw() {
+		return Sequence(
+				Ch('\''),
+				FirstOf(
+						Sequence(escapedSequence(), Ch('\'')),
+						Sequence(
+								ZeroOrMore(Sequence(TestNot(
+										FirstOf(Ch('\''), group.basics.lineTerminator())), Any())),
+								Ch('\'')),
+						Any()));
+	}
+	
 	/**
 	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#3.10.6">JLS section 3.10.6</a>
 	 */
@@ -151,34 +157,44 @@ public class LiteralsParser extends BaseParser<Node> {
 	 */
 	Rule fpLiteral() {
 		return Sequence(
-				Sequence(
-						FirstOf(
-								Sequence(OneOrMore(digit()), Optional(Sequence(Ch('.'), ZeroOrMore(digit())))),
-								Sequence(Ch('.'), OneOrMore(digit()))),
-						Optional(
-								Sequence(
-										CharIgnoreCase('e'),
-										Optional(FirstOf(Ch('+'), Ch('-'))),
-										OneOrMore(digit()))),
-						numberTypeSuffix()),
+				fpLiteralRaw(),
 				set(actions.createNumberLiteral(lastText())));
 	}
 	
+	@SuppressSubnodes
+	Rule fpLiteralRaw() {
+		return Sequence(
+				FirstOf(
+						Sequence(OneOrMore(digit()), Optional(Sequence(Ch('.'), ZeroOrMore(digit())))),
+						Sequence(Ch('.'), OneOrMore(digit()))),
+				Optional(
+						Sequence(
+								CharIgnoreCase('e'),
+								Optional(FirstOf(Ch('+'), Ch('-'))),
+								OneOrMore(digit()))),
+				numberTypeSuffix());
+	}
+	
 	/**
 	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#3.10.1">JLS section 3.10.1</a>
 	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#3.10.2">JLS section 3.10.2</a>
 	 */
 	Rule hexLiteral() {
 		return Sequence(
-				Sequence(
-						Sequence(Ch('0'), CharIgnoreCase('x')),
-						FirstOf(
-								hexFP(),
-								Sequence(OneOrMore(hexDigit()), numberTypeSuffix())
-								)),
+				hexLiteralRaw(),
 				set(actions.createNumberLiteral(lastText())));
 	}
 	
+	@SuppressSubnodes
+	Rule hexLiteralRaw() {
+		return Sequence(
+				Sequence(Ch('0'), CharIgnoreCase('x')),
+				FirstOf(
+						hexFP(),
+						Sequence(OneOrMore(hexDigit()), numberTypeSuffix())
+						));
+	}
+	
 	/**
 	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#3.10.2">JLS section 3.10.2</a>
 	 */
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.Set;
+
+import lombok.Getter;
+
+import org.parboiled.BasicParseRunner;
+import org.parboiled.MatchHandler;
+import org.parboiled.MatcherContext;
+import org.parboiled.Rule;
+import org.parboiled.matchers.Matcher;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Like the {@code BasicParseRunner}, but remembers where selected rules have failed to match, so that trying the same rule at the same position
+ * again (which happens a lot when alternatives backtrack) fails immediately instead of redoing all the work.
+ * 
+ * Only failures are remembered, in a fixed-size table where newer entries push out older ones, so memory use is bounded regardless of input size.
+ * As this runner does no error recovery, its result should only be used if it matched.
+ */
+public class MemoizingParseRunner<V> extends BasicParseRunner<V> {
+	/**
+	 * The labels of the type and expression rules that backtracking alternatives can retry at the same position. How often a
+	 * remembered failure is hit, and whether that pays for the bookkeeping, depends on the input.
+	 */
+	public static final Set<String> DEFAULT_MEMOIZED_RULES = ImmutableSet.of(
+			"type", "nonArrayType", "referenceType", "typeArguments",
+			"primaryExpression", "level1ExpressionChaining", "dotNewExpressionChaining",
+			"postfixIncrementExpressionChaining", "level2ExpressionChaining",
+			"qualifiedClassOrThisOrSuperLiteral", "identifierExpression", "assignmentLHS");
+	
+	private static final int DEFAULT_TABLE_SIZE = 1 << 12;
+	
+	private final Set<String> memoizedRules;
+	private final Matcher<?>[] failedMatchers;
+	private final int[] failedIndices;
+	private final int mask;
+	
+	/** The number of times a remembered failure saved re-running a rule. */
+	@Getter private int hits;
+	
+	public MemoizingParseRunner(Rule rule, String input) {
+		this(rule, input, DEFAULT_MEMOIZED_RULES, DEFAULT_TABLE_SIZE);
+	}
+	
+	/**
+	 * @param memoizedRules Only rules with one of these labels are memoized.
+	 * @param tableSize The number of failures that can be remembered at once; rounded up to a power of 2.
+	 */
+	public MemoizingParseRunner(Rule rule, String input, Set<String> memoizedRules, int tableSize) {
+		super(rule, input);
+		int size = Integer.highestOneBit(Math.max(1, tableSize - 1)) << 1;
+		this.memoizedRules = memoizedRules;
+		this.failedMatchers = new Matcher<?>[size];
+		this.failedIndices = new int[size];
+		this.mask = size - 1;
+	}
+	
+	protected boolean runRootContext() {
+		MatchHandler<V> handler = new Handler();
+		rootContext = new MatcherContext<V>(inputBuffer, parseErrors, handler, rootMatcher);
+		return handler.matchRoot(rootContext);
+	}
+	
+	private final class Handler implements MatchHandler<V> {
+		public boolean matchRoot(MatcherContext<V> rootContext) {
+			return rootContext.runMatcher();
+		}
+		
+		public boolean match(MatcherContext<V> context) {
+			Matcher<V> matcher = context.getMatcher();
+			if (!memoizedRules.contains(matcher.getLabel())) return matcher.match(context);
+			
+			int index = context.getCurrentIndex();
+			int slot = (System.identityHashCode(matcher) * 0x9E3779B1 + index) & mask;
+			if (failedMatchers[slot] == matcher && failedIndices[slot] == index) {
+				hits++;
+				return false;
+			}
+			
+			if (matcher.match(context)) return true;
+			failedMatchers[slot] = matcher;
+			failedIndices[slot] = index;
+			return false;
+		}
+	}
+}
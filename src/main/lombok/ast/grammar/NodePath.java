@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.List;
+
+import org.parboiled.Node;
+
+import com.google.common.collect.Lists;
+
+/**
+ * A label path such as {@code "Optional/Sequence/head"}, split up ahead of time. It finds the same parse tree nodes as the path
+ * would when passed to parboiled's {@code value(String)} and friends, which split it again on every call: each label matches the nodes
+ * whose label starts with it.
+ * 
+ * Paths are used from within actions, which parboiled moves into generated classes; constants holding them therefore must not be private.
+ */
+final class NodePath {
+	private final String[] labels;
+	
+	NodePath(String path) {
+		this.labels = path.split("/");
+	}
+	
+	/**
+	 * Returns the node at the end of this path, following the first matching node at each step, or {@code null} if there is none.
+	 */
+	<V> Node<V> find(List<Node<V>> nodes) {
+		Node<V> found = null;
+		for (String label : labels) {
+			if (nodes == null) return null;
+			found = null;
+			for (Node<V> node : nodes) {
+				if (matches(node, label)) {
+					found = node;
+					break;
+				}
+			}
+			if (found == null) return null;
+			nodes = found.getChildren();
+		}
+		return found;
+	}
+	
+	/**
+	 * Returns all nodes at the end of this path, following every matching node at each step.
+	 */
+	<V> List<Node<V>> findAll(List<Node<V>> nodes) {
+		List<Node<V>> found = Lists.newArrayList();
+		collect(nodes, 0, found);
+		return found;
+	}
+	
+	private <V> void collect(List<Node<V>> nodes, int depth, List<Node<V>> found) {
+		if (nodes == null) return;
+		for (Node<V> node : nodes) {
+			if (!matches(node, labels[depth])) continue;
+			if (depth == labels.length - 1) found.add(node);
+			else collect(node.getChildren(), depth + 1, found);
+		}
+	}
+	
+	private static boolean matches(Node<?> node, String label) {
+		String nodeLabel = node.getLabel();
+		return nodeLabel != null && nodeLabel.startsWith(label);
+	}
+	
+	@Override public String toString() {
+		StringBuilder out = new StringBuilder();
+		for (String label : labels) out.append(out.length() == 0 ? "" : "/").append(label);
+		return out.toString();
+	}
+}
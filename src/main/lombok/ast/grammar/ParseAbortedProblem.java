@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.ast.Position;
+
+/**
+ * Reported when a parse run was aborted before it finished, because it was cancelled or ran out of time or steps.
+ * The position starts roughly where the parser was at the time, and runs to the end of the input. When a compilation unit was being parsed,
+ * the source's nodes hold what was complete by then: the package declaration, the imports and types that were done, and the type that was
+ * being parsed with the members it had so far.
+ * 
+ * @see Source#cancel()
+ * @see Source#setDeadline(long)
+ * @see Source#setStepBudget(long)
+ */
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class ParseAbortedProblem extends ParseProblem {
+	public enum Reason {
+		CANCELLED, DEADLINE, STEP_BUDGET;
+	}
+	
+	@Getter private final Reason reason;
+	
+	public ParseAbortedProblem(Position position, Reason reason, String message) {
+		super(position, message);
+		this.reason = reason;
+	}
+}
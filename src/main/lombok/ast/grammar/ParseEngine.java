@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import lombok.ast.Node;
+
+/**
+ * Parses compilation units for a {@link Source} in place of the grammar; see {@link Source#setParseEngine(ParseEngine)}.
+ * 
+ * The grammar remains the reference: an engine must produce the same tree with the same positions as the grammar would, or nothing at all.
+ */
+public interface ParseEngine {
+	/**
+	 * Parses {@code input}, the preprocessed text of the source named {@code name}, into a {@link lombok.ast.CompilationUnit}.
+	 * Positions are relative to {@code input}; end positions may include trailing whitespace and comments, like the grammar's.
+	 * Comments are not needed, as the source finds those itself.
+	 * 
+	 * @return The compilation unit, or {@code null} if the input has syntax errors or the engine can't parse it for any other reason,
+	 *     in which case the grammar parses it instead.
+	 */
+	Node parseCompilationUnit(String input, String name);
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The steps taken so far and the cancellation of a parse run. A source that parses parts of itself on other sources, as with the
+ * {@link Source#setMemberExecutor(java.util.concurrent.ExecutorService) member executor}, gives them limits that share its step count
+ * and see its cancellation, so the run as a whole stays within one budget and a {@link Source#cancel()} reaches every part.
+ */
+final class ParseLimits {
+	private final ParseLimits parent;
+	private final AtomicLong steps;
+	private volatile boolean cancelled;
+	
+	ParseLimits() {
+		this.parent = null;
+		this.steps = new AtomicLong();
+	}
+	
+	/**
+	 * Creates limits for the parts of a run that count their steps towards {@code parent}, and are cancelled along with it.
+	 * Cancelling the parts does not cancel {@code parent}.
+	 */
+	ParseLimits(ParseLimits parent) {
+		this.parent = parent;
+		this.steps = parent.steps;
+	}
+	
+	void startRun() {
+		steps.set(0);
+	}
+	
+	long step() {
+		return steps.incrementAndGet();
+	}
+	
+	void cancel() {
+		cancelled = true;
+	}
+	
+	boolean isCancelled() {
+		return cancelled || (parent != null && parent.isCancelled());
+	}
+	
+	void endRun() {
+		cancelled = false;
+	}
+}
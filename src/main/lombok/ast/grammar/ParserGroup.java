@@ -21,12 +21,33 @@
  */
 package lombok.ast.grammar;
 
+import java.lang.reflect.Constructor;
+
 import lombok.Getter;
+import lombok.ast.Node;
 
+import org.parboiled.BaseParser;
 import org.parboiled.Parboiled;
 
+import com.google.common.base.Throwables;
+
+/**
+ * The complete java grammar, split up into its constituent parsers.
+ * 
+ * Building a group is expensive (every parser is generated and its rule tree constructed), so a group should be reused for many parse runs.
+ * Builds that pregenerate the parser classes skip the generating part.
+ * Parsers hold state during a run, so a single group must never be used by more than one thread at a time;
+ * {@link #forCurrentThread()} hands out one group per thread for exactly this purpose.
+ * The {@link Source} that is being parsed is not part of the grammar; it is bound to the group for the duration of a parse run only.
+ */
 public class ParserGroup {
-	@Getter private final Source source;
+	private static final ThreadLocal<ParserGroup> PER_THREAD = new ThreadLocal<ParserGroup>() {
+		@Override protected ParserGroup initialValue() {
+			return new ParserGroup();
+		}
+	};
+	
+	@Getter private Source source;
 	public final BasicsParser basics;
 	public final LiteralsParser literals;
 	public final TypesParser types;
@@ -34,13 +55,66 @@ public class ParserGroup {
 	public final StatementsParser statements;
 	public final StructuresParser structures;
 	
+	/**
+	 * Creates a new grammar that isn't bound to any source. Use {@link #bind(Source)} to set the source before running any rule.
+	 */
+	public ParserGroup() {
+		basics = createParser(BasicsParser.class);
+		literals = createParser(LiteralsParser.class);
+		types = createParser(TypesParser.class);
+		expressions = createParser(ExpressionsParser.class);
+		statements = createParser(StatementsParser.class);
+		structures = createParser(StructuresParser.class);
+	}
+	
+	/**
+	 * Returns {@code true} if the build has put the parser classes that parboiled would otherwise generate at runtime on the classpath
+	 * (the {@code pregenerateParsers} target of the build does this for the distributable jar).
+	 */
+	public static boolean hasPregeneratedParsers() {
+		return findPregenerated(BasicsParser.class) != null;
+	}
+	
+	private <P extends BaseParser<Node>> P createParser(Class<P> parserClass) {
+		Class<?> pregenerated = findPregenerated(parserClass);
+		if (pregenerated == null) return Parboiled.createParser(parserClass, this);
+		try {
+			Constructor<?> constructor = pregenerated.getDeclaredConstructor(ParserGroup.class);
+			constructor.setAccessible(true);
+			return parserClass.cast(constructor.newInstance(this));
+		} catch (Exception e) {
+			throw Throwables.propagate(e);
+		}
+	}
+	
+	/**
+	 * Parboiled names the class it generates for a parser after that parser, and skips generating it if it has already been loaded.
+	 */
+	private static Class<?> findPregenerated(Class<?> parserClass) {
+		try {
+			return Class.forName(parserClass.getName() + "$$parboiled", true, parserClass.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			return null;
+		}
+	}
+	
 	public ParserGroup(Source source) {
+		this();
+		this.source = source;
+	}
+	
+	/**
+	 * Returns the grammar owned by the current thread, building it first if this thread has never parsed anything before.
+	 */
+	public static ParserGroup forCurrentThread() {
+		return PER_THREAD.get();
+	}
+	
+	/**
+	 * Sets the source that actions will report structures and comments to. Pass {@code null} once the parse run is done,
+	 * so that the group does not keep the source alive.
+	 */
+	void bind(Source source) {
 		this.source = source;
-		basics = Parboiled.createParser(BasicsParser.class, this);
-		literals = Parboiled.createParser(LiteralsParser.class, this);
-		types = Parboiled.createParser(TypesParser.class, this);
-		expressions = Parboiled.createParser(ExpressionsParser.class, this);
-		statements = Parboiled.createParser(StatementsParser.class, this);
-		structures = Parboiled.createParser(StructuresParser.class, this);
 	}
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.primitives.Ints;
+
+/**
+ * Translates between positions in the raw input of a {@link Source} and positions in its preprocessed form (in which
+ * backslash-u escapes have been decoded), and between raw positions and line/column pairs. All lookups are binary searches.
+ * 
+ * Lines are counted from 0. A line ends at its {@code \n} or {@code \r} character; for a {@code \r\n} pair, the line ends at the {@code \r}.
+ * The column of a position is its distance from the line ending before it, or from the start of the input on the first line.
+ */
+public class PositionIndex {
+	private final int[] lineEndings;
+	private int[] deltaPositions = new int[0], deltaTotals = new int[0];
+	private int deltaCount;
+	
+	/**
+	 * Creates an index of the line endings in {@code rawInput}, which doesn't map any positions yet.
+	 */
+	PositionIndex(String rawInput) {
+		int[] endings = new int[16];
+		int count = 0;
+		boolean atCR = false;
+		for (int i = 0; i < rawInput.length(); i++) {
+			char c = rawInput.charAt(i);
+			boolean ending = c == '\r' || (c == '\n' && !atCR);
+			atCR = c == '\r';
+			if (!ending) continue;
+			if (count == endings.length) endings = Arrays.copyOf(endings, count * 2);
+			endings[count++] = i;
+		}
+		lineEndings = Arrays.copyOf(endings, count);
+	}
+	
+	/**
+	 * Records that from preprocessed position {@code position} onwards, the raw input is {@code delta} more characters ahead of the
+	 * preprocessed input. Positions must be added in ascending order.
+	 */
+	void addDelta(int position, int delta) {
+		if (deltaCount == deltaPositions.length) {
+			deltaPositions = Arrays.copyOf(deltaPositions, Math.max(16, deltaCount * 2));
+			deltaTotals = Arrays.copyOf(deltaTotals, deltaPositions.length);
+		}
+		deltaPositions[deltaCount] = position;
+		deltaTotals[deltaCount] = delta + (deltaCount == 0 ? 0 : deltaTotals[deltaCount - 1]);
+		deltaCount++;
+	}
+	
+	/**
+	 * Returns {@code true} if any preprocessed position differs from its raw position.
+	 */
+	public boolean hasDeltas() {
+		return deltaCount != 0;
+	}
+	
+	/**
+	 * Maps a position in the preprocessed input to the equivalent position in the raw input.
+	 */
+	public int toRaw(int position) {
+		if (deltaCount == 0) return position;
+		int slot = floor(deltaPositions, deltaCount, position);
+		return slot < 0 ? position : position + deltaTotals[slot];
+	}
+	
+	/**
+	 * Maps a position in the raw input to the equivalent position in the preprocessed input.
+	 * A position inside a backslash-u escape maps to the character that the escape decodes to.
+	 */
+	public int toPreprocessed(int position) {
+		if (deltaCount == 0) return position;
+		int lo = 0, hi = deltaCount - 1, slot = -1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (deltaPositions[mid] + deltaTotals[mid] <= position) {
+				slot = mid;
+				lo = mid + 1;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		int result = slot < 0 ? position : position - deltaTotals[slot];
+		return slot + 1 < deltaCount ? Math.min(result, deltaPositions[slot + 1] - 1) : result;
+	}
+	
+	/**
+	 * Returns the line endings of the raw input, in ascending order.
+	 */
+	public List<Integer> getLineEndings() {
+		return Collections.unmodifiableList(Ints.asList(lineEndings));
+	}
+	
+	public int getLineCount() {
+		return lineEndings.length + 1;
+	}
+	
+	/**
+	 * Returns the line of the raw position {@code index} in the upper 32 bits, and its column in the lower 32 bits.
+	 */
+	public long lineColumn(int index) {
+		int line = floor(lineEndings, lineEndings.length, index) + 1;
+		int lineStart = line == 0 ? 0 : lineEndings[line - 1];
+		return ((long) line << 32 | index - lineStart);
+	}
+	
+	public int getLine(int index) {
+		return (int) (lineColumn(index) >>> 32);
+	}
+	
+	public int getColumn(int index) {
+		return (int) lineColumn(index);
+	}
+	
+	/**
+	 * Returns the raw position of {@code column} on {@code line}; the inverse of {@link #lineColumn(int)}.
+	 * 
+	 * @throws IndexOutOfBoundsException If the input doesn't have that many lines.
+	 */
+	public int toOffset(int line, int column) {
+		if (line < 0 || line > lineEndings.length) throw new IndexOutOfBoundsException("line " + line + " of " + getLineCount());
+		return (line == 0 ? 0 : lineEndings[line - 1]) + column;
+	}
+	
+	/**
+	 * Returns the index of the last of the first {@code size} elements of {@code sorted} that is at most {@code key}, or {@code -1} if there is none.
+	 */
+	private static int floor(int[] sorted, int size, int key) {
+		int slot = Arrays.binarySearch(sorted, 0, size, key);
+		return slot < 0 ? -slot - 2 : slot;
+	}
+}
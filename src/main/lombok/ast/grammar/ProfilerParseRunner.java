@@ -36,13 +36,20 @@ import com.google.common.collect.Lists;
 
 /**
  * Like the {@code BasicParseRunner} but will also track statistics on the parse run which you can retrieve by calling {@link #getOverviewReport()}
- * or {@link #getExtendedReport(int)} after a parse run.
+ * or {@link #getExtendedReport(int)} after a parse run. If a {@link GrammarProfile} is given, the run is added to it instead, and those
+ * reports are left empty.
  */
 public class ProfilerParseRunner<V> extends BasicParseRunner<V> {
+	private final GrammarProfile profile;
 	private ReportEntry<V> rootReport;
 	
 	public ProfilerParseRunner(Rule rule, String input) {
+		this(rule, input, null);
+	}
+	
+	public ProfilerParseRunner(Rule rule, String input, GrammarProfile profile) {
 		super(rule, input);
+		this.profile = profile;
 	}
 	
 	protected boolean runRootContext() {
@@ -65,6 +72,7 @@ public class ProfilerParseRunner<V> extends BasicParseRunner<V> {
 		TreeSet<ReportEntry<V>> topLevelFailed = new TreeSet<ReportEntry<V>>();
 		fillReport(topLevelFailed, rootReport);
 		StringBuilder out = new StringBuilder();
+		out.append(String.format("Matcher invocations: %d\n", getMatcherInvocations()));
 		for (ReportEntry<V> entry : topLevelFailed) {
 			if (entry.getSubSteps() < 100) break;
 			out.append(formatReport(entry, false));
@@ -73,6 +81,13 @@ public class ProfilerParseRunner<V> extends BasicParseRunner<V> {
 		return out.toString();
 	}
 	
+	/**
+	 * Returns how many times a matcher was run in the parse run, which is a measure of the work done that doesn't depend on the machine.
+	 */
+	public int getMatcherInvocations() {
+		return rootReport == null ? 0 : rootReport.getSubSteps() + 1;
+	}
+	
 	/**
 	 * Lists the work done by the most expensive failed rules.
 	 * 
@@ -147,12 +162,23 @@ public class ProfilerParseRunner<V> extends BasicParseRunner<V> {
 	
 	public final class Handler implements MatchHandler<V> {
 		private final List<ReportEntry<V>> stack = Lists.newArrayList();
+		private final List<GrammarProfile.Entry> profileStack = Lists.newArrayList();
 		
 		public boolean matchRoot(MatcherContext<V> rootContext) {
-			return rootContext.runMatcher();
+			if (profile == null) return rootContext.runMatcher();
+			GrammarProfile.Entry runRoot = new GrammarProfile.Entry(null);
+			profileStack.add(runRoot);
+			try {
+				return rootContext.runMatcher();
+			} finally {
+				profileStack.clear();
+				profile.add(runRoot);
+			}
 		}
 		
 		public boolean match(MatcherContext<V> context) {
+			if (profile != null) return matchIntoProfile(context);
+			
 			String path = stack.isEmpty() ? "" : stack.get(stack.size() - 1).getPath();
 			path += String.format("/%s[%d]", context.getMatcher().getLabel(), context.getCurrentIndex());
 			ReportEntry<V> report = new ReportEntry<V>(path);
@@ -168,5 +194,22 @@ public class ProfilerParseRunner<V> extends BasicParseRunner<V> {
 			}
 			return result;
 		}
+		
+		/* Formatting the paths of the per-run report costs far more than most matchers do, so it would swamp the times in the profile. */
+		private boolean matchIntoProfile(MatcherContext<V> context) {
+			GrammarProfile.Entry entry = profileStack.get(profileStack.size() - 1).child(context.getMatcher().getLabel());
+			profileStack.add(entry);
+			int startIndex = context.getCurrentIndex();
+			long start = System.nanoTime();
+			boolean result = context.getMatcher().match(context);
+			entry.nanos += System.nanoTime() - start;
+			entry.invocations++;
+			if (!result) {
+				entry.failures++;
+				entry.backtrackedChars += Math.max(0, context.getCurrentIndex() - startIndex);
+			}
+			profileStack.remove(profileStack.size() - 1);
+			return result;
+		}
 	}
 }
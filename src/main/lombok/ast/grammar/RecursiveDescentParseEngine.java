@@ -0,0 +1,2252 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.List;
+
+import lombok.ast.AlternateConstructorInvocation;
+import lombok.ast.Annotation;
+import lombok.ast.AnnotationDeclaration;
+import lombok.ast.AnnotationElement;
+import lombok.ast.AnnotationMethodDeclaration;
+import lombok.ast.ArrayAccess;
+import lombok.ast.ArrayCreation;
+import lombok.ast.ArrayDimension;
+import lombok.ast.ArrayInitializer;
+import lombok.ast.Assert;
+import lombok.ast.BinaryExpression;
+import lombok.ast.Block;
+import lombok.ast.BooleanLiteral;
+import lombok.ast.Break;
+import lombok.ast.Case;
+import lombok.ast.Cast;
+import lombok.ast.Catch;
+import lombok.ast.CharLiteral;
+import lombok.ast.ClassDeclaration;
+import lombok.ast.ClassLiteral;
+import lombok.ast.CompilationUnit;
+import lombok.ast.ConstructorDeclaration;
+import lombok.ast.ConstructorInvocation;
+import lombok.ast.Continue;
+import lombok.ast.Default;
+import lombok.ast.DoWhile;
+import lombok.ast.EmptyDeclaration;
+import lombok.ast.EmptyStatement;
+import lombok.ast.EnumConstant;
+import lombok.ast.EnumDeclaration;
+import lombok.ast.EnumTypeBody;
+import lombok.ast.Expression;
+import lombok.ast.ExpressionStatement;
+import lombok.ast.FloatingPointLiteral;
+import lombok.ast.For;
+import lombok.ast.ForEach;
+import lombok.ast.Identifier;
+import lombok.ast.If;
+import lombok.ast.ImportDeclaration;
+import lombok.ast.InlineIfExpression;
+import lombok.ast.InstanceInitializer;
+import lombok.ast.InstanceOf;
+import lombok.ast.IntegralLiteral;
+import lombok.ast.InterfaceDeclaration;
+import lombok.ast.KeywordModifier;
+import lombok.ast.LabelledStatement;
+import lombok.ast.MethodDeclaration;
+import lombok.ast.MethodInvocation;
+import lombok.ast.Modifiers;
+import lombok.ast.Node;
+import lombok.ast.NormalTypeBody;
+import lombok.ast.NullLiteral;
+import lombok.ast.PackageDeclaration;
+import lombok.ast.Position;
+import lombok.ast.Return;
+import lombok.ast.Select;
+import lombok.ast.StaticInitializer;
+import lombok.ast.StringLiteral;
+import lombok.ast.Super;
+import lombok.ast.SuperConstructorInvocation;
+import lombok.ast.Switch;
+import lombok.ast.Synchronized;
+import lombok.ast.This;
+import lombok.ast.Throw;
+import lombok.ast.Try;
+import lombok.ast.TypeReference;
+import lombok.ast.TypeReferencePart;
+import lombok.ast.TypeVariable;
+import lombok.ast.UnaryExpression;
+import lombok.ast.UnaryOperator;
+import lombok.ast.VariableDeclaration;
+import lombok.ast.VariableDefinition;
+import lombok.ast.VariableDefinitionEntry;
+import lombok.ast.VariableReference;
+import lombok.ast.While;
+import lombok.ast.WildcardKind;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Parses compilation units with a hand-written recursive-descent parser instead of parboiled. Each method of the parser follows the grammar
+ * rule of the same name, including where it backtracks, and builds the nodes the rule's actions would build, at the same positions.
+ * The trees are therefore the same as the grammar's, but there are no matchers, contexts or parse tree nodes to create along the way.
+ * 
+ * Sources that don't parse are left to the grammar, which reports the problems and recovers from them; so are sources that contain the
+ * character the grammar uses to mark the end of the input. This engine doesn't take part in a source's limits, which apply to the grammar only.
+ */
+public class RecursiveDescentParseEngine implements ParseEngine {
+	/** The character parboiled stands in for the end of the input with. */
+	private static final char EOI = '\uFFFF';
+	
+	@Override public Node parseCompilationUnit(String input, String name) {
+		if (input.indexOf(EOI) != -1) return null;
+		try {
+			return new Parser(input).compilationUnitEoi();
+		} catch (StackOverflowError e) {
+			return null;
+		}
+	}
+	
+	private static final String[] PRIMITIVE_TYPES = {"boolean", "int", "long", "double", "float", "short", "char", "byte", "void"};
+	private static final String[] MODIFIER_KEYWORDS = {
+			"final", "strictfp", "abstract", "transient", "volatile", "public", "protected", "private", "synchronized", "static", "native"};
+	private static final String[] ASSIGNMENT_OPERATORS = {
+			"*=", "/=", "+=", "-=", "%=", ">>>=", "<<<=", "<<=", ">>=", "&=", "^=", "|=", "&&=", "^^=", "||="};
+	
+	/**
+	 * Holds the input and the current position of one parse run. Rules return {@code null} if they don't match,
+	 * in which case they leave the position where it was.
+	 */
+	private static final class Parser {
+		private final String in;
+		private final int length;
+		private int pos;
+		
+		Parser(String in) {
+			this.in = in;
+			this.length = in.length();
+		}
+		
+		Node compilationUnitEoi() {
+			Node unit = compilationUnit();
+			return pos == length ? unit : null;
+		}
+		
+		// ---- Basics ----
+		
+		private char charAt(int index) {
+			return index < length ? in.charAt(index) : EOI;
+		}
+		
+		private boolean ch(char c) {
+			if (charAt(pos) != c) return false;
+			pos++;
+			return true;
+		}
+		
+		/**
+		 * Tests for {@code c} not followed by another {@code c}, without consuming it.
+		 */
+		private boolean isSolitary(char c) {
+			return charAt(pos) == c && charAt(pos + 1) != c;
+		}
+		
+		private boolean string(String s) {
+			if (!in.startsWith(s, pos)) return false;
+			pos += s.length();
+			return true;
+		}
+		
+		private boolean lexBreak() {
+			return !Character.isJavaIdentifierPart(charAt(pos));
+		}
+		
+		/**
+		 * Matches {@code word}, which may not be followed by a character that could continue it.
+		 */
+		private boolean word(String word) {
+			if (!in.startsWith(word, pos) || Character.isJavaIdentifierPart(charAt(pos + word.length()))) return false;
+			pos += word.length();
+			return true;
+		}
+		
+		/**
+		 * Matches the first of {@code options} that the input starts with, like a {@code FirstOf} of strings.
+		 */
+		private String firstOf(String[] options) {
+			for (String option : options) {
+				if (in.startsWith(option, pos)) {
+					pos += option.length();
+					return option;
+				}
+			}
+			return null;
+		}
+		
+		private void ws() {
+			while (true) {
+				char c = charAt(pos);
+				if (c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n') {
+					pos++;
+				} else if (c == '/' && charAt(pos + 1) == '/') {
+					pos += 2;
+					while (pos < length && in.charAt(pos) != '\r' && in.charAt(pos) != '\n') pos++;
+					if (in.startsWith("\r\n", pos)) pos += 2;
+					else if (pos < length) pos++;
+				} else if (c == '/' && charAt(pos + 1) == '*') {
+					int end = in.indexOf("*/", pos + 2);
+					if (end == -1) return;
+					pos = end + 2;
+				} else {
+					return;
+				}
+			}
+		}
+		
+		private <T extends Node> T posify(T node, int start) {
+			node.setPosition(new Position(start, Math.max(start, pos)));
+			return node;
+		}
+		
+		private <T> T fail(int start) {
+			pos = start;
+			return null;
+		}
+		
+		private Identifier identifier() {
+			int start = pos;
+			if (!Character.isJavaIdentifierStart(charAt(start))) return null;
+			int end = start + 1;
+			while (Character.isJavaIdentifierPart(charAt(end))) end++;
+			String text = in.substring(start, end);
+			if (BasicsParser.isKeyword(text)) return null;
+			Identifier identifier = new Identifier().astValue(text);
+			identifier.setPosition(new Position(start, end));
+			pos = end;
+			ws();
+			return identifier;
+		}
+		
+		private Identifier dotIdentifier() {
+			int start = pos;
+			if (!ch('.')) return null;
+			ws();
+			Identifier identifier = identifier();
+			return identifier == null ? this.<Identifier>fail(start) : identifier;
+		}
+		
+		/**
+		 * An identifier followed by any number of dot identifiers, as in package and import declarations.
+		 */
+		private List<Node> qualifiedName() {
+			Identifier head = identifier();
+			if (head == null) return null;
+			List<Node> parts = Lists.newArrayList();
+			for (Node part = head; part != null; part = dotIdentifier()) parts.add(part);
+			return parts;
+		}
+		
+		/**
+		 * Counts {@code []} pairs.
+		 */
+		private int dims() {
+			int dims = 0;
+			while (true) {
+				int start = pos;
+				if (!ch('[')) return dims;
+				ws();
+				if (!ch(']')) {
+					pos = start;
+					return dims;
+				}
+				ws();
+				dims++;
+			}
+		}
+		
+		// ---- Types ----
+		
+		private TypeReference nonArrayType() {
+			TypeReference type = primitiveType();
+			return type != null ? type : referenceType();
+		}
+		
+		private TypeReference type() {
+			int start = pos;
+			TypeReference type = nonArrayType();
+			if (type == null) return null;
+			int dims = dims();
+			if (dims == 0) return type;
+			
+			TypeReference result = new TypeReference().astArrayDimensions(dims);
+			result.astWildcard(type.astWildcard());
+			result.rawParts().migrateAllFrom(type.rawParts());
+			return posify(result, start);
+		}
+		
+		private TypeReference primitiveType() {
+			int start = pos;
+			String name = firstOf(PRIMITIVE_TYPES);
+			if (name == null) return null;
+			if (!lexBreak()) return fail(start);
+			Identifier identifier = posify(new Identifier().astValue(name), start);
+			TypeReferencePart part = posify(new TypeReferencePart().astIdentifier(identifier), start);
+			TypeReference type = posify(new TypeReference().rawParts().addToStart(part), start);
+			ws();
+			return type;
+		}
+		
+		private TypeReference referenceType() {
+			int start = pos;
+			TypeReferencePart head = referenceTypePart(false);
+			if (head == null) return null;
+			TypeReference type = new TypeReference();
+			for (Node part = head; part != null; part = referenceTypePart(true)) type.rawParts().addToEnd(part);
+			return posify(type, start);
+		}
+		
+		private TypeReferencePart referenceTypePart(boolean dot) {
+			int start = pos;
+			if (dot) {
+				if (!ch('.')) return null;
+				ws();
+			}
+			Identifier identifier = identifier();
+			if (identifier == null) return fail(start);
+			TypeReferencePart part = new TypeReferencePart().astIdentifier(identifier);
+			List<Node> typeArguments = typeArguments();
+			if (typeArguments != null) for (Node argument : typeArguments) part.rawTypeArguments().addToEnd(argument);
+			part.setPosition(new Position(identifier.getPosition().getStart(), Math.max(start, pos)));
+			ws();
+			return part;
+		}
+		
+		private TypeReference plainReferenceType() {
+			int start = pos;
+			TypeReferencePart head = plainReferenceTypePart(false);
+			if (head == null) return null;
+			TypeReference type = new TypeReference();
+			for (Node part = head; part != null; part = plainReferenceTypePart(true)) type.rawParts().addToEnd(part);
+			return posify(type, start);
+		}
+		
+		private TypeReferencePart plainReferenceTypePart(boolean dot) {
+			int start = pos;
+			if (dot) {
+				if (!ch('.')) return null;
+				ws();
+			}
+			Identifier identifier = identifier();
+			if (identifier == null) return fail(start);
+			TypeReferencePart part = new TypeReferencePart().astIdentifier(identifier);
+			part.setPosition(new Position(identifier.getPosition().getStart(), Math.max(start, pos)));
+			return part;
+		}
+		
+		/**
+		 * Returns the type variables, or an empty list if there are none.
+		 */
+		private List<Node> typeVariables() {
+			List<Node> variables = Lists.newArrayList();
+			int start = pos;
+			if (!ch('<')) return variables;
+			ws();
+			Node head = typeVariable();
+			if (head != null) {
+				variables.add(head);
+				while (true) {
+					int tail = pos;
+					if (!ch(',')) break;
+					ws();
+					Node variable = typeVariable();
+					if (variable == null) {
+						pos = tail;
+						break;
+					}
+					variables.add(variable);
+				}
+			}
+			if (!ch('>')) {
+				pos = start;
+				variables.clear();
+				return variables;
+			}
+			ws();
+			return variables;
+		}
+		
+		private Node typeVariable() {
+			int start = pos;
+			Identifier name = identifier();
+			if (name == null) return null;
+			TypeVariable variable = new TypeVariable().astName(name);
+			int bounds = pos;
+			if (word("extends")) {
+				ws();
+				TypeReference head = type();
+				if (head == null) {
+					pos = bounds;
+				} else {
+					variable.rawExtending().addToEnd(head);
+					while (true) {
+						int tail = pos;
+						if (!ch('&')) break;
+						ws();
+						TypeReference bound = type();
+						if (bound == null) {
+							pos = tail;
+							break;
+						}
+						variable.rawExtending().addToEnd(bound);
+					}
+				}
+			}
+			return posify(variable, start);
+		}
+		
+		/**
+		 * Returns the type arguments, or {@code null} if there are none.
+		 */
+		private List<Node> typeArguments() {
+			int start = pos;
+			if (!ch('<')) return null;
+			ws();
+			List<Node> arguments = Lists.newArrayList();
+			Node head = typeArgument();
+			if (head != null) {
+				arguments.add(head);
+				while (true) {
+					int tail = pos;
+					if (!ch(',')) break;
+					ws();
+					Node argument = typeArgument();
+					if (argument == null) {
+						pos = tail;
+						break;
+					}
+					arguments.add(argument);
+				}
+			}
+			if (!ch('>')) return fail(start);
+			ws();
+			return arguments;
+		}
+		
+		private Node typeArgument() {
+			TypeReference type = type();
+			if (type != null) return type;
+			
+			int start = pos;
+			if (!ch('?')) return null;
+			int qmarkEnd = pos;
+			ws();
+			WildcardKind kind = string("extends") ? WildcardKind.EXTENDS : string("super") ? WildcardKind.SUPER : null;
+			if (kind != null && lexBreak()) {
+				ws();
+				TypeReference bound = type();
+				if (bound != null) return posify(bound.astWildcard(kind), start);
+			}
+			
+			pos = qmarkEnd;
+			TypeReference wildcard = new TypeReference().astWildcard(WildcardKind.UNBOUND);
+			wildcard.setPosition(new Position(start, qmarkEnd));
+			ws();
+			return wildcard;
+		}
+		
+		// ---- Structures ----
+		
+		private Node compilationUnit() {
+			int start = pos;
+			ws();
+			CompilationUnit unit = new CompilationUnit().rawPackageDeclaration(packageDeclaration());
+			for (Node n = importDeclaration(); n != null; n = importDeclaration()) unit.rawImportDeclarations().addToEnd(n);
+			for (Node n = anyTypeDeclaration(); n != null; n = anyTypeDeclaration()) unit.rawTypeDeclarations().addToEnd(n);
+			return posify(unit, start);
+		}
+		
+		private Node packageDeclaration() {
+			int start = pos;
+			List<Node> annotations = Lists.newArrayList();
+			for (Node n = annotation(); n != null; n = annotation()) annotations.add(n);
+			if (!word("package")) return fail(start);
+			ws();
+			List<Node> parts = qualifiedName();
+			if (parts == null || !ch(';')) return fail(start);
+			ws();
+			
+			PackageDeclaration decl = new PackageDeclaration();
+			for (Node n : annotations) decl.rawAnnotations().addToEnd(n);
+			for (Node n : parts) decl.rawParts().addToEnd(n);
+			return posify(decl, start);
+		}
+		
+		private Node importDeclaration() {
+			int start = pos;
+			if (!word("import")) return null;
+			ws();
+			boolean staticImport = word("static");
+			if (staticImport) ws();
+			List<Node> parts = qualifiedName();
+			if (parts == null) return fail(start);
+			boolean starImport = false;
+			int dotStar = pos;
+			if (ch('.')) {
+				ws();
+				if (ch('*')) {
+					ws();
+					starImport = true;
+				} else {
+					pos = dotStar;
+				}
+			}
+			if (!ch(';')) return fail(start);
+			ws();
+			
+			ImportDeclaration decl = new ImportDeclaration();
+			for (Node n : parts) decl.rawParts().addToEnd(n);
+			if (staticImport) decl.astStaticImport(true);
+			if (starImport) decl.astStarImport(true);
+			return posify(decl, start);
+		}
+		
+		private Node anyTypeDeclaration() {
+			char c = charAt(pos);
+			if (c == EOI || c == '}') return null;
+			Node result = classOrInterfaceDeclaration();
+			if (result == null) result = enumDeclaration();
+			if (result == null) result = annotationDeclaration();
+			if (result == null) result = emptyDeclaration();
+			return result;
+		}
+		
+		private Node emptyDeclaration() {
+			int start = pos;
+			if (!ch(';')) return null;
+			ws();
+			return posify(new EmptyDeclaration(), start);
+		}
+		
+		/**
+		 * Any of the grammar's modifier rules, which are all the same.
+		 */
+		private Modifiers modifiers() {
+			int start = pos;
+			if (charAt(start) == '}') return null;
+			Modifiers modifiers = new Modifiers();
+			while (true) {
+				Node annotation = annotation();
+				if (annotation != null) {
+					modifiers.rawAnnotations().addToEnd(annotation);
+					continue;
+				}
+				Node keyword = keywordModifier();
+				if (keyword == null) break;
+				modifiers.rawKeywords().addToEnd(keyword);
+			}
+			return posify(modifiers, start);
+		}
+		
+		private Node keywordModifier() {
+			int start = pos;
+			String keyword = firstOf(MODIFIER_KEYWORDS);
+			if (keyword == null) return null;
+			if (!lexBreak()) return fail(start);
+			KeywordModifier modifier = posify(new KeywordModifier().astName(keyword), start);
+			ws();
+			return modifier;
+		}
+		
+		private Node annotation() {
+			int start = pos;
+			if (!ch('@')) return null;
+			ws();
+			TypeReference type = plainReferenceType();
+			if (type == null) return fail(start);
+			
+			Annotation content = null;
+			int contentStart = pos;
+			if (ch('(')) {
+				ws();
+				content = annotationElements();
+				if (content == null) {
+					int valueStart = pos;
+					Node value = annotationElementValue();
+					if (value != null) {
+						content = new Annotation();
+						content.rawElements().addToEnd(posify(new AnnotationElement().rawValue(value), valueStart));
+						posify(content, valueStart);
+					}
+				}
+				if (ch(')')) {
+					ws();
+				} else {
+					pos = contentStart;
+					content = null;
+				}
+			}
+			
+			Annotation result = content == null ? new Annotation() : content;
+			return posify(result.rawAnnotationTypeReference(type), start);
+		}
+		
+		private Annotation annotationElements() {
+			int start = pos;
+			Node head = annotationElement();
+			if (head == null) return null;
+			Annotation result = new Annotation();
+			result.rawElements().addToEnd(head);
+			while (true) {
+				int tail = pos;
+				if (!ch(',')) break;
+				ws();
+				Node element = annotationElement();
+				if (element == null) {
+					pos = tail;
+					break;
+				}
+				result.rawElements().addToEnd(element);
+			}
+			return posify(result, start);
+		}
+		
+		private Node annotationElement() {
+			int start = pos;
+			Identifier name = identifier();
+			if (name == null) return null;
+			if (!ch('=')) return fail(start);
+			ws();
+			Node value = annotationElementValue();
+			if (value == null) return fail(start);
+			return posify(new AnnotationElement().astName(name).rawValue(value), start);
+		}
+		
+		private Node annotationElementValue() {
+			Node annotation = annotation();
+			if (annotation != null) return annotation;
+			
+			int start = pos;
+			if (ch('{')) {
+				ws();
+				ArrayInitializer result = new ArrayInitializer();
+				Node head = annotationElementValue();
+				if (head != null) {
+					result.rawExpressions().addToEnd(head);
+					while (true) {
+						int tail = pos;
+						if (!ch(',')) break;
+						ws();
+						Node value = annotationElementValue();
+						if (value == null) {
+							pos = tail;
+							break;
+						}
+						result.rawExpressions().addToEnd(value);
+					}
+					if (ch(',')) ws();
+				}
+				if (ch('}')) {
+					ws();
+					return posify(result, start);
+				}
+				pos = start;
+			}
+			
+			return inlineIfExpressionChaining();
+		}
+		
+		private Node classOrInterfaceDeclaration() {
+			int start = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return null;
+			String kind = string("class") ? "class" : string("interface") ? "interface" : null;
+			if (kind == null || !lexBreak()) return fail(start);
+			ws();
+			Identifier name = identifier();
+			if (name == null) return fail(start);
+			List<Node> typeVariables = typeVariables();
+			List<List<Node>> extendsClauses = Lists.newArrayList();
+			List<List<Node>> implementsClauses = Lists.newArrayList();
+			addons(extendsClauses, implementsClauses);
+			NormalTypeBody body = typeBody();
+			if (body == null) return fail(start);
+			
+			if (kind.equals("interface")) {
+				InterfaceDeclaration decl = new InterfaceDeclaration().astName(name).rawBody(body);
+				decl.astModifiers(modifiers);
+				for (Node typeVariable : typeVariables) decl.rawTypeVariables().addToEnd(typeVariable);
+				for (List<Node> clause : extendsClauses) {
+					for (Node superInterface : clause) decl.rawExtending().addToEnd(superInterface);
+				}
+				return posify(decl, start);
+			}
+			
+			ClassDeclaration decl = new ClassDeclaration().astName(name).rawBody(body);
+			decl.astModifiers(modifiers);
+			for (Node typeVariable : typeVariables) decl.rawTypeVariables().addToEnd(typeVariable);
+			for (List<Node> clause : extendsClauses) decl.rawExtending(clause.get(0));
+			for (List<Node> clause : implementsClauses) {
+				for (Node i : clause) decl.rawImplementing().addToEnd(i);
+			}
+			return posify(decl, start);
+		}
+		
+		/**
+		 * Any number of extends and implements clauses, in any order.
+		 */
+		private void addons(List<List<Node>> extendsClauses, List<List<Node>> implementsClauses) {
+			while (true) {
+				List<Node> clause = typeListClause("extends");
+				if (clause != null) {
+					extendsClauses.add(clause);
+					continue;
+				}
+				clause = typeListClause("implements");
+				if (clause == null) return;
+				implementsClauses.add(clause);
+			}
+		}
+		
+		private List<Node> typeListClause(String keyword) {
+			int start = pos;
+			if (!word(keyword)) return null;
+			ws();
+			return typeList(start);
+		}
+		
+		/**
+		 * Matches a comma separated list of types; if there isn't even one, this fails back to {@code start}.
+		 */
+		private List<Node> typeList(int start) {
+			TypeReference head = type();
+			if (head == null) return fail(start);
+			List<Node> types = Lists.newArrayList();
+			types.add(head);
+			while (true) {
+				int tail = pos;
+				if (!ch(',')) break;
+				ws();
+				TypeReference type = type();
+				if (type == null) {
+					pos = tail;
+					break;
+				}
+				types.add(type);
+			}
+			return types;
+		}
+		
+		private Node enumDeclaration() {
+			int start = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return null;
+			if (!word("enum")) return fail(start);
+			ws();
+			Identifier name = identifier();
+			if (name == null) return fail(start);
+			List<List<Node>> extendsClauses = Lists.newArrayList();
+			List<List<Node>> implementsClauses = Lists.newArrayList();
+			addons(extendsClauses, implementsClauses);
+			Node body = enumBody();
+			if (body == null) return fail(start);
+			
+			EnumDeclaration decl = new EnumDeclaration();
+			decl.astName(name).rawBody(body);
+			decl.astModifiers(modifiers);
+			for (List<Node> clause : implementsClauses) {
+				for (Node i : clause) decl.rawImplementing().addToEnd(i);
+			}
+			return posify(decl, start);
+		}
+		
+		private Node annotationDeclaration() {
+			int start = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return null;
+			if (!ch('@')) return fail(start);
+			ws();
+			if (!word("interface")) return fail(start);
+			ws();
+			Identifier name = identifier();
+			if (name == null) return fail(start);
+			int typeOpen = pos;
+			if (!ch('{')) return fail(start);
+			ws();
+			NormalTypeBody body = new NormalTypeBody();
+			while (true) {
+				Node member = annotationElementDeclaration();
+				if (member != null) {
+					body.rawMembers().addToEnd(member);
+				} else if (ch(';')) {
+					ws();
+				} else {
+					break;
+				}
+			}
+			if (!ch('}')) return fail(start);
+			body.setPosition(new Position(typeOpen, pos));
+			ws();
+			
+			AnnotationDeclaration decl = new AnnotationDeclaration().astName(name).rawBody(body);
+			decl.astModifiers(modifiers);
+			return posify(decl, start);
+		}
+		
+		/**
+		 * All alternatives of the grammar's rule except for a lone semicolon, which has no node.
+		 */
+		private Node annotationElementDeclaration() {
+			Node result = annotationMethodDeclaration();
+			if (result == null) result = fieldDeclaration();
+			if (result == null) result = classOrInterfaceDeclaration();
+			if (result == null) result = enumDeclaration();
+			if (result == null) result = annotationDeclaration();
+			return result;
+		}
+		
+		private Node enumBody() {
+			int start = pos;
+			if (!ch('{')) return null;
+			ws();
+			EnumTypeBody body = new EnumTypeBody();
+			Node head = enumConstant();
+			if (head != null) {
+				body.rawConstants().addToEnd(head);
+				while (true) {
+					int tail = pos;
+					if (!ch(',')) break;
+					ws();
+					Node constant = enumConstant();
+					if (constant == null) {
+						pos = tail;
+						break;
+					}
+					body.rawConstants().addToEnd(constant);
+				}
+				if (ch(',')) ws();
+			}
+			if (ch(';')) {
+				ws();
+				for (Node member : typeBodyDeclarations()) body.rawMembers().addToEnd(member);
+			}
+			if (!ch('}')) return fail(start);
+			ws();
+			return posify(body, start);
+		}
+		
+		private Node enumConstant() {
+			int start = pos;
+			List<Node> annotations = Lists.newArrayList();
+			for (Node n = annotation(); n != null; n = annotation()) annotations.add(n);
+			Identifier name = identifier();
+			if (name == null) return fail(start);
+			List<Node> arguments = methodArguments();
+			NormalTypeBody body = typeBody();
+			
+			EnumConstant result = new EnumConstant().astName(name).rawBody(body);
+			for (Node n : annotations) result.rawAnnotations().addToEnd(n);
+			if (arguments != null) for (Node argument : arguments) result.rawArguments().addToEnd(argument);
+			return posify(result, start);
+		}
+		
+		private NormalTypeBody typeBody() {
+			int start = pos;
+			if (!ch('{')) return null;
+			ws();
+			NormalTypeBody body = new NormalTypeBody();
+			for (Node member : typeBodyDeclarations()) body.rawMembers().addToEnd(member);
+			if (!ch('}')) return fail(start);
+			ws();
+			return posify(body, start);
+		}
+		
+		private List<Node> typeBodyDeclarations() {
+			List<Node> members = Lists.newArrayList();
+			for (Node member = typeBodyMember(); member != null; member = typeBodyMember()) members.add(member);
+			return members;
+		}
+		
+		private Node typeBodyMember() {
+			Node result = anyTypeDeclaration();
+			if (result == null) result = fieldDeclaration();
+			if (result == null) result = methodDeclaration();
+			if (result == null) result = constructorDeclaration();
+			if (result == null) result = staticInitializer();
+			if (result == null) result = instanceInitializer();
+			if (result == null) result = emptyDeclaration();
+			return result;
+		}
+		
+		/**
+		 * Returns the arguments, or {@code null} if there is no argument list.
+		 */
+		private List<Node> methodArguments() {
+			int start = pos;
+			if (!ch('(')) return null;
+			ws();
+			List<Node> arguments = Lists.newArrayList();
+			Node head = anyExpression();
+			if (head != null) {
+				arguments.add(head);
+				while (true) {
+					int tail = pos;
+					if (!ch(',')) break;
+					ws();
+					Node argument = anyExpression();
+					if (argument == null) {
+						pos = tail;
+						break;
+					}
+					arguments.add(argument);
+				}
+			}
+			if (!ch(')')) return fail(start);
+			ws();
+			return arguments;
+		}
+		
+		/**
+		 * Returns the thrown types, or an empty list if there is no throws clause.
+		 */
+		private List<Node> throwsClause() {
+			List<Node> thrown = typeListClause("throws");
+			return thrown == null ? Lists.<Node>newArrayList() : thrown;
+		}
+		
+		/**
+		 * Matches a body or a semicolon, and returns the body. If neither is there, this returns {@code null} and sets {@code pos} to {@code -1}.
+		 */
+		private Node bodyOrSemicolon() {
+			if (ch(';')) {
+				ws();
+				return null;
+			}
+			Node body = blockStatement();
+			if (body == null) pos = -1;
+			return body;
+		}
+		
+		private Node methodDeclaration() {
+			int start = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return null;
+			List<Node> typeVariables = typeVariables();
+			TypeReference resultType = type();
+			if (resultType == null) return fail(start);
+			Identifier name = identifier();
+			if (name == null) return fail(start);
+			List<Node> parameters = methodParameters();
+			if (parameters == null) return fail(start);
+			int extraDims = dims();
+			List<Node> thrown = throwsClause();
+			Node body = bodyOrSemicolon();
+			if (pos == -1) return fail(start);
+			
+			MethodDeclaration decl = new MethodDeclaration();
+			for (Node parameter : parameters) decl.rawParameters().addToEnd(parameter);
+			decl.astMethodName(name).rawBody(body);
+			decl.astModifiers(modifiers);
+			if (extraDims > 0) resultType.astArrayDimensions(resultType.astArrayDimensions() + extraDims);
+			decl.astExplicitArrayDimensions(extraDims);
+			decl.rawReturnTypeReference(resultType);
+			for (Node typeVariable : typeVariables) decl.rawTypeVariables().addToEnd(typeVariable);
+			for (Node n : thrown) decl.rawThrownTypeReferences().addToEnd(n);
+			return posify(decl, start);
+		}
+		
+		private Node constructorDeclaration() {
+			int start = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return null;
+			List<Node> typeVariables = typeVariables();
+			Identifier name = identifier();
+			if (name == null) return fail(start);
+			List<Node> parameters = methodParameters();
+			if (parameters == null) return fail(start);
+			List<Node> thrown = throwsClause();
+			Node body = bodyOrSemicolon();
+			if (pos == -1) return fail(start);
+			
+			ConstructorDeclaration decl = new ConstructorDeclaration().astTypeName(name).rawBody(body);
+			decl.astModifiers(modifiers);
+			for (Node typeVariable : typeVariables) decl.rawTypeVariables().addToEnd(typeVariable);
+			for (Node parameter : parameters) decl.rawParameters().addToEnd(parameter);
+			for (Node n : thrown) decl.rawThrownTypeReferences().addToEnd(n);
+			return posify(decl, start);
+		}
+		
+		private Node annotationMethodDeclaration() {
+			int start = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return null;
+			TypeReference resultType = type();
+			if (resultType == null) return fail(start);
+			Identifier name = identifier();
+			if (name == null || !ch('(')) return fail(start);
+			ws();
+			if (!ch(')')) return fail(start);
+			ws();
+			int extraDims = dims();
+			Node defaultValue = null;
+			int defaultStart = pos;
+			if (word("default")) {
+				ws();
+				defaultValue = annotationElementValue();
+				if (defaultValue == null) pos = defaultStart;
+			}
+			if (!ch(';')) return fail(start);
+			ws();
+			
+			AnnotationMethodDeclaration decl = new AnnotationMethodDeclaration().astMethodName(name).rawDefaultValue(defaultValue);
+			decl.astModifiers(modifiers);
+			if (extraDims > 0) resultType.astArrayDimensions(resultType.astArrayDimensions() + extraDims);
+			decl.rawReturnTypeReference(resultType);
+			return posify(decl, start);
+		}
+		
+		/**
+		 * Returns the parameters, or {@code null} if there is no parameter list.
+		 */
+		private List<Node> methodParameters() {
+			int start = pos;
+			if (!ch('(')) return null;
+			ws();
+			List<Node> parameters = Lists.newArrayList();
+			Node head = methodParameter();
+			if (head != null) {
+				parameters.add(head);
+				while (true) {
+					int tail = pos;
+					if (!ch(',')) break;
+					ws();
+					Node parameter = methodParameter();
+					if (parameter == null) {
+						pos = tail;
+						break;
+					}
+					parameters.add(parameter);
+				}
+			}
+			if (!ch(')')) return fail(start);
+			ws();
+			return parameters;
+		}
+		
+		private Node methodParameter() {
+			int start = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return null;
+			TypeReference type = type();
+			if (type == null) return fail(start);
+			boolean varargs = string("...");
+			if (varargs) ws();
+			Identifier name = identifier();
+			if (name == null) return fail(start);
+			int dims = dims();
+			
+			VariableDefinitionEntry entry = new VariableDefinitionEntry().astName(name).astArrayDimensions(dims);
+			entry.setPosition(new Position(name.getPosition().getStart(), pos));
+			VariableDefinition decl = new VariableDefinition().rawTypeReference(type);
+			decl.astModifiers(modifiers);
+			if (varargs) decl.astVarargs(true);
+			decl.rawVariables().addToEnd(entry);
+			return posify(decl, start);
+		}
+		
+		private Node instanceInitializer() {
+			int start = pos;
+			Node body = blockStatement();
+			if (body == null) return null;
+			return posify(new InstanceInitializer().rawBody(body), start);
+		}
+		
+		private Node staticInitializer() {
+			int start = pos;
+			if (!word("static")) return null;
+			ws();
+			Node body = blockStatement();
+			if (body == null) return fail(start);
+			return posify(new StaticInitializer().rawBody(body), start);
+		}
+		
+		private Node fieldDeclaration() {
+			int start = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return null;
+			VariableDefinition definition = variableDefinition();
+			if (definition == null) return fail(start);
+			posify(definition, start);
+			if (!ch(';')) return fail(start);
+			ws();
+			definition.astModifiers(modifiers);
+			return posify(new VariableDeclaration().rawDefinition(definition), start);
+		}
+		
+		private VariableDefinition variableDefinition() {
+			int start = pos;
+			TypeReference type = type();
+			if (type == null) return null;
+			Node head = variableDefinitionPart(true);
+			if (head == null) return fail(start);
+			VariableDefinition result = new VariableDefinition().rawTypeReference(type);
+			result.rawVariables().addToEnd(head);
+			while (true) {
+				int tail = pos;
+				if (!ch(',')) break;
+				ws();
+				Node part = variableDefinitionPart(true);
+				if (part == null) {
+					pos = tail;
+					break;
+				}
+				result.rawVariables().addToEnd(part);
+			}
+			return posify(result, start);
+		}
+		
+		private Node variableDefinitionPart(boolean allowInitializer) {
+			int start = pos;
+			Identifier name = identifier();
+			if (name == null) return null;
+			int dims = dims();
+			Node initializer = null;
+			int initializerStart = pos;
+			if (allowInitializer && ch('=')) {
+				ws();
+				initializer = arrayInitializer();
+				if (initializer == null) initializer = anyExpression();
+				if (initializer == null) pos = initializerStart;
+			}
+			return posify(new VariableDefinitionEntry().astName(name).rawInitializer(initializer).astArrayDimensions(dims), start);
+		}
+		
+		// ---- Statements ----
+		
+		private Node blockStatement() {
+			int start = pos;
+			if (!ch('{')) return null;
+			ws();
+			Block block = new Block();
+			for (Node s = anyStatement(); s != null; s = anyStatement()) block.rawContents().addToEnd(s);
+			if (!ch('}')) return fail(start);
+			ws();
+			return posify(block, start);
+		}
+		
+		private Node anyStatement() {
+			if (charAt(pos) == '}') return null;
+			return labelledStatement();
+		}
+		
+		private Node labelledStatement() {
+			int start = pos;
+			List<Identifier> labels = Lists.newArrayList();
+			while (true) {
+				int label = pos;
+				Identifier name = identifier();
+				if (name == null) break;
+				if (!ch(':')) {
+					pos = label;
+					break;
+				}
+				ws();
+				labels.add(name);
+			}
+			Node current = statement();
+			if (current == null) return fail(start);
+			
+			for (int i = labels.size() - 1; i >= 0; i--) {
+				Position position = new Position(labels.get(i).getPosition().getStart(), current.getPosition().getEnd());
+				current = new LabelledStatement().astLabel(labels.get(i)).rawStatement(current);
+				current.setPosition(position);
+			}
+			return current;
+		}
+		
+		private Node statement() {
+			Node result = blockStatement();
+			if (result == null) result = classOrInterfaceDeclaration();
+			if (result == null) result = localVariableDeclaration();
+			if (result == null) result = emptyStatement();
+			if (result == null) result = expressionStatement();
+			if (result == null) result = ifStatement();
+			if (result == null) result = assertStatement();
+			if (result == null) result = switchStatement();
+			if (result == null) result = caseStatement();
+			if (result == null) result = defaultStatement();
+			if (result == null) result = whileStatement();
+			if (result == null) result = doWhileStatement();
+			if (result == null) result = basicForStatement();
+			if (result == null) result = enhancedForStatement();
+			if (result == null) result = breakOrContinueStatement("break");
+			if (result == null) result = breakOrContinueStatement("continue");
+			if (result == null) result = returnStatement();
+			if (result == null) result = synchronizedStatement();
+			if (result == null) result = throwStatement();
+			if (result == null) result = tryStatement();
+			if (result == null) result = explicitAlternateConstructorInvocation();
+			if (result == null) result = explicitSuperConstructorInvocation();
+			return result;
+		}
+		
+		/**
+		 * The grammar's {@code variableDefinition} rule for statements, which takes modifiers.
+		 */
+		private Node localVariableDefinition() {
+			int start = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return null;
+			VariableDefinition definition = variableDefinition();
+			if (definition == null) return fail(start);
+			definition.astModifiers(modifiers);
+			return posify(definition, start);
+		}
+		
+		private Node localVariableDeclaration() {
+			int start = pos;
+			Node definition = localVariableDefinition();
+			if (definition == null) return null;
+			if (!ch(';')) return fail(start);
+			ws();
+			return posify(new VariableDeclaration().rawDefinition(definition), start);
+		}
+		
+		private Node emptyStatement() {
+			int start = pos;
+			if (!ch(';')) return null;
+			ws();
+			return posify(new EmptyStatement(), start);
+		}
+		
+		private Node expressionStatement() {
+			int start = pos;
+			Node expression = statementExpression();
+			if (expression == null) return null;
+			if (!ch(';')) return fail(start);
+			ws();
+			return posify(new ExpressionStatement().rawExpression(expression), start);
+		}
+		
+		/**
+		 * Matches {@code keyword ( expression )}, and returns the expression.
+		 */
+		private Node keywordAndCondition(String keyword) {
+			int start = pos;
+			if (!word(keyword)) return null;
+			ws();
+			if (!ch('(')) return fail(start);
+			ws();
+			Node condition = anyExpression();
+			if (condition == null || !ch(')')) return fail(start);
+			ws();
+			return condition;
+		}
+		
+		private Node ifStatement() {
+			int start = pos;
+			Node condition = keywordAndCondition("if");
+			if (condition == null) return null;
+			Node statement = anyStatement();
+			if (statement == null) return fail(start);
+			Node elseStatement = null;
+			int elseStart = pos;
+			if (word("else")) {
+				ws();
+				elseStatement = anyStatement();
+				if (elseStatement == null) pos = elseStart;
+			}
+			return posify(new If().rawCondition(condition).rawStatement(statement).rawElseStatement(elseStatement), start);
+		}
+		
+		private Node assertStatement() {
+			int start = pos;
+			if (!word("assert")) return null;
+			ws();
+			Node assertion = anyExpression();
+			if (assertion == null) return fail(start);
+			Node message = null;
+			int messageStart = pos;
+			if (ch(':')) {
+				ws();
+				message = anyExpression();
+				if (message == null) pos = messageStart;
+			}
+			if (!ch(';')) return fail(start);
+			ws();
+			return posify(new Assert().rawAssertion(assertion).rawMessage(message), start);
+		}
+		
+		private Node switchStatement() {
+			int start = pos;
+			Node condition = keywordAndCondition("switch");
+			if (condition == null) return null;
+			Node body = blockStatement();
+			if (body == null) return fail(start);
+			return posify(new Switch().rawCondition(condition).rawBody(body), start);
+		}
+		
+		private Node caseStatement() {
+			int start = pos;
+			if (!word("case")) return null;
+			ws();
+			Node condition = anyExpression();
+			if (condition == null || !ch(':')) return fail(start);
+			ws();
+			return posify(new Case().rawCondition(condition), start);
+		}
+		
+		private Node defaultStatement() {
+			int start = pos;
+			if (!word("default")) return null;
+			ws();
+			if (!ch(':')) return fail(start);
+			ws();
+			return posify(new Default(), start);
+		}
+		
+		private Node whileStatement() {
+			int start = pos;
+			Node condition = keywordAndCondition("while");
+			if (condition == null) return null;
+			Node statement = anyStatement();
+			if (statement == null) return fail(start);
+			return posify(new While().rawCondition(condition).rawStatement(statement), start);
+		}
+		
+		private Node doWhileStatement() {
+			int start = pos;
+			if (!word("do")) return null;
+			ws();
+			Node statement = anyStatement();
+			if (statement == null) return fail(start);
+			Node condition = keywordAndCondition("while");
+			if (condition == null || !ch(';')) return fail(start);
+			ws();
+			return posify(new DoWhile().rawCondition(condition).rawStatement(statement), start);
+		}
+		
+		private Node basicForStatement() {
+			int start = pos;
+			if (!word("for")) return null;
+			ws();
+			if (!ch('(')) return fail(start);
+			ws();
+			Node definition = localVariableDefinition();
+			List<Node> inits = definition == null ? statementExpressionList() : null;
+			if (!ch(';')) return fail(start);
+			ws();
+			Node condition = anyExpression();
+			if (!ch(';')) return fail(start);
+			ws();
+			List<Node> updates = statementExpressionList();
+			if (!ch(')')) return fail(start);
+			ws();
+			Node statement = anyStatement();
+			if (statement == null) return fail(start);
+			
+			For result = new For().rawCondition(condition).rawStatement(statement);
+			if (inits != null) {
+				for (Node n : inits) result.rawExpressionInits().addToEnd(n);
+			} else {
+				result.rawVariableDeclaration(definition);
+			}
+			if (updates != null) for (Node n : updates) result.rawUpdates().addToEnd(n);
+			return posify(result, start);
+		}
+		
+		/**
+		 * Returns the statement expressions, or {@code null} if there are none.
+		 */
+		private List<Node> statementExpressionList() {
+			Node head = statementExpression();
+			if (head == null) return null;
+			List<Node> expressions = Lists.newArrayList();
+			expressions.add(head);
+			while (true) {
+				int tail = pos;
+				if (!ch(',')) break;
+				ws();
+				Node expression = statementExpression();
+				if (expression == null) {
+					pos = tail;
+					break;
+				}
+				expressions.add(expression);
+			}
+			return expressions;
+		}
+		
+		private Node enhancedForStatement() {
+			int start = pos;
+			if (!word("for")) return null;
+			ws();
+			if (!ch('(')) return fail(start);
+			ws();
+			int definitionStart = pos;
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return fail(start);
+			TypeReference type = type();
+			if (type == null) return fail(start);
+			Node variable = variableDefinitionPart(false);
+			if (variable == null) return fail(start);
+			int definitionEnd = pos;
+			if (!ch(':')) return fail(start);
+			ws();
+			Node iterable = anyExpression();
+			if (iterable == null || !ch(')')) return fail(start);
+			ws();
+			Node statement = anyStatement();
+			if (statement == null) return fail(start);
+			
+			VariableDefinition decl = new VariableDefinition().rawTypeReference(type).rawVariables().addToEnd(variable);
+			decl.setPosition(new Position(definitionStart, definitionEnd));
+			decl.astModifiers(modifiers);
+			return posify(new ForEach().rawVariable(decl).rawIterable(iterable).rawStatement(statement), start);
+		}
+		
+		private Node breakOrContinueStatement(String keyword) {
+			int start = pos;
+			if (!word(keyword)) return null;
+			ws();
+			Identifier label = identifier();
+			if (!ch(';')) return fail(start);
+			ws();
+			if (keyword.equals("break")) {
+				Break result = new Break();
+				if (label != null) result.astLabel(label);
+				return posify(result, start);
+			}
+			Continue result = new Continue();
+			if (label != null) result.astLabel(label);
+			return posify(result, start);
+		}
+		
+		private Node returnStatement() {
+			int start = pos;
+			if (!word("return")) return null;
+			ws();
+			Node value = anyExpression();
+			if (!ch(';')) return fail(start);
+			ws();
+			return posify(new Return().rawValue(value), start);
+		}
+		
+		private Node throwStatement() {
+			int start = pos;
+			if (!word("throw")) return null;
+			ws();
+			Node throwable = anyExpression();
+			if (throwable == null || !ch(';')) return fail(start);
+			ws();
+			return posify(new Throw().rawThrowable(throwable), start);
+		}
+		
+		private Node synchronizedStatement() {
+			int start = pos;
+			Node lock = keywordAndCondition("synchronized");
+			if (lock == null) return null;
+			Node body = blockStatement();
+			if (body == null) return fail(start);
+			return posify(new Synchronized().rawLock(lock).rawBody(body), start);
+		}
+		
+		private Node tryStatement() {
+			int start = pos;
+			if (!word("try")) return null;
+			ws();
+			Node body = blockStatement();
+			if (body == null) return fail(start);
+			Try result = new Try().rawBody(body);
+			for (Node c = catchBlock(); c != null; c = catchBlock()) result.rawCatches().addToEnd(c);
+			int finallyStart = pos;
+			if (word("finally")) {
+				ws();
+				Node finallyBody = blockStatement();
+				if (finallyBody == null) pos = finallyStart;
+				else result.rawFinally(finallyBody);
+			}
+			return posify(result, start);
+		}
+		
+		private Node catchBlock() {
+			int start = pos;
+			if (!word("catch")) return null;
+			ws();
+			if (!ch('(')) return fail(start);
+			ws();
+			Modifiers modifiers = modifiers();
+			if (modifiers == null) return fail(start);
+			TypeReference type = type();
+			if (type == null) return fail(start);
+			Identifier name = identifier();
+			if (name == null || !ch(')')) return fail(start);
+			ws();
+			Node body = blockStatement();
+			if (body == null) return fail(start);
+			
+			VariableDefinitionEntry entry = new VariableDefinitionEntry().astName(name);
+			entry.setPosition(name.getPosition());
+			VariableDefinition decl = new VariableDefinition().rawTypeReference(type).rawVariables().addToEnd(entry);
+			decl.setPosition(new Position(type.getPosition().getStart(), name.getPosition().getEnd()));
+			decl.astModifiers(modifiers);
+			return posify(new Catch().rawExceptionDeclaration(decl).rawBody(body), start);
+		}
+		
+		private Node explicitAlternateConstructorInvocation() {
+			int start = pos;
+			List<Node> typeArguments = typeArguments();
+			if (!word("this")) return fail(start);
+			ws();
+			List<Node> arguments = methodArguments();
+			if (arguments == null || !ch(';')) return fail(start);
+			ws();
+			
+			AlternateConstructorInvocation result = new AlternateConstructorInvocation();
+			if (typeArguments != null) for (Node n : typeArguments) result.rawConstructorTypeArguments().addToEnd(n);
+			for (Node n : arguments) result.rawArguments().addToEnd(n);
+			return posify(result, start);
+		}
+		
+		private Node explicitSuperConstructorInvocation() {
+			int start = pos;
+			Node qualifier = level1ExpressionChaining();
+			if (qualifier != null) {
+				if (ch('.')) {
+					ws();
+				} else {
+					qualifier = null;
+					pos = start;
+				}
+			}
+			List<Node> typeArguments = typeArguments();
+			if (!word("super")) return fail(start);
+			ws();
+			List<Node> arguments = methodArguments();
+			if (arguments == null || !ch(';')) return fail(start);
+			ws();
+			
+			SuperConstructorInvocation result = new SuperConstructorInvocation().rawQualifier(qualifier);
+			if (typeArguments != null) for (Node n : typeArguments) result.rawConstructorTypeArguments().addToEnd(n);
+			for (Node n : arguments) result.rawArguments().addToEnd(n);
+			return posify(result, start);
+		}
+		
+		// ---- Expressions ----
+		
+		private Node anyExpression() {
+			return assignmentExpressionChaining();
+		}
+		
+		private Node primaryExpression() {
+			Node result = parenGrouping();
+			if (result == null) result = anyLiteral();
+			if (result == null) result = unqualifiedThisOrSuperLiteral();
+			if (result == null) result = arrayCreationExpression();
+			if (result == null) result = unqualifiedConstructorInvocation();
+			if (result == null) result = qualifiedClassOrThisOrSuperLiteral();
+			if (result == null) result = identifierExpression();
+			return result;
+		}
+		
+		private Node parenGrouping() {
+			int start = pos;
+			if (!ch('(')) return null;
+			ws();
+			Node expression = anyExpression();
+			if (expression == null || !ch(')')) return fail(start);
+			if (expression instanceof Expression) ((Expression) expression).astParensPositions().add(new Position(start, pos));
+			ws();
+			return expression;
+		}
+		
+		private Node unqualifiedThisOrSuperLiteral() {
+			int start = pos;
+			String keyword = string("this") ? "this" : string("super") ? "super" : null;
+			if (keyword == null) return null;
+			if (!lexBreak()) return fail(start);
+			ws();
+			if (charAt(pos) == '(') return fail(start);
+			return posify(keyword.equals("super") ? new Super() : new This(), start);
+		}
+		
+		private Node qualifiedClassOrThisOrSuperLiteral() {
+			int start = pos;
+			TypeReference type = type();
+			if (type == null) return null;
+			if (!ch('.')) return fail(start);
+			ws();
+			String keyword = string("this") ? "this" : string("super") ? "super" : string("class") ? "class" : null;
+			if (keyword == null || !lexBreak()) return fail(start);
+			ws();
+			if (keyword.equals("super")) return posify(new Super().rawQualifier(type), start);
+			if (keyword.equals("class")) return posify(new ClassLiteral().rawTypeReference(type), start);
+			return posify(new This().rawQualifier(type), start);
+		}
+		
+		private Node unqualifiedConstructorInvocation() {
+			int start = pos;
+			if (!word("new")) return null;
+			ws();
+			List<Node> constructorTypeArguments = typeArguments();
+			TypeReference type = type();
+			if (type == null) return fail(start);
+			List<Node> arguments = methodArguments();
+			if (arguments == null) return fail(start);
+			NormalTypeBody body = typeBody();
+			
+			ConstructorInvocation result = new ConstructorInvocation().rawTypeReference(type).rawAnonymousClassBody(body);
+			if (constructorTypeArguments != null) for (Node n : constructorTypeArguments) result.rawConstructorTypeArguments().addToEnd(n);
+			for (Node n : arguments) result.rawArguments().addToEnd(n);
+			return posify(result, start);
+		}
+		
+		private Node arrayCreationExpression() {
+			int start = pos;
+			if (!word("new")) return null;
+			ws();
+			TypeReference type = nonArrayType();
+			if (type == null) return fail(start);
+			ArrayCreation result = new ArrayCreation().rawComponentTypeReference(type);
+			int dimensions = 0;
+			while (true) {
+				int open = pos;
+				if (!ch('[')) break;
+				ws();
+				Node dimension = anyExpression();
+				if (!ch(']')) {
+					pos = open;
+					break;
+				}
+				ws();
+				ArrayDimension d = new ArrayDimension().rawDimension(dimension);
+				d.setPosition(new Position(open, pos));
+				result.rawDimensions().addToEnd(d);
+				dimensions++;
+			}
+			if (dimensions == 0) return fail(start);
+			result.rawInitializer(arrayInitializer());
+			return posify(result, start);
+		}
+		
+		private Node arrayInitializer() {
+			int start = pos;
+			if (!ch('{')) return null;
+			ws();
+			ArrayInitializer result = new ArrayInitializer();
+			Node head = arrayInitializerElement();
+			if (head != null) {
+				result.rawExpressions().addToEnd(head);
+				while (true) {
+					int tail = pos;
+					if (!ch(',')) break;
+					ws();
+					Node element = arrayInitializerElement();
+					if (element == null) {
+						pos = tail;
+						break;
+					}
+					result.rawExpressions().addToEnd(element);
+				}
+				ch(',');
+				ws();
+			}
+			if (!ch('}')) return fail(start);
+			ws();
+			return posify(result, start);
+		}
+		
+		private Node arrayInitializerElement() {
+			Node result = arrayInitializer();
+			return result != null ? result : anyExpression();
+		}
+		
+		private Node identifierExpression() {
+			int start = pos;
+			Identifier name = identifier();
+			if (name == null) return null;
+			List<Node> arguments = methodArguments();
+			if (arguments == null) return posify(new VariableReference().astIdentifier(name), start);
+			MethodInvocation invoke = new MethodInvocation().astName(name);
+			for (Node n : arguments) invoke.rawArguments().addToEnd(n);
+			return posify(invoke, start);
+		}
+		
+		private Node statementExpression() {
+			Node result = assignmentExpression();
+			if (result == null) result = postfixIncrementExpression(true);
+			if (result == null) result = prefixIncrementExpression();
+			if (result != null) return result;
+			
+			int start = pos;
+			result = dotNewExpressionChaining();
+			if (result instanceof MethodInvocation || result instanceof ConstructorInvocation) return result;
+			return fail(start);
+		}
+		
+		private Node level1ExpressionChaining() {
+			int start = pos;
+			Node current = primaryExpression();
+			if (current == null) return null;
+			while (true) {
+				Node operation = arrayAccessOperation();
+				if (operation != null) {
+					current = ((ArrayAccess) operation).rawOperand(current);
+				} else if ((operation = methodInvocationWithTypeArgsOperation()) != null) {
+					current = ((MethodInvocation) operation).rawOperand(current);
+				} else if ((operation = select()) != null) {
+					current = ((Select) operation).rawOperand(current);
+				} else {
+					return current;
+				}
+				posify(operation, start);
+			}
+		}
+		
+		private Node arrayAccessOperation() {
+			int start = pos;
+			if (!ch('[')) return null;
+			ws();
+			Node index = anyExpression();
+			if (index == null || !ch(']')) return fail(start);
+			ws();
+			return new ArrayAccess().rawIndexExpression(index);
+		}
+		
+		private Node methodInvocationWithTypeArgsOperation() {
+			int start = pos;
+			if (!ch('.')) return null;
+			ws();
+			List<Node> typeArguments = typeArguments();
+			Identifier name = identifier();
+			if (name == null) return fail(start);
+			List<Node> arguments = methodArguments();
+			if (arguments == null) return fail(start);
+			
+			MethodInvocation result = new MethodInvocation().astName(name);
+			if (typeArguments != null) for (Node n : typeArguments) result.rawMethodTypeArguments().addToEnd(n);
+			for (Node n : arguments) result.rawArguments().addToEnd(n);
+			return result;
+		}
+		
+		private Node select() {
+			int start = pos;
+			Identifier name = dotIdentifier();
+			if (name == null) return null;
+			if (charAt(pos) == '(') return fail(start);
+			return new Select().astIdentifier(name);
+		}
+		
+		private Node dotNewExpressionChaining() {
+			int start = pos;
+			Node current = level1ExpressionChaining();
+			if (current == null) return null;
+			while (true) {
+				int invocationStart = pos;
+				if (!ch('.')) return current;
+				ws();
+				if (!word("new")) return fail(invocationStart, current);
+				ws();
+				List<Node> constructorTypeArguments = typeArguments();
+				Identifier name = identifier();
+				if (name == null) return fail(invocationStart, current);
+				typeArguments();
+				List<Node> arguments = methodArguments();
+				if (arguments == null) return fail(invocationStart, current);
+				NormalTypeBody body = typeBody();
+				
+				/* The grammar drops the type arguments of the class; the type gets the position of its name. */
+				TypeReferencePart part = new TypeReferencePart();
+				part.setPosition(name.getPosition());
+				TypeReference type = new TypeReference().astParts().addToEnd(part.astIdentifier(name));
+				type.setPosition(name.getPosition());
+				ConstructorInvocation invocation = new ConstructorInvocation().rawTypeReference(type).rawAnonymousClassBody(body);
+				if (constructorTypeArguments != null) for (Node n : constructorTypeArguments) invocation.rawConstructorTypeArguments().addToEnd(n);
+				for (Node n : arguments) invocation.rawArguments().addToEnd(n);
+				current = posify(invocation.rawQualifier(current), start);
+			}
+		}
+		
+		/**
+		 * Puts the position back to {@code start} after an optional part didn't match, and returns what was matched before it.
+		 */
+		private Node fail(int start, Node matched) {
+			pos = start;
+			return matched;
+		}
+		
+		/**
+		 * Matches a chain of {@code ++} and {@code --} operators, with any whitespace after each, and returns their start positions.
+		 */
+		private List<Integer> incrementOperators() {
+			List<Integer> starts = Lists.newArrayList();
+			while (in.startsWith("++", pos) || in.startsWith("--", pos)) {
+				starts.add(pos);
+				pos += 2;
+				ws();
+			}
+			return starts;
+		}
+		
+		/**
+		 * The grammar's {@code postfixIncrementExpression} if {@code required} is set, otherwise {@code postfixIncrementExpressionChaining}.
+		 */
+		private Node postfixIncrementExpression(boolean required) {
+			int start = pos;
+			Node current = dotNewExpressionChaining();
+			if (current == null) return null;
+			List<Integer> operators = incrementOperators();
+			if (required && operators.isEmpty()) return fail(start);
+			for (int operator : operators) {
+				int operandStart = current.getPosition().getStart();
+				boolean increment = in.charAt(operator) == '+';
+				current = new UnaryExpression().rawOperand(current)
+						.astOperator(increment ? UnaryOperator.POSTFIX_INCREMENT : UnaryOperator.POSTFIX_DECREMENT);
+				current.setPosition(new Position(operandStart, operator + 2));
+			}
+			return current;
+		}
+		
+		private Node prefixIncrementExpression() {
+			int start = pos;
+			List<Integer> operators = incrementOperators();
+			if (operators.isEmpty()) return null;
+			Node current = postfixIncrementExpression(false);
+			if (current == null) return fail(start);
+			for (int i = operators.size() - 1; i >= 0; i--) {
+				int operator = operators.get(i);
+				current = new UnaryExpression().rawOperand(current).astOperator(UnaryOperator.fromSymbol(in.substring(operator, operator + 2), false));
+				current.setPosition(new Position(operator, pos));
+			}
+			return current;
+		}
+		
+		private Node level2ExpressionChaining() {
+			int start = pos;
+			String symbol = null;
+			TypeReference castType = null;
+			if (in.startsWith("++", pos) || in.startsWith("--", pos)) {
+				symbol = in.substring(pos, pos + 2);
+				pos += 2;
+			} else if (charAt(pos) == '!' || charAt(pos) == '~' || isSolitary('+') || isSolitary('-')) {
+				symbol = String.valueOf(charAt(pos));
+				pos++;
+			} else if (ch('(')) {
+				ws();
+				castType = type();
+				if (castType == null || !ch(')')) {
+					castType = null;
+					pos = start;
+				} else {
+					int afterCast = pos;
+					ws();
+					boolean unaryFollows = isSolitary('+') || isSolitary('-');
+					pos = afterCast;
+					if (unaryFollows && ExpressionsActions.isAlsoLegalAsExpression(castType)) {
+						castType = null;
+						pos = start;
+					}
+				}
+			}
+			
+			if (symbol != null || castType != null) {
+				ws();
+				Node operand = level2ExpressionChaining();
+				if (operand != null) {
+					if (castType != null) return posify(new Cast().rawOperand(operand).rawTypeReference(castType), start);
+					return posify(new UnaryExpression().rawOperand(operand).astOperator(UnaryOperator.fromSymbol(symbol, false)), start);
+				}
+				pos = start;
+			}
+			
+			return postfixIncrementExpression(false);
+		}
+		
+		private Node relationalExpressionChaining() {
+			int start = pos;
+			Node operand = binaryOperatorChain(true);
+			if (operand == null) return null;
+			int instanceOfStart = pos;
+			if (word("instanceof")) {
+				ws();
+				TypeReference type = type();
+				if (type != null) return posify(new InstanceOf().rawObjectReference(operand).rawTypeReference(type), start);
+				pos = instanceOfStart;
+			}
+			return operand;
+		}
+		
+		private String relationalOperator() {
+			char c = charAt(pos);
+			char next = charAt(pos + 1);
+			String operator;
+			switch (c) {
+			case '*':
+			case '%':
+				operator = String.valueOf(c);
+				break;
+			case '/':
+			case '+':
+			case '-':
+				operator = next == c ? null : String.valueOf(c);
+				break;
+			case '>':
+				operator = in.startsWith(">>>", pos) ? ">>>" : next == '>' ? ">>" : next == '=' ? ">=" : ">";
+				break;
+			case '<':
+				operator = in.startsWith("<<<", pos) ? "<<<" : next == '<' ? "<<" : next == '=' ? "<=" : "<";
+				break;
+			default:
+				operator = null;
+			}
+			if (operator != null) pos += operator.length();
+			return operator;
+		}
+		
+		private String conditionalOrOperator() {
+			char c = charAt(pos);
+			char next = charAt(pos + 1);
+			String operator;
+			switch (c) {
+			case '=':
+				operator = in.startsWith("===", pos) ? "===" : next == '=' ? "==" : null;
+				break;
+			case '!':
+				operator = in.startsWith("!==", pos) ? "!==" : next == '=' ? "!=" : null;
+				break;
+			case '&':
+			case '^':
+			case '|':
+				operator = next == c ? new String(new char[] {c, c}) : String.valueOf(c);
+				break;
+			default:
+				operator = null;
+			}
+			if (operator != null) pos += operator.length();
+			return operator;
+		}
+		
+		/**
+		 * The grammar's {@code binaryOperatorChain} over level 2 expressions if {@code relational} is set, otherwise over relational expressions.
+		 * The operands are grouped by precedence climbing, just like the grammar does.
+		 */
+		private Node binaryOperatorChain(boolean relational) {
+			int start = pos;
+			Node head = relational ? level2ExpressionChaining() : relationalExpressionChaining();
+			if (head == null) return null;
+			List<Node> operands = Lists.newArrayList(head);
+			List<Integer> starts = Lists.newArrayList(start);
+			List<Integer> ends = Lists.newArrayList(pos);
+			List<String> operators = Lists.newArrayList();
+			ws();
+			while (true) {
+				int tail = pos;
+				String operator = relational ? relationalOperator() : conditionalOrOperator();
+				if (operator == null) break;
+				ws();
+				int operandStart = pos;
+				Node operand = relational ? level2ExpressionChaining() : relationalExpressionChaining();
+				if (operand == null) {
+					pos = tail;
+					break;
+				}
+				operators.add(operator);
+				operands.add(operand);
+				starts.add(operandStart);
+				ends.add(pos);
+				ws();
+			}
+			
+			Node result = operators.isEmpty() ? head : groupByPrecedence(operands, starts, ends, operators);
+			ws();
+			return result;
+		}
+		
+		private Node groupByPrecedence(List<Node> values, List<Integer> starts, List<Integer> ends, List<String> operators) {
+			List<Node> operands = Lists.newArrayList(values.get(0));
+			List<Integer> operandStarts = Lists.newArrayList(starts.get(0));
+			List<Integer> operandEnds = Lists.newArrayList(ends.get(0));
+			List<Integer> pending = Lists.newArrayList();
+			
+			for (int i = 0; i < operators.size(); i++) {
+				int precedence = ExpressionsActions.precedenceOf(operators.get(i));
+				while (!pending.isEmpty() && ExpressionsActions.precedenceOf(operators.get(pending.get(pending.size() - 1))) <= precedence) {
+					reduce(operands, operandStarts, operandEnds, pending, operators);
+				}
+				pending.add(i);
+				operands.add(values.get(i + 1));
+				operandStarts.add(starts.get(i + 1));
+				operandEnds.add(ends.get(i + 1));
+			}
+			
+			while (!pending.isEmpty()) reduce(operands, operandStarts, operandEnds, pending, operators);
+			return operands.get(0);
+		}
+		
+		private void reduce(List<Node> operands, List<Integer> starts, List<Integer> ends, List<Integer> pending, List<String> operators) {
+			int last = operands.size() - 1;
+			Node right = operands.remove(last);
+			int end = ends.remove(last);
+			starts.remove(last);
+			Node left = operands.remove(last - 1);
+			
+			Node result = new BinaryExpression().rawLeft(left).rawRight(right).rawOperator(operators.get(pending.remove(pending.size() - 1)));
+			result.setPosition(new Position(starts.get(last - 1), end));
+			operands.add(result);
+			ends.set(last - 1, end);
+		}
+		
+		private Node conditionalOrExpressionChaining() {
+			return binaryOperatorChain(false);
+		}
+		
+		private Node inlineIfExpressionChaining() {
+			int start = pos;
+			Node head = conditionalOrExpressionChaining();
+			if (head == null) return null;
+			Node result = head;
+			int operatorStart = pos;
+			char next = charAt(pos + 1);
+			if (charAt(pos) == '?' && next != '.' && next != ':' && next != '?') {
+				pos++;
+				ws();
+				Node ifTrue = assignmentExpressionChaining();
+				Node ifFalse = null;
+				if (ifTrue != null && ch(':')) {
+					ws();
+					ifFalse = inlineIfExpressionChaining();
+				}
+				if (ifFalse == null) pos = operatorStart;
+				else result = posify(new InlineIfExpression().rawCondition(head).rawIfTrue(ifTrue).rawIfFalse(ifFalse), start);
+			}
+			ws();
+			return result;
+		}
+		
+		private String assignmentOperator() {
+			if (isSolitary('=')) {
+				pos++;
+				return "=";
+			}
+			return firstOf(ASSIGNMENT_OPERATORS);
+		}
+		
+		private Node assignmentExpressionChaining() {
+			int start = pos;
+			Node lhs = inlineIfExpressionChaining();
+			if (lhs == null) return null;
+			int operatorStart = pos;
+			String operator = assignmentOperator();
+			if (operator == null) return lhs;
+			ws();
+			Node rhs = assignmentExpressionChaining();
+			if (rhs == null) return fail(operatorStart, lhs);
+			return posify(new BinaryExpression().rawLeft(lhs).rawRight(rhs).rawOperator(operator), start);
+		}
+		
+		private Node assignmentExpression() {
+			int start = pos;
+			Node lhs = level1ExpressionChaining();
+			if (lhs == null) return null;
+			if (!(lhs instanceof VariableReference || lhs instanceof Select || lhs instanceof ArrayAccess)) return fail(start);
+			String operator = assignmentOperator();
+			if (operator == null) return fail(start);
+			ws();
+			Node rhs = assignmentExpressionChaining();
+			if (rhs == null) return fail(start);
+			return posify(new BinaryExpression().rawLeft(lhs).rawRight(rhs).rawOperator(operator), start);
+		}
+		
+		// ---- Literals ----
+		
+		private Node anyLiteral() {
+			switch (charAt(pos)) {
+			case 'n':
+				return keywordLiteral("null");
+			case 't':
+				return keywordLiteral("true");
+			case 'f':
+				return keywordLiteral("false");
+			case '\'':
+				return textLiteral(charLiteralEnd(pos), false);
+			case '"':
+				return textLiteral(stringLiteralEnd(pos), true);
+			default:
+				return numberLiteral();
+			}
+		}
+		
+		private Node keywordLiteral(String keyword) {
+			int start = pos;
+			if (!word(keyword)) return null;
+			Node result = keyword.equals("null") ? new NullLiteral().rawValue(keyword) : new BooleanLiteral().rawValue(keyword);
+			posify(result, start);
+			ws();
+			return result;
+		}
+		
+		private Node textLiteral(int end, boolean string) {
+			if (end == -1) return null;
+			int start = pos;
+			String raw = in.substring(start, end);
+			pos = end;
+			Node result = posify(string ? new StringLiteral().rawValue(raw) : new CharLiteral().rawValue(raw), start);
+			ws();
+			return result;
+		}
+		
+		private int stringLiteralEnd(int p) {
+			p++;
+			while (true) {
+				char c = charAt(p);
+				if (c == '\\' && p + 1 < length && !in.startsWith("\r\n", p + 1)) {
+					p += 2;
+				} else if (c != '"' && c != '\r' && c != '\n' && c != EOI) {
+					p++;
+				} else {
+					break;
+				}
+			}
+			return charAt(p) == '"' ? p + 1 : -1;
+		}
+		
+		private int charLiteralEnd(int p) {
+			p++;
+			int escapeEnd = escapedSequenceEnd(p);
+			if (escapeEnd != -1 && charAt(escapeEnd) == '\'') return escapeEnd + 1;
+			
+			int q = p;
+			while (charAt(q) != '\'' && charAt(q) != '\r' && charAt(q) != '\n' && charAt(q) != EOI) q++;
+			if (charAt(q) == '\'') return q + 1;
+			
+			return charAt(p) == EOI ? -1 : p + 1;
+		}
+		
+		private int escapedSequenceEnd(int p) {
+			if (charAt(p) != '\\') return -1;
+			p++;
+			int q = p;
+			if (charAt(q) >= '0' && charAt(q) <= '3') q++;
+			if (isOctalDigit(charAt(q))) {
+				q++;
+				if (isOctalDigit(charAt(q))) q++;
+				return q;
+			}
+			return charAt(p) == EOI ? -1 : p + 1;
+		}
+		
+		private static boolean isOctalDigit(char c) {
+			return c >= '0' && c <= '7';
+		}
+		
+		private static boolean isDigit(char c) {
+			return c >= '0' && c <= '9';
+		}
+		
+		private static boolean isHexDigit(char c) {
+			return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+		}
+		
+		private Node numberLiteral() {
+			int start = pos;
+			if (!isDigit(charAt(start)) && !(charAt(start) == '.' && isDigit(charAt(start + 1)))) return null;
+			int end = hexLiteralEnd(start);
+			if (end == -1) end = fpLiteralEnd(start);
+			if (end == -1) return null;
+			
+			String raw = in.substring(start, end);
+			String v = raw.toLowerCase();
+			pos = end;
+			Node result;
+			if (v.startsWith("0x")) {
+				result = v.contains("p") ? new FloatingPointLiteral().rawValue(raw) : new IntegralLiteral().rawValue(raw);
+			} else if (v.contains(".") || v.endsWith("d") || v.endsWith("f") || v.contains("e")) {
+				result = new FloatingPointLiteral().rawValue(raw);
+			} else {
+				result = new IntegralLiteral().rawValue(raw);
+			}
+			posify(result, start);
+			ws();
+			return result;
+		}
+		
+		private int hexLiteralEnd(int p) {
+			if (charAt(p) != '0' || (charAt(p + 1) != 'x' && charAt(p + 1) != 'X')) return -1;
+			p += 2;
+			int end = hexFPEnd(p);
+			if (end != -1) return end;
+			if (!isHexDigit(charAt(p))) return -1;
+			while (isHexDigit(charAt(p))) p++;
+			return numberTypeSuffixEnd(p);
+		}
+		
+		private int hexFPEnd(int p) {
+			if (charAt(p) == '.' && isHexDigit(charAt(p + 1))) {
+				p++;
+				while (isHexDigit(charAt(p))) p++;
+			} else if (isHexDigit(charAt(p))) {
+				while (isHexDigit(charAt(p))) p++;
+				if (charAt(p) == '.') {
+					p++;
+					while (isHexDigit(charAt(p))) p++;
+				}
+			} else {
+				return -1;
+			}
+			if (charAt(p) != 'p' && charAt(p) != 'P') return -1;
+			p++;
+			if (charAt(p) == '+' || charAt(p) == '-') p++;
+			if (!isDigit(charAt(p))) return -1;
+			while (isDigit(charAt(p))) p++;
+			return numberTypeSuffixEnd(p);
+		}
+		
+		private int fpLiteralEnd(int p) {
+			if (isDigit(charAt(p))) {
+				while (isDigit(charAt(p))) p++;
+				if (charAt(p) == '.') {
+					p++;
+					while (isDigit(charAt(p))) p++;
+				}
+			} else if (charAt(p) == '.' && isDigit(charAt(p + 1))) {
+				p++;
+				while (isDigit(charAt(p))) p++;
+			} else {
+				return -1;
+			}
+			if (charAt(p) == 'e' || charAt(p) == 'E') {
+				int q = p + 1;
+				if (charAt(q) == '+' || charAt(q) == '-') q++;
+				if (isDigit(charAt(q))) {
+					while (isDigit(charAt(q))) q++;
+					p = q;
+				}
+			}
+			return numberTypeSuffixEnd(p);
+		}
+		
+		private int numberTypeSuffixEnd(int p) {
+			switch (charAt(p)) {
+			case 'd': case 'D': case 'f': case 'F': case 'l': case 'L':
+				return p + 1;
+			default:
+				return p;
+			}
+		}
+	}
+}
@@ -21,49 +21,188 @@
  */
 package lombok.ast.grammar;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import lombok.Getter;
+import lombok.Setter;
+import lombok.ast.AnnotationDeclaration;
+import lombok.ast.AnnotationMethodDeclaration;
+import lombok.ast.AstException;
+import lombok.ast.Block;
+import lombok.ast.ClassDeclaration;
 import lombok.ast.Comment;
+import lombok.ast.CompilationUnit;
+import lombok.ast.ConstructorDeclaration;
+import lombok.ast.EnumConstant;
+import lombok.ast.EnumDeclaration;
+import lombok.ast.EnumTypeBody;
 import lombok.ast.Expression;
 import lombok.ast.ForwardingAstVisitor;
+import lombok.ast.Identifier;
+import lombok.ast.InstanceInitializer;
+import lombok.ast.InterfaceDeclaration;
 import lombok.ast.JavadocContainer;
+import lombok.ast.LazyNodes;
+import lombok.ast.MethodDeclaration;
+import lombok.ast.Modifiers;
 import lombok.ast.Node;
+import lombok.ast.NormalTypeBody;
 import lombok.ast.Position;
+import lombok.ast.StaticInitializer;
 import lombok.ast.StructuralElement;
+import lombok.ast.TypeBody;
+import lombok.ast.TypeDeclaration;
+import lombok.ast.TypeMember;
 
+import org.parboiled.BasicParseRunner;
 import org.parboiled.Context;
 import org.parboiled.RecoveringParseRunner;
+import org.parboiled.Rule;
 import org.parboiled.errors.ParseError;
 import org.parboiled.support.ParsingResult;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.ListMultimap;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Interner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.MapMaker;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class Source {
 	@Getter private final String name;
-	@Getter private final String rawInput;
+	@Getter private String rawInput;
 	private List<Node> nodes;
 	private List<ParseProblem> problems;
 	private List<Comment> comments;
 	private boolean parsed;
 	private ParsingResult<Node> parsingResult;
 	
-	private TreeMap<Integer, Integer> positionDeltas;
 	private Map<org.parboiled.Node<Node>, Node> registeredStructures;
 	private Map<org.parboiled.Node<Node>, List<Comment>> registeredComments;
 	private String preprocessed;
 	private Map<Node, Collection<StructuralElement>> cachedSourceStructures;
-	private List<Integer> lineEndings;
+	private PositionIndex positionIndex;
+	private int generation;
+	
+	/**
+	 * If set, method, constructor and initializer bodies are skipped over by brace matching, and each body is only parsed
+	 * the first time it is accessed. Problems and comments inside a body are added to this source when it is loaded.
+	 * Source structures are not available for lazily parsed bodies. Changing this setting affects only subsequent parses.
+	 */
+	@Getter @Setter private boolean lazyBodies;
+	
+	/**
+	 * If set, parsing remembers where the rules in {@link MemoizingParseRunner#DEFAULT_MEMOIZED_RULES} have failed, so they aren't tried
+	 * again at the same position. This can only speed up sources without syntax errors; for other sources the parse is done twice.
+	 * This implies {@link #isFastPath()}.
+	 * 
+	 * @see MemoizingParseRunner
+	 */
+	@Getter @Setter private boolean memoizing;
+	
+	/**
+	 * If set (the default), sources are first parsed without any error recovery bookkeeping, and only when that fails are they parsed
+	 * again, by a runner that recovers from errors. This speeds up sources without syntax errors, at the cost of parsing the others twice,
+	 * so it is worth turning off for input that mostly doesn't parse. Problems are reported the same either way.
+	 */
+	@Getter @Setter private boolean fastPath = true;
+	
+	/**
+	 * If set (the default), grammar rules with many alternatives, such as those for statements and type members, only try the alternatives
+	 * that can start with the character at hand. If not, every alternative is tried in order, as a plain {@code FirstOf} would.
+	 * Results are the same either way; this exists to compare the two.
+	 */
+	@Getter @Setter private boolean dispatching = true;
+	
+	/**
+	 * What to keep of the parse tree once parsing is done. Changing this setting affects only subsequent parses.
+	 */
+	public enum ParseTreeRetention {
+		/**
+		 * Keep the parse tree, so that source structures can be built whenever they are first asked for. This is the default.
+		 */
+		RETAIN,
+		
+		/**
+		 * Build the source structures as part of parsing, then drop the parse tree.
+		 */
+		EAGER_STRUCTURES,
+		
+		/**
+		 * Drop the parse tree as part of parsing. Asking for source structures afterwards parses the source again,
+		 * which replaces all nodes.
+		 */
+		DISCARD;
+	}
+	
+	@Getter @Setter private ParseTreeRetention parseTreeRetention = ParseTreeRetention.RETAIN;
+	
+	/**
+	 * The {@code System.currentTimeMillis()} after which a parse run is aborted, or {@code 0} for no deadline.
+	 */
+	@Getter @Setter private long deadline;
+	
+	/**
+	 * The number of steps after which a parse run is aborted, or {@code 0} for no limit. The grammar takes a step each time it looks
+	 * for whitespace, which it does after nearly every token it tries, including during error recovery; the budget therefore limits
+	 * the work done, and not just the size of the input.
+	 */
+	@Getter @Setter private long stepBudget;
+	
+	/**
+	 * If set, used to give identifiers with the same text the same {@code String} instance, such as a weak interner shared by all sources
+	 * that are kept in memory together. This saves memory at some cost in parse speed. By default ({@code null}) the text of each
+	 * identifier is kept separately.
+	 */
+	@Getter @Setter private Interner<String> identifierInterner;
+	
+	/**
+	 * If set, large compilation units are parsed by splitting the bodies of their top-level types at member boundaries, found by scanning
+	 * for semicolons and braces, and parsing the members in parallel on this executor. The rest of the source is parsed on the calling thread,
+	 * with the members blanked out, and the members are then put in place. If any part does not parse cleanly, the source is parsed sequentially
+	 * instead, so results are the same either way. All parts count towards the one {@link #setStepBudget(long) step budget} and are aborted by
+	 * {@link #cancel()}; an aborted run keeps what was parsed, and isn't parsed again. This is not done for lazy bodies, sources with backslash-u
+	 * escapes or when source structures are needed, and the parse tree is not retained. The executor is never shut down by this class.
+	 */
+	@Getter @Setter private ExecutorService memberExecutor;
+	private static final int PARALLEL_MEMBERS_MIN_LENGTH = 16384;
+	
+	/**
+	 * If set, a compilation unit that doesn't parse cleanly is split up into its members in the same way as for the {@code memberExecutor},
+	 * and only the members that don't parse cleanly are parsed again with error recovery. This keeps an error in one member from affecting
+	 * the others, and is much faster than recovering over the whole source. If the error is outside of the members, or their boundaries
+	 * can't be found (as with unbalanced braces), the whole source is parsed with error recovery as usual.
+	 * Problems in members are reported as found by parsing each member on its own. This requires {@link #isFastPath()}.
+	 */
+	@Getter @Setter private boolean memberRecovery;
+	/**
+	 * If set, {@link #parseCompilationUnit()} lets this engine parse the source instead of the grammar. The grammar still parses sources
+	 * the engine can't, which includes any with syntax errors, so problems are always reported by the grammar. It also parses when bodies are
+	 * lazy or source structures are needed, as both rely on the grammar's parse tree.
+	 */
+	@Getter @Setter private ParseEngine parseEngine;
+	private ParseLimits limits = new ParseLimits();
+	private boolean ownsLimits = true;
+	private boolean enforcingLimits;
+	private long steps;
+	private boolean structuresRequested;
+	private int[] braceOpens, braceCloses;
+	private JavaLexer lexer;
+	private Set<Block> lazyBodyPlaceholders;
 	
 	public Source(String rawInput, String name) {
 		this.rawInput = rawInput;
@@ -86,21 +225,20 @@ public class Source {
 		nodes = Lists.newArrayList();
 		problems = Lists.newArrayList();
 		comments = Lists.newArrayList();
-		lineEndings = ImmutableList.of();
+		positionIndex = new PositionIndex("");
 		parsed = false;
 		parsingResult = null;
-		positionDeltas = Maps.newTreeMap();
 		registeredComments = new MapMaker().weakKeys().makeMap();
 		registeredStructures = new MapMaker().weakKeys().makeMap();
 		cachedSourceStructures = null;
+		braceOpens = braceCloses = null;
+		lexer = null;
+		lazyBodyPlaceholders = Sets.newIdentityHashSet();
+		generation++;
 	}
 	
 	public String getOverviewProfileInformation() {
-		clear();
-		preProcess();
-		ParserGroup group = new ParserGroup(this);
-		ProfilerParseRunner<Node> runner = new ProfilerParseRunner<Node>(group.structures.compilationUnitEoi(), preprocessed);
-		this.parsingResult = runner.run();
+		ProfilerParseRunner<Node> runner = runProfiler(null);
 		StringBuilder out = new StringBuilder();
 		out.append(runner.getOverviewReport());
 		postProcess();
@@ -108,11 +246,7 @@ public class Source {
 	}
 	
 	public List<String> getDetailedProfileInformation(int top) {
-		clear();
-		preProcess();
-		ParserGroup group = new ParserGroup(this);
-		ProfilerParseRunner<Node> runner = new ProfilerParseRunner<Node>(group.structures.compilationUnitEoi(), preprocessed);
-		this.parsingResult = runner.run();
+		ProfilerParseRunner<Node> runner = runProfiler(null);
 		List<String> result = Lists.newArrayList();
 		result.add(runner.getOverviewReport());
 		result.addAll(runner.getExtendedReport(top));
@@ -120,84 +254,625 @@ public class Source {
 		return result;
 	}
 	
-	private List<Integer> calculateLineEndings() {
-		ImmutableList.Builder<Integer> builder = ImmutableList.builder();
-		
-		boolean atCR = false;
-		for (int i = 0; i < rawInput.length(); i++) {
-			char c = rawInput.charAt(i);
-			if (c == '\n' && !atCR) builder.add(i);
-			atCR = c == '\r';
-			if (atCR) builder.add(i);
+	/**
+	 * Parses this source again with the grammar and adds the work done by each rule to {@code profile}.
+	 */
+	public void addProfileInformation(GrammarProfile profile) {
+		runProfiler(profile);
+		postProcess();
+	}
+	
+	private ProfilerParseRunner<Node> runProfiler(GrammarProfile profile) {
+		clear();
+		preProcess();
+		ParserGroup group = bindGrammar();
+		try {
+			ProfilerParseRunner<Node> runner = new ProfilerParseRunner<Node>(group.structures.compilationUnitEoi(), preprocessed, profile);
+			this.parsingResult = runner.run();
+			return runner;
+		} finally {
+			group.bind(null);
 		}
-		return builder.build();
 	}
 	
 	public void parseCompilationUnit() {
 		if (parsed) return;
 		preProcess();
-		ParserGroup group = new ParserGroup(this);
-		parsingResult = RecoveringParseRunner.run(group.structures.compilationUnitEoi(), preprocessed);
+		if (parseEngine != null && parseWithEngine()) return;
+		if (memberExecutor != null && parseByMember(memberRecovery)) return;
+		Rule rule = ParserGroup.forCurrentThread().structures.compilationUnitEoi();
+		if (memberRecovery && memberExecutor == null && (memoizing || fastPath)) {
+			parsingResult = runParser(rule, true, false);
+			if (parsingResult != null && !parsingResult.matched) {
+				if (parseByMember(true)) return;
+				parsingResult = runParser(rule, false, true);
+			}
+		} else {
+			parsingResult = runParser(rule);
+		}
 		postProcess();
 	}
 	
 	public void parseMember() {
 		if (parsed) return;
 		preProcess();
-		ParserGroup group = new ParserGroup(this);
-		parsingResult = RecoveringParseRunner.run(group.structures.typeBodyMember(), preprocessed);
+		parsingResult = runParser(ParserGroup.forCurrentThread().structures.typeBodyMember());
 		postProcess();
 	}
 	
 	public void parseStatement() {
 		if (parsed) return;
 		preProcess();
-		ParserGroup group = new ParserGroup(this);
-		parsingResult = RecoveringParseRunner.run(group.statements.anyStatement(), preprocessed);
+		parsingResult = runParser(ParserGroup.forCurrentThread().statements.anyStatement());
 		postProcess();
 	}
 	
 	public void parseExpression() {
 		if (parsed) return;
 		preProcess();
-		ParserGroup group = new ParserGroup(this);
-		parsingResult = RecoveringParseRunner.run(group.expressions.anyExpression(), preprocessed);
+		parsingResult = runParser(ParserGroup.forCurrentThread().expressions.anyExpression());
 		postProcess();
 	}
+	
+	/**
+	 * Parses with the {@link #setParseEngine(ParseEngine) parse engine}. If it can't, nothing changes and this returns {@code false}.
+	 */
+	private boolean parseWithEngine() {
+		if (lazyBodies || structuresRequested || parseTreeRetention == ParseTreeRetention.EAGER_STRUCTURES) return false;
+		Node unit = parseEngine.parseCompilationUnit(preprocessed, name);
+		if (unit == null) return false;
+		if (identifierInterner != null) unit.accept(new ForwardingAstVisitor() {
+			@Override public boolean visitIdentifier(Identifier node) {
+				node.astValue(identifierInterner.intern(node.astValue()));
+				return true;
+			}
+		});
+		nodes.add(unit);
+		for (int i = 0; i < lexer.commentCount(); i++) {
+			int start = lexer.commentStart(i), end = lexer.commentEnd(i);
+			comments.add(BasicsActions.createComment(lexer.text(start, end), start, end));
+		}
+		postProcess();
+		return true;
+	}
+	
+	/**
+	 * Parses a range of a type body that holds a single member, with the whitespace and comments around it.
+	 * Unless {@code recover} is set, this gives up without error recovery if that isn't what's there.
+	 */
+	private void parseMemberChunk(boolean recover) {
+		if (parsed) return;
+		preProcess();
+		parsingResult = runParser(ParserGroup.forCurrentThread().structures.typeBodyMemberChunk(), !recover || memoizing || fastPath, recover);
+		postProcess();
+	}
+	
 	public void parseVariableDefinition() {
 		if (parsed) return;
 		preProcess();
-		ParserGroup group = new ParserGroup(this);
-		parsingResult = RecoveringParseRunner.run(group.structures.variableDefinition(), preprocessed);
+		parsingResult = runParser(ParserGroup.forCurrentThread().structures.variableDefinition());
 		postProcess();
 	}
 	
-	private void postProcess() {
-		for (ParseError error : parsingResult.parseErrors) {
-			int errStart = error.getStartIndex();
-			int errEnd = error.getEndIndex();
-			problems.add(new ParseProblem(new Position(mapPosition(errStart), mapPosition(errEnd)), error.toString()));
+	/**
+	 * Parses the members of the top-level types on the member executor, or on this thread if there is none, and everything else on this thread,
+	 * as described at {@link #setMemberExecutor(ExecutorService)}. If {@code recover} is set, members that don't parse cleanly are parsed again
+	 * with error recovery, as described at {@link #setMemberRecovery(boolean)}.
+	 * 
+	 * @return {@code false} if this was not possible, in which case nothing has been changed.
+	 */
+	private boolean parseByMember(boolean recover) {
+		if (lazyBodies || positionIndex.hasDeltas() || (!recover && rawInput.length() < PARALLEL_MEMBERS_MIN_LENGTH)) return false;
+		if (structuresRequested || parseTreeRetention == ParseTreeRetention.EAGER_STRUCTURES) return false;
+		
+		final String input = preprocessed;
+		List<int[]> chunks = findMemberChunks(input);
+		if (chunks.size() < 2) return false;
+		
+		ExecutorService executor = memberExecutor == null ? MoreExecutors.sameThreadExecutor() : memberExecutor;
+		final ParseLimits parts = new ParseLimits(limits);
+		List<Future<Source>> futures = Lists.newArrayListWithCapacity(chunks.size());
+		char[] skeleton = input.toCharArray();
+		try {
+			for (final int[] chunk : chunks) {
+				Arrays.fill(skeleton, chunk[1], chunk[2], ' ');
+				futures.add(executor.submit(new Callable<Source>() {
+					@Override public Source call() {
+						Source member = createPartSource(input.substring(chunk[1], chunk[2]), parts);
+						member.parseMemberChunk(false);
+						return member;
+					}
+				}));
+			}
+			
+			Source outline = createPartSource(new String(skeleton), parts);
+			outline.parseCompilationUnit();
+			if (findAbort(outline.problems) != null) {
+				/* The members are blanked out in the outline, so its positions are those of the source. */
+				nodes = outline.nodes;
+				comments = outline.comments;
+				problems = outline.problems;
+				parsingResult = null;
+				parsed = true;
+				return true;
+			}
+			if (!outline.problems.isEmpty() || outline.nodes.size() != 1) return false;
+			
+			final Map<Integer, NormalTypeBody> bodies = Maps.newHashMap();
+			outline.nodes.get(0).accept(new ForwardingAstVisitor() {
+				@Override public boolean visitNormalTypeBody(NormalTypeBody node) {
+					if (node.getParent() instanceof TypeDeclaration && node.getParent().getParent() instanceof CompilationUnit) {
+						bodies.put(node.getPosition().getStart(), node);
+					}
+					return true;
+				}
+			});
+			
+			List<Source> members = Lists.newArrayListWithCapacity(chunks.size());
+			for (int i = 0; i < chunks.size(); i++) {
+				int[] chunk = chunks.get(i);
+				if (!bodies.containsKey(chunk[0])) return false;
+				Source member = futures.get(i).get();
+				boolean clean = member.problems.isEmpty() && member.nodes.size() == 1 && member.nodes.get(0) instanceof TypeMember;
+				if (!clean && recover && findAbort(member.problems) == null) {
+					member = createPartSource(input.substring(chunk[1], chunk[2]), parts);
+					member.parseMemberChunk(true);
+				}
+				/* The run was aborted; the members parsed before this one are kept. */
+				if (findAbort(member.problems) != null) {
+					members.add(member);
+					break;
+				}
+				if (!clean && !recover) return false;
+				members.add(member);
+			}
+			
+			List<Comment> allComments = Lists.newArrayList(outline.comments);
+			List<ParseProblem> allProblems = Lists.newArrayList();
+			Set<Node> shifted = Sets.newIdentityHashSet();
+			for (int i = 0; i < members.size(); i++) {
+				Source member = members.get(i);
+				int start = chunks.get(i)[1];
+				for (ParseProblem problem : member.problems) {
+					Position p = problem.getPosition();
+					if (problem instanceof ParseAbortedProblem) {
+						ParseAbortedProblem.Reason reason = ((ParseAbortedProblem) problem).getReason();
+						allProblems.add(new ParseAbortedProblem(new Position(p.getStart() + start, rawInput.length()), reason, problem.getMessage()));
+					} else {
+						allProblems.add(new ParseProblem(new Position(p.getStart() + start, p.getEnd() + start), problem.getMessage()));
+					}
+				}
+				for (Comment comment : member.comments) {
+					Position p = comment.getPosition();
+					if (!p.isUnplaced() && shifted.add(comment)) comment.setPosition(new Position(p.getStart() + start, p.getEnd() + start));
+					allComments.add(comment);
+				}
+				/* Error recovery may not have salvaged a member at all. */
+				if (member.nodes.size() != 1 || !(member.nodes.get(0) instanceof TypeMember)) continue;
+				shiftPositions(member.nodes.get(0), null, 0, start, shifted);
+				bodies.get(chunks.get(i)[0]).rawMembers().addToEnd(member.nodes.get(0));
+			}
+			Collections.sort(allComments, new Comparator<Comment>() {
+				@Override public int compare(Comment a, Comment b) {
+					return a.getPosition().getStart() - b.getPosition().getStart();
+				}
+			});
+			
+			nodes = outline.nodes;
+			comments = Collections.unmodifiableList(allComments);
+			problems = Collections.unmodifiableList(allProblems);
+			parsingResult = null;
+			parsed = true;
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw Throwables.propagate(e);
+		} catch (ExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		} finally {
+			/* Members that are still being parsed abort at their next checkpoint. */
+			parts.cancel();
+			for (Future<Source> future : futures) future.cancel(true);
+			/* If this didn't work out, the run goes on with a sequential parse. */
+			if (parsed) limits.endRun();
 		}
+	}
+	
+	/**
+	 * Creates a source for a part of this one that is parsed as part of the same run, within the same {@code limits}.
+	 */
+	private Source createPartSource(String part, ParseLimits limits) {
+		Source sub = createSubSource(part);
+		sub.limits = limits;
+		sub.ownsLimits = false;
+		return sub;
+	}
+	
+	private static ParseAbortedProblem findAbort(List<ParseProblem> problems) {
+		for (ParseProblem problem : problems) if (problem instanceof ParseAbortedProblem) return (ParseAbortedProblem) problem;
+		return null;
+	}
+	
+	/**
+	 * Creates a source for part of this one, with the same settings. It reports positions relative to the part.
+	 */
+	private Source createSubSource(String part) {
+		Source sub = new Source(part, name);
+		sub.setMemoizing(memoizing);
+		sub.setFastPath(fastPath);
+		sub.setDispatching(dispatching);
+		sub.setDeadline(deadline);
+		sub.setStepBudget(stepBudget);
+		sub.setIdentifierInterner(identifierInterner);
+		sub.setParseTreeRetention(ParseTreeRetention.DISCARD);
+		return sub;
+	}
+	
+	/**
+	 * Splits the bodies of the top-level types into ranges that each hold a single member, along with the whitespace and comments in front of it.
+	 * A member ends at a semicolon or a closing brace directly in the body, unless that brace is followed by something that can't start a member,
+	 * as with anonymous classes and array initializers. Enum and annotation type bodies are not split. Anything this gets wrong shows up as a
+	 * range that doesn't parse as a member.
+	 * 
+	 * @return For each range, the position of the opening brace of its body, and its start and end.
+	 */
+	private static List<int[]> findMemberChunks(String in) {
+		List<int[]> chunks = Lists.newArrayList();
+		int depth = 0, headerStart = 0, bodyStart = -1, chunkStart = -1;
+		boolean splitting = false;
+		
+		for (int i = 0; i < in.length(); i++) {
+			char c = in.charAt(i);
+			switch (c) {
+			case '/':
+				i = skipComment(in, i) - 1;
+				break;
+			case '"':
+			case '\'':
+				for (i++; i < in.length(); i++) {
+					char d = in.charAt(i);
+					if (d == '\\') i++;
+					else if (d == c || d == '\n' || d == '\r') break;
+				}
+				break;
+			case '{':
+				if (depth++ > 0) break;
+				bodyStart = i;
+				chunkStart = i + 1;
+				splitting = !containsWord(in, headerStart, i, "enum") && !containsWord(in, headerStart, i, "interface", '@');
+				break;
+			case '}':
+				if (depth == 0) return Collections.emptyList();
+				if (--depth == 0) {
+					/* Trailing whitespace and comments go with the last member. */
+					int[] last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+					if (last != null && last[0] == bodyStart) last[2] = i;
+					headerStart = i + 1;
+				} else if (depth == 1 && splitting && startsMember(in, skipWhitespaceAndComments(in, i + 1))) {
+					chunks.add(new int[] {bodyStart, chunkStart, i + 1});
+					chunkStart = i + 1;
+				}
+				break;
+			case ';':
+				if (depth == 0) {
+					headerStart = i + 1;
+				} else if (depth == 1 && splitting) {
+					chunks.add(new int[] {bodyStart, chunkStart, i + 1});
+					chunkStart = i + 1;
+				}
+				break;
+			}
+		}
+		
+		return depth == 0 ? chunks : Collections.<int[]>emptyList();
+	}
+	
+	private static int skipComment(String in, int i) {
+		if (i + 1 >= in.length()) return i + 1;
+		if (in.charAt(i + 1) == '/') {
+			while (i < in.length() && in.charAt(i) != '\n' && in.charAt(i) != '\r') i++;
+			return i;
+		}
+		if (in.charAt(i + 1) == '*') {
+			int commentEnd = in.indexOf("*/", i + 2);
+			return commentEnd == -1 ? in.length() : commentEnd + 2;
+		}
+		return i + 1;
+	}
+	
+	private static int skipWhitespaceAndComments(String in, int i) {
+		while (i < in.length()) {
+			char c = in.charAt(i);
+			if (Character.isWhitespace(c)) i++;
+			else if (c == '/' && i + 1 < in.length() && (in.charAt(i + 1) == '/' || in.charAt(i + 1) == '*')) i = skipComment(in, i);
+			else break;
+		}
+		return i;
+	}
+	
+	private static boolean startsMember(String in, int i) {
+		if (i >= in.length()) return true;
+		char c = in.charAt(i);
+		return c == '}' || c == '{' || c == '@' || c == '<' || Character.isJavaIdentifierStart(c);
+	}
+	
+	private static boolean containsWord(String in, int from, int to, String word) {
+		return containsWord(in, from, to, word, (char) 0);
+	}
+	
+	/**
+	 * Looks for {@code word} as a whole word in {@code in} between {@code from} and {@code to}, preceded by {@code prefix} and optionally
+	 * whitespace if {@code prefix} is not 0. Comments are not skipped; a match in a comment only means a body isn't split.
+	 */
+	private static boolean containsWord(String in, int from, int to, String word, char prefix) {
+		for (int i = in.indexOf(word, from); i != -1 && i + word.length() <= to; i = in.indexOf(word, i + 1)) {
+			if (i > 0 && Character.isJavaIdentifierPart(in.charAt(i - 1))) continue;
+			if (i + word.length() < in.length() && Character.isJavaIdentifierPart(in.charAt(i + word.length()))) continue;
+			if (prefix == 0) return true;
+			int p = i - 1;
+			while (p >= from && Character.isWhitespace(in.charAt(p))) p--;
+			if (p >= from && in.charAt(p) == prefix) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Runs {@code rule}, which must come from this thread's grammar, over the preprocessed input.
+	 */
+	private ParsingResult<Node> runParser(Rule rule) {
+		return runParser(rule, memoizing || fastPath, true);
+	}
+	
+	/**
+	 * Runs {@code rule} without error recovery first if {@code firstPass} is set, and then with error recovery, unless the first pass matched
+	 * or {@code recover} isn't set.
+	 */
+	private ParsingResult<Node> runParser(Rule rule, boolean firstPass, boolean recover) {
+		ParserGroup group = bindGrammar();
+		enforcingLimits = true;
+		try {
+			if (firstPass) {
+				ParsingResult<Node> result = memoizing ?
+						new MemoizingParseRunner<Node>(rule, preprocessed).run() :
+						new BasicParseRunner<Node>(rule, preprocessed).run();
+				if (result.matched || !recover) return result;
+			}
+			/*
+			 * Parse with a runner that recovers from errors, so the errors are reported properly. Error recovery edits the
+			 * input buffer, which puts the lexer's positions out of place, so from here on the grammar can't use them.
+			 */
+			lexer = null;
+			/* Recovery is far slower per step than the first pass, so the clock is read again on its very first checkpoint. */
+			steps = 0;
+			return RecoveringParseRunner.run(rule, preprocessed);
+		} catch (RuntimeException e) {
+			/* Parboiled wraps whatever is thrown by a matcher. */
+			for (Throwable cause : Throwables.getCausalChain(e)) {
+				if (!(cause instanceof ParseAbortedException)) continue;
+				ParseAbortedException aborted = (ParseAbortedException) cause;
+				int start = mapPosition(Math.min(aborted.position, preprocessed.length()));
+				problems.add(new ParseAbortedProblem(new Position(start, rawInput.length()), aborted.reason, aborted.getMessage()));
+				if (aborted.partialResult != null) keepPartialResult(aborted.partialResult, aborted.position);
+				return null;
+			}
+			throw e;
+		} finally {
+			enforcingLimits = false;
+			if (ownsLimits) limits.endRun();
+			group.bind(null);
+		}
+	}
+	
+	/**
+	 * Aborts the parse run that is in progress, or if there is none, the next one. Unlike everything else in this class,
+	 * this method may be called from any thread. The aborted run reports a {@link ParseAbortedProblem}. This includes the parts
+	 * of the source that are being parsed on the {@link #setMemberExecutor(ExecutorService) member executor}.
+	 */
+	public void cancel() {
+		limits.cancel();
+	}
+	
+	String internIdentifier(String text) {
+		return identifierInterner == null ? text : identifierInterner.intern(text);
+	}
+	
+	/**
+	 * Called by the grammar as it goes; aborts the parse run if it has been cancelled, or has run out of time or steps.
+	 */
+	void checkpoint(Context<Node> context) {
+		if (!enforcingLimits) return;
+		if (limits.isCancelled()) throw abort(context, ParseAbortedProblem.Reason.CANCELLED, "Parsing was cancelled.");
+		steps++;
+		/* The step count is shared with the parts of this run that are parsed on other threads, so we only keep it when it's needed. */
+		if (stepBudget > 0 && limits.step() > stepBudget) {
+			throw abort(context, ParseAbortedProblem.Reason.STEP_BUDGET, "Parsing took more than " + stepBudget + " steps.");
+		}
+		/* Reading the clock is relatively expensive, so we only do so every so many steps. */
+		if (deadline > 0 && (steps & 0x3FF) == 1 && System.currentTimeMillis() > deadline) {
+			throw abort(context, ParseAbortedProblem.Reason.DEADLINE, "Parsing didn't finish before its deadline.");
+		}
+	}
+	
+	private ParseAbortedException abort(Context<Node> context, ParseAbortedProblem.Reason reason, String message) {
+		return new ParseAbortedException(reason, context.getCurrentIndex(), salvagePartialUnit(context), message);
+	}
+	
+	private static class ParseAbortedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		final ParseAbortedProblem.Reason reason;
+		final int position;
+		final transient Node partialResult;
+		
+		ParseAbortedException(ParseAbortedProblem.Reason reason, int position, Node partialResult, String message) {
+			super(message);
+			this.reason = reason;
+			this.position = position;
+			this.partialResult = partialResult;
+		}
+	}
+	
+	private static final List<String> TYPE_DECLARATION_RULES = Arrays.asList("classOrInterfaceDeclaration", "enumDeclaration", "annotationDeclaration");
+	
+	/**
+	 * Builds a compilation unit out of what the grammar had finished when a parse run was aborted at {@code context}: the package declaration,
+	 * the imports and type declarations that were complete, and of the top-level type that was being parsed, its modifiers, name and the members
+	 * that were complete. Returns {@code null} if the run wasn't parsing a compilation unit.
+	 */
+	private Node salvagePartialUnit(Context<Node> context) {
+		List<Context<Node>> running = Lists.newArrayList();
+		for (Context<Node> c = context; c != null; c = c.getParent()) running.add(0, c);
+		int unitAt = indexOfRule(running, 0, Collections.singletonList("compilationUnit"));
+		if (unitAt == -1) return null;
+		int end = context.getCurrentIndex();
 		
-		if (parsingResult.parseTreeRoot != null) {
-			nodes.add(parsingResult.parseTreeRoot.getValue());
-			gatherComments(parsingResult.parseTreeRoot);
+		CompilationUnit unit = new CompilationUnit();
+		unit.setPosition(new Position(running.get(unitAt).getStartIndex(), end));
+		for (org.parboiled.Node<Node> pNode : running.get(unitAt).getSubNodes()) {
+			if ("package".equals(pNode.getLabel())) unit.rawPackageDeclaration(pNode.getValue());
+			if ("imports".equals(pNode.getLabel())) for (Node n : values(pNode.getChildren(), "import")) unit.rawImportDeclarations().addToEnd(n);
+			if ("types".equals(pNode.getLabel())) for (Node n : values(pNode.getChildren(), "type")) unit.rawTypeDeclarations().addToEnd(n);
 		}
+		if (unitAt + 1 == running.size()) return unit;
+		
+		Context<Node> inProgress = running.get(unitAt + 1);
+		String label = inProgress.getMatcher().getLabel();
+		if ("imports".equals(label)) for (Node n : values(inProgress.getSubNodes(), "import")) unit.rawImportDeclarations().addToEnd(n);
+		if ("types".equals(label)) {
+			for (Node n : values(inProgress.getSubNodes(), "type")) unit.rawTypeDeclarations().addToEnd(n);
+			Node type = salvagePartialType(running, unitAt + 2, end);
+			if (type != null) unit.rawTypeDeclarations().addToEnd(type);
+		}
+		return unit;
+	}
+	
+	private Node salvagePartialType(List<Context<Node>> running, int from, int end) {
+		int declarationAt = indexOfRule(running, from, TYPE_DECLARATION_RULES);
+		if (declarationAt == -1) return null;
+		Context<Node> declaration = running.get(declarationAt);
+		String rule = declaration.getMatcher().getLabel();
+		Node modifiers = null, name = null;
+		String kind = null;
+		int bodyStart = -1;
+		for (org.parboiled.Node<Node> pNode : declaration.getSubNodes()) {
+			String label = pNode.getLabel();
+			if ("modifiers".equals(label)) modifiers = pNode.getValue();
+			if ("kind".equals(label)) kind = preprocessed.substring(pNode.getStartIndex(), pNode.getEndIndex());
+			if ("typeName".equals(label) || "name".equals(label)) name = pNode.getValue();
+			if ("typeOpen".equals(label)) bodyStart = pNode.getStartIndex();
+		}
+		/* Without its name there's nothing worth keeping of a type. */
+		if (!(name instanceof Identifier)) return null;
+		Context<Node> bodyInProgress = null;
+		if (declarationAt + 1 < running.size() && "body".equals(running.get(declarationAt + 1).getMatcher().getLabel())) {
+			bodyInProgress = running.get(declarationAt + 1);
+			bodyStart = bodyInProgress.getStartIndex();
+		}
+		
+		TypeBody body = null;
+		if (bodyStart != -1) {
+			body = rule.equals("enumDeclaration") ? new EnumTypeBody() : new NormalTypeBody();
+			body.setPosition(new Position(bodyStart, end));
+			int membersAt = indexOfRule(running, declarationAt + 1, Collections.singletonList("members"));
+			if (membersAt != -1) for (Node n : values(running.get(membersAt).getSubNodes(), "member")) body.rawMembers().addToEnd(n);
+			/* If the run was aborted after the members, in the whitespace after the closing brace, the body's declarations are already complete. */
+			if (membersAt == -1 && bodyInProgress != null) for (Node n : values(bodyInProgress.getSubNodes(), "typeBodyDeclarations")) {
+				if (n instanceof TypeBody) body.rawMembers().migrateAllFrom(((TypeBody) n).rawMembers());
+			}
+		}
+		
+		Node result;
+		if (rule.equals("enumDeclaration")) {
+			EnumDeclaration decl = new EnumDeclaration().astName((Identifier) name).rawBody(body);
+			if (modifiers instanceof Modifiers) decl.astModifiers((Modifiers) modifiers);
+			result = decl;
+		} else if (rule.equals("annotationDeclaration")) {
+			AnnotationDeclaration decl = new AnnotationDeclaration().astName((Identifier) name).rawBody(body);
+			if (modifiers instanceof Modifiers) decl.astModifiers((Modifiers) modifiers);
+			result = decl;
+		} else if ("interface".equals(kind)) {
+			InterfaceDeclaration decl = new InterfaceDeclaration().astName((Identifier) name).rawBody(body);
+			if (modifiers instanceof Modifiers) decl.astModifiers((Modifiers) modifiers);
+			result = decl;
+		} else {
+			ClassDeclaration decl = new ClassDeclaration().astName((Identifier) name).rawBody(body);
+			if (modifiers instanceof Modifiers) decl.astModifiers((Modifiers) modifiers);
+			result = decl;
+		}
+		result.setPosition(new Position(declaration.getStartIndex(), end));
+		return result;
+	}
+	
+	private static int indexOfRule(List<Context<Node>> running, int from, List<String> labels) {
+		for (int i = from; i < running.size(); i++) {
+			if (labels.contains(running.get(i).getMatcher().getLabel())) return i;
+		}
+		return -1;
+	}
+	
+	private static List<Node> values(List<org.parboiled.Node<Node>> pNodes, String label) {
+		List<Node> values = Lists.newArrayList();
+		for (org.parboiled.Node<Node> pNode : pNodes) {
+			if (label.equals(pNode.getLabel()) && pNode.getValue() != null) values.add(pNode.getValue());
+		}
+		return values;
+	}
+	
+	/**
+	 * Adds the partial result of an aborted parse run, and the comments that come before the point where it was aborted.
+	 */
+	private void keepPartialResult(Node partialResult, int position) {
+		nodes.add(partialResult);
+		JavaLexer comments = lexer != null ? lexer : new JavaLexer(preprocessed);
+		for (int i = 0; i < comments.commentCount() && comments.commentEnd(i) <= position; i++) {
+			int start = comments.commentStart(i), end = comments.commentEnd(i);
+			this.comments.add(BasicsActions.createComment(comments.text(start, end), start, end));
+		}
+	}
+	
+	/**
+	 * Fetches this thread's grammar and binds it to this source. Callers must unbind it again in a {@code finally} block.
+	 */
+	private ParserGroup bindGrammar() {
+		ParserGroup group = ParserGroup.forCurrentThread();
+		group.bind(this);
+		return group;
+	}
+	
+	private void postProcess() {
+		/* An aborted parse run leaves no parsing result, only what was kept of it. */
+		if (parsingResult != null) {
+			for (ParseError error : parsingResult.parseErrors) {
+				int errStart = error.getStartIndex();
+				int errEnd = error.getEndIndex();
+				problems.add(new ParseProblem(new Position(mapPosition(errStart), mapPosition(errEnd)), error.toString()));
+			}
+			
+			if (parsingResult.parseTreeRoot != null) {
+				nodes.add(parsingResult.parseTreeRoot.getValue());
+				gatherComments(parsingResult.parseTreeRoot);
+			}
+		}
+		registeredComments.clear();
 		
 		comments = Collections.unmodifiableList(comments);
 		nodes = Collections.unmodifiableList(nodes);
 		problems = Collections.unmodifiableList(problems);
 		
-		rtrimPositions(nodes, comments);
-		
 		//TODO Write test case with javadoc intermixed with empty declares.
 		//TODO test javadoc on a package declaration.
 		//TODO javadoc in between keywords.
 		
-		associateJavadoc(comments, nodes);
+		finishPositions(nodes, comments);
 		
-		fixPositions(nodes);
-		fixPositions(comments);
+		installLazyBodyLoaders();
+		
+		if (structuresRequested || parseTreeRetention == ParseTreeRetention.EAGER_STRUCTURES) {
+			cachedSourceStructures = collectSourceStructures();
+		}
+		if (parseTreeRetention != ParseTreeRetention.RETAIN) {
+			parsingResult = null;
+			registeredStructures.clear();
+		}
 		
 		parsed = true;
 	}
@@ -208,48 +883,41 @@ public class Source {
 	
 	public Map<Node, Collection<StructuralElement>> getSourceStructures() {
 		if (cachedSourceStructures != null) return cachedSourceStructures;
-		parseCompilationUnit();
-		ListMultimap<Node, StructuralElement> map = LinkedListMultimap.create();
+		/* An incremental edit or a discarded parse tree leaves us without a parse tree to build structures from. */
+		if (parsed && parsingResult == null) clear();
+		if (parsed) return cachedSourceStructures = collectSourceStructures();
 		
-		org.parboiled.Node<Node> pNode = parsingResult.parseTreeRoot;
-		
-		buildSourceStructures(pNode, null, map);
-		
-		Map<Node, Collection<StructuralElement>> result = map.asMap();
-		
-		for (Collection<StructuralElement> structures : result.values()) {
-			for (StructuralElement structure : structures) {
-				((SourceStructure) structure).setPosition(new Position(
-						mapPosition(structure.getPosition().getStart()),
-						mapPosition(structure.getPosition().getEnd())));
-			}
+		structuresRequested = true;
+		try {
+			parseCompilationUnit();
+		} finally {
+			structuresRequested = false;
 		}
-		return cachedSourceStructures = result;
+		return cachedSourceStructures;
 	}
 	
-	private void addSourceStructure(ListMultimap<Node, StructuralElement> map, Node node, SourceStructure structure) {
-		if (structure.getPosition().size() > 0 && structure.getContent().trim().length() > 0 &&
-				!structure.getPosition().equals(node.getPosition())) {
-			
-			map.put(node, structure);
-		}
+	private Map<Node, Collection<StructuralElement>> collectSourceStructures() {
+		SourceStructures.Builder structures = new SourceStructures.Builder(preprocessed, positionIndex);
+		
+		org.parboiled.Node<Node> pNode = parsingResult == null ? null : parsingResult.parseTreeRoot;
+		
+		if (pNode != null) buildSourceStructures(pNode, null, structures);
+		
+		return structures.build();
 	}
 	
-	private void buildSourceStructures(org.parboiled.Node<Node> pNode, Node owner, ListMultimap<Node, StructuralElement> map) {
+	private void buildSourceStructures(org.parboiled.Node<Node> pNode, Node owner, SourceStructures.Builder structures) {
 		Node target = registeredStructures.remove(pNode);
 		if (target != null || pNode.getChildren().isEmpty()) {
 			int start = pNode.getStartIndex();
 			int end = pNode.getEndIndex();
-			String text = preprocessed.substring(start, end);
-			SourceStructure structure = new SourceStructure(new Position(start, end), text);
-			if (target != null) addSourceStructure(map, target, structure);
-			else if (pNode.getValue() != null && !(pNode.getValue() instanceof TemporaryNode)) addSourceStructure(map, pNode.getValue(), structure);
-			else if (owner != null) addSourceStructure(map, owner, structure);
+			if (target != null) structures.add(target, start, end);
+			else if (pNode.getValue() != null) structures.add(pNode.getValue(), start, end);
+			else if (owner != null) structures.add(owner, start, end);
 		} else {
 			Node possibleOwner = pNode.getValue();
-			if (possibleOwner instanceof TemporaryNode) possibleOwner = null;
 			for (org.parboiled.Node<Node> child : pNode.getChildren()) {
-				if (child.getValue() == null || child.getValue() instanceof TemporaryNode) continue;
+				if (child.getValue() == null) continue;
 				/* If the next if holds true, then we aren't the true generator; the child generated the node and this pNode adopted it */
 				if (child.getValue() == possibleOwner) possibleOwner = null;
 			}
@@ -257,114 +925,161 @@ public class Source {
 			if (possibleOwner != null) owner = possibleOwner;
 			
 			for (org.parboiled.Node<Node> child : pNode.getChildren()) {
-				buildSourceStructures(child, owner, map);
+				buildSourceStructures(child, owner, structures);
 			}
 		}
 	}
 	
 	/**
+	 * Brings the positions of all nodes and comments into their final form and associates javadoc comments, in a single walk over the tree.
+	 * 
 	 * The end positions of all nodes include their trailing whitespace which isn't very convenient.
 	 * We'll 'fix' the end marker of each node by trimming it back. This is somewhat complicated as comments also need to be trimmed across.
-	 * We also adjust all positions to conform with the raw input (undoing any positional shifts caused by preprocessing).
+	 * Javadoc comments are associated to the node they belong to, by checking if the node that immediately follows a javadoc node is a JavadocContainer;
+	 * this is decided on the trimmed positions.
+	 * Finally we adjust all positions to conform with the raw input (undoing any positional shifts caused by preprocessing),
+	 * once a node's children are done, as a child that matched nothing is placed within the trimmed position of its parent.
 	 */
-	private void rtrimPositions(List<Node> nodes, List<Comment> comments) {
-		final boolean[] whitespace = new boolean[preprocessed.length()];
+	private void finishPositions(List<Node> nodes, List<Comment> comments) {
+		final int[] commentStarts = new int[comments.size()];
+		final int[] commentEnds = new int[comments.size()];
+		int placed = 0;
+		final List<Comment> javadocs = Lists.newArrayList();
 		for (Comment comment : comments) {
+			if (comment.isJavadoc()) javadocs.add(comment);
 			Position p = comment.getPosition();
-			if (!p.isUnplaced()) {
-				for (int i = p.getStart(); i < p.getEnd(); i++) whitespace[i] = true;
-			}
+			if (p.isUnplaced()) continue;
+			commentStarts[placed] = p.getStart();
+			commentEnds[placed] = p.getEnd();
+			placed++;
 		}
+		/* Comments never overlap, so sorting starts and ends separately keeps them paired up. */
+		Arrays.sort(commentStarts, 0, placed);
+		Arrays.sort(commentEnds, 0, placed);
+		final int commentCount = placed;
 		
-		/* Process actual whitespace in preprocessed source data */ {
-			char[] chars = preprocessed.toCharArray();
-			for (int i = 0; i < chars.length; i++) if (Character.isWhitespace(chars[i])) whitespace[i] = true;
-		}
+		final JavadocTargets targets = new JavadocTargets(javadocs);
+		final boolean mapPositions = positionIndex.hasDeltas();
 		
 		for (Node node : nodes) node.accept(new ForwardingAstVisitor() {
 			@Override public boolean visitNode(Node node) {
 				Position p = node.getPosition();
-				if (p.isUnplaced()) return false;
-				
-				int trimmed = Math.min(whitespace.length, p.getEnd());
-				while (trimmed > 0 && whitespace[trimmed-1]) trimmed--;
-				
-				int start, end;
-				
-				if (p.getEnd() - p.getStart() == 0) {
-					if (node.getParent() != null) {
-						start = Math.min(node.getParent().getPosition().getEnd(), Math.max(node.getParent().getPosition().getStart(), p.getStart()));
-						end = start;
+				if (!p.isUnplaced()) {
+					int start, end;
+					
+					if (p.getEnd() - p.getStart() == 0) {
+						if (node.getParent() != null) {
+							start = Math.min(node.getParent().getPosition().getEnd(), Math.max(node.getParent().getPosition().getStart(), p.getStart()));
+							end = start;
+						} else {
+							start = p.getStart();
+							end = start;
+						}
 					} else {
 						start = p.getStart();
-						end = start;
+						end = Math.max(trimmedEnd(p.getEnd(), commentStarts, commentEnds, commentCount), start);
 					}
-				} else {
-					start = p.getStart();
-					end = Math.max(trimmed, start);
+					
+					if (start != p.getStart() || end != p.getEnd()) node.setPosition(new Position(start, end));
 				}
 				
-				node.setPosition(new Position(start, end));
-				
+				if (!node.isGenerated()) targets.offer(node, node.getPosition().getStart());
 				return false;
 			}
+			
+			@Override public void endVisit(Node node) {
+				if (mapPositions) mapPositions(node);
+			}
 		});
+		
+		targets.associate();
+		
+		if (mapPositions) for (Comment comment : comments) mapPositions(comment);
 	}
 	
-	private void fixPositions(List<? extends Node> nodes) {
-		for (Node node : nodes) node.accept(new ForwardingAstVisitor() {
-			@Override public boolean visitNode(Node node) {
-				Position p = node.getPosition();
-				if (!p.isUnplaced()) {
-					node.setPosition(new Position(mapPosition(p.getStart()), mapPosition(p.getEnd())));
-				}
-				if (node instanceof Expression) {
-					List<Position> list = ((Expression)node).astParensPositions();
-					if (list != null) {
-						ListIterator<Position> li = list.listIterator();
-						while (li.hasNext()) {
-							Position parenPos = li.next();
-							if (!parenPos.isUnplaced()) {
-								parenPos = new Position(mapPosition(parenPos.getStart()), mapPosition(parenPos.getEnd()));
-								li.set(parenPos);
-							}
-						}
+	/**
+	 * Returns {@code end} moved back past any whitespace and comments that precede it.
+	 */
+	private int trimmedEnd(int end, int[] commentStarts, int[] commentEnds, int commentCount) {
+		int trimmed = Math.min(preprocessed.length(), end);
+		while (trimmed > 0) {
+			if (Character.isWhitespace(preprocessed.charAt(trimmed - 1))) {
+				trimmed--;
+				continue;
+			}
+			int slot = Arrays.binarySearch(commentStarts, 0, commentCount, trimmed - 1);
+			if (slot < 0) slot = -slot - 2;
+			if (slot < 0 || commentEnds[slot] < trimmed) break;
+			trimmed = commentStarts[slot];
+		}
+		return trimmed;
+	}
+	
+	private void mapPositions(Node node) {
+		Position p = node.getPosition();
+		if (!p.isUnplaced()) {
+			node.setPosition(new Position(mapPosition(p.getStart()), mapPosition(p.getEnd())));
+		}
+		if (node instanceof Expression) {
+			List<Position> list = ((Expression)node).astParensPositions();
+			if (list != null) {
+				ListIterator<Position> li = list.listIterator();
+				while (li.hasNext()) {
+					Position parenPos = li.next();
+					if (!parenPos.isUnplaced()) {
+						parenPos = new Position(mapPosition(parenPos.getStart()), mapPosition(parenPos.getEnd()));
+						li.set(parenPos);
 					}
 				}
-				return false;
 			}
-		});
+		}
 	}
 	
 	/**
-	 * Associates comments that are javadocs to the node they belong to, by checking if the node that immediately follows a javadoc node is a JavadocContainer.
+	 * For each javadoc comment, tracks the node that starts closest after the comment's end. Of several nodes that start at the same
+	 * position, the first JavadocContainer wins; if there is none, the last node wins.
 	 */
-	private void associateJavadoc(List<Comment> comments, List<Node> nodes) {
-		final TreeMap<Integer, Node> startPosMap = Maps.newTreeMap();
-		for (Node node : nodes) node.accept(new ForwardingAstVisitor() {
-			@Override public boolean visitNode(Node node) {
-				if (node.isGenerated()) return false;
-				int startPos = node.getPosition().getStart();
-				Node current = startPosMap.get(startPos);
-				if (current == null || !(current instanceof JavadocContainer)) {
-					startPosMap.put(startPos, node);
+	private static class JavadocTargets {
+		private final Comment[] javadocs;
+		private final int[] ends, bestStarts;
+		private final Node[] bestNodes;
+		
+		JavadocTargets(List<Comment> javadocs) {
+			this.javadocs = javadocs.toArray(new Comment[javadocs.size()]);
+			Arrays.sort(this.javadocs, new Comparator<Comment>() {
+				@Override public int compare(Comment a, Comment b) {
+					return Ints.compare(a.getPosition().getEnd(), b.getPosition().getEnd());
+				}
+			});
+			ends = new int[this.javadocs.length];
+			for (int i = 0; i < ends.length; i++) ends[i] = this.javadocs[i].getPosition().getEnd();
+			bestStarts = new int[ends.length];
+			Arrays.fill(bestStarts, Integer.MAX_VALUE);
+			bestNodes = new Node[ends.length];
+		}
+		
+		void offer(Node node, int start) {
+			if (ends.length == 0) return;
+			int slot = Arrays.binarySearch(ends, start);
+			if (slot < 0) slot = -slot - 2;
+			/* A javadoc comment that ends later can never have a closer node than one that ends earlier, so we can stop at the first one that does. */
+			for (int i = slot; i >= 0 && bestStarts[i] >= start; i--) {
+				if (bestStarts[i] > start || !(bestNodes[i] instanceof JavadocContainer)) {
+					bestStarts[i] = start;
+					bestNodes[i] = node;
 				}
-				
-				return false;
 			}
-		});
+		}
 		
-		for (Comment comment : comments) {
-			if (!comment.isJavadoc()) continue;
-			Map<Integer, Node> tailMap = startPosMap.tailMap(comment.getPosition().getEnd());
-			if (tailMap.isEmpty()) continue;
-			Node assoc = tailMap.values().iterator().next();
-			if (!(assoc instanceof JavadocContainer)) continue;
-			JavadocContainer jc = (JavadocContainer) assoc;
-			if (jc.rawJavadoc() != null) {
-				if (jc.rawJavadoc().getPosition().getEnd() >= comment.getPosition().getEnd()) continue;
+		void associate() {
+			for (int i = 0; i < javadocs.length; i++) {
+				if (!(bestNodes[i] instanceof JavadocContainer)) continue;
+				JavadocContainer jc = (JavadocContainer) bestNodes[i];
+				if (jc.rawJavadoc() != null) {
+					if (jc.rawJavadoc().getPosition().getEnd() >= ends[i]) continue;
+				}
+				jc.rawJavadoc(javadocs[i]);
 			}
-			jc.rawJavadoc(comment);
 		}
 	}
 	
@@ -377,6 +1092,23 @@ public class Source {
 		list.add(c);
 	}
 	
+	void registerComment(org.parboiled.Node<Node> pNode, Comment c) {
+		List<Comment> list = registeredComments.get(pNode);
+		if (list == null) {
+			list = Lists.newArrayList();
+			registeredComments.put(pNode, list);
+		}
+		list.add(c);
+	}
+	
+	/**
+	 * Returns the whitespace and comment runs of the preprocessed source, or {@code null} if the grammar can't rely on them
+	 * for the current parse run.
+	 */
+	JavaLexer getLexer() {
+		return lexer;
+	}
+	
 	/**
 	 * Delves through the parboiled node tree to find comments.
 	 */
@@ -387,36 +1119,266 @@ public class Source {
 		}
 		
 		List<Comment> cmts = registeredComments.get(parsed);
-		if (cmts != null) for (Comment c : cmts) {
-			comments.add(c);
+		if (cmts != null && !cmts.isEmpty()) {
+			comments.addAll(cmts);
 			return true;
 		}
 		
 		return foundComments;
 	}
 	
-	private void setPositionDelta(int position, int delta) {
-		Integer i = positionDeltas.get(position);
-		if (i == null) i = 0;
-		positionDeltas.put(position, i + delta);
+	/**
+	 * Replaces {@code removedLength} characters at {@code offset} in the raw input with {@code insertedText}, and brings the parse results up to date.
+	 * 
+	 * If this source has been parsed as a compilation unit without problems, only the smallest type member or block that strictly encloses the edit
+	 * is reparsed. The new subtree is spliced into the existing tree, and the positions of all nodes and comments that follow the edit are shifted.
+	 * If that isn't possible, for example because the edited fragment no longer parses on its own, the parse results are discarded instead;
+	 * they will be recalculated in full on next access.
+	 * 
+	 * Source structures are not updated incrementally. The first call to {@link #getSourceStructures()} after an incremental edit reparses the
+	 * entire source, which also replaces the nodes returned by {@link #getNodes()}.
+	 * 
+	 * @return {@code true} if the existing tree was updated in place, {@code false} if the parse results were discarded.
+	 */
+	public boolean applyEdit(int offset, int removedLength, String insertedText) {
+		if (offset < 0 || removedLength < 0 || offset + removedLength > rawInput.length()) {
+			throw new IndexOutOfBoundsException(String.format("Edit [%d, %d) is outside of source with length %d", offset, offset + removedLength, rawInput.length()));
+		}
+		if (insertedText == null) insertedText = "";
+		
+		rawInput = rawInput.substring(0, offset) + insertedText + rawInput.substring(offset + removedLength);
+		if (parsed && reparseFragment(offset, removedLength, insertedText)) return true;
+		clear();
+		return false;
 	}
 	
-	public List<Integer> getLineEndingsTable() {
-		return lineEndings;
+	private boolean reparseFragment(int offset, int removedLength, String insertedText) {
+		/* Backslash-u escapes shift positions around in ways that we can't patch up locally. */
+		if (positionIndex.hasDeltas()) return false;
+		/* Lazy body loaders hold on to positions in the old input. */
+		if (lazyBodies) return false;
+		if (!problems.isEmpty() || nodes.size() != 1 || !(nodes.get(0) instanceof CompilationUnit)) return false;
+		
+		Node target = findReparseTarget(nodes.get(0), offset, offset + removedLength);
+		if (target == null) return false;
+		
+		final int start = target.getPosition().getStart();
+		final int oldEnd = target.getPosition().getEnd();
+		final int delta = insertedText.length() - removedLength;
+		String fragment = rawInput.substring(start, oldEnd + delta);
+		
+		Source sub = createSubSource(fragment);
+		if (target instanceof Block) sub.parseStatement();
+		else sub.parseMember();
+		if (!sub.problems.isEmpty() || sub.nodes.size() != 1) return false;
+		/*
+		 * The edit may have turned text that was already there into an escape, for example by removing a character between a backslash and a 'u',
+		 * so whether there are escapes now can only be told from the reparsed fragment.
+		 */
+		if (sub.positionIndex.hasDeltas()) return false;
+		
+		Node replacement = sub.nodes.get(0);
+		if (replacement.getPosition().getStart() != 0 || replacement.getPosition().getEnd() != fragment.length()) return false;
+		if (target instanceof Block ? !(replacement instanceof Block) : !(replacement instanceof TypeMember)) return false;
+		
+		try {
+			if (!target.replace(replacement)) return false;
+		} catch (AstException e) {
+			return false;
+		}
+		
+		Set<Node> shifted = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		shiftPositions(nodes.get(0), replacement, oldEnd, delta, shifted);
+		shiftPositions(replacement, null, 0, start, shifted);
+		
+		if (target instanceof JavadocContainer && replacement instanceof JavadocContainer) {
+			Node javadoc = ((JavadocContainer) target).rawJavadoc();
+			if (javadoc != null) {
+				((JavadocContainer) target).rawJavadoc(null);
+				((JavadocContainer) replacement).rawJavadoc(javadoc);
+			}
+		}
+		
+		List<Comment> before = Lists.newArrayList(), after = Lists.newArrayList();
+		for (Comment comment : comments) {
+			Position p = comment.getPosition();
+			if (p.isUnplaced() || p.getEnd() <= start) before.add(comment);
+			else if (p.getStart() >= oldEnd) {
+				if (shifted.add(comment)) comment.setPosition(new Position(p.getStart() + delta, p.getEnd() + delta));
+				after.add(comment);
+			}
+		}
+		for (Comment comment : sub.comments) {
+			Position p = comment.getPosition();
+			if (!p.isUnplaced() && shifted.add(comment)) comment.setPosition(new Position(p.getStart() + start, p.getEnd() + start));
+			before.add(comment);
+		}
+		before.addAll(after);
+		comments = Collections.unmodifiableList(before);
+		
+		preprocessed = rawInput;
+		positionIndex = new PositionIndex(rawInput);
+		parsingResult = null;
+		registeredStructures.clear();
+		registeredComments.clear();
+		cachedSourceStructures = null;
+		return true;
 	}
 	
-	public long lineColumn(int index) {
-		//Possible efficiency improvement: Store in a list the index into the line table with the first line that's over 500, 1000, 1500, ... chars.
-		//Or just binary search.
-		int oldIdx = 0;
-		int line = 0;
+	/**
+	 * Finds the deepest block or reparseable type member whose position strictly encloses {@code [from, to)}.
+	 */
+	private static Node findReparseTarget(Node root, final int from, final int to) {
+		final Node[] found = new Node[1];
+		root.accept(new ForwardingAstVisitor() {
+			@Override public boolean visitNode(Node node) {
+				Position p = node.getPosition();
+				if (p.isUnplaced() || p.getStart() >= from || p.getEnd() <= to) return true;
+				if (node instanceof Block || isReparseableMember(node)) found[0] = node;
+				return false;
+			}
+		});
+		return found[0];
+	}
+	
+	private static boolean isReparseableMember(Node node) {
+		if (!(node instanceof TypeMember) || node instanceof EnumConstant || node instanceof AnnotationMethodDeclaration) return false;
+		return node.getParent() instanceof TypeBody || node.getParent() instanceof CompilationUnit;
+	}
+	
+	/**
+	 * Adds {@code amount} to every position at or beyond {@code threshold} in the tree rooted at {@code root}, skipping the subtree rooted at {@code skip}.
+	 * Each node that is shifted is added to {@code shifted}; nodes that are already in it are left alone.
+	 */
+	private static void shiftPositions(Node root, final Node skip, final int threshold, final int amount, final Set<Node> shifted) {
+		root.accept(new ForwardingAstVisitor() {
+			@Override public boolean visitNode(Node node) {
+				if (node == skip) return true;
+				if (!shifted.add(node)) return false;
+				Position p = node.getPosition();
+				if (!p.isUnplaced()) node.setPosition(shift(p));
+				if (node instanceof Expression) {
+					List<Position> list = ((Expression)node).astParensPositions();
+					if (list != null) {
+						ListIterator<Position> li = list.listIterator();
+						while (li.hasNext()) {
+							Position parenPos = li.next();
+							if (!parenPos.isUnplaced()) li.set(shift(parenPos));
+						}
+					}
+				}
+				return false;
+			}
+			
+			private Position shift(Position p) {
+				int start = p.getStart() >= threshold ? p.getStart() + amount : p.getStart();
+				int end = p.getEnd() >= threshold ? p.getEnd() + amount : p.getEnd();
+				return new Position(start, end);
+			}
+		});
+	}
+	
+	void registerLazyBody(Block placeholder) {
+		lazyBodyPlaceholders.add(placeholder);
+	}
+	
+	/**
+	 * Takes each lazy body placeholder out of the tree, and gives its owner a loader that parses the real body on first access.
+	 */
+	private void installLazyBodyLoaders() {
+		if (lazyBodyPlaceholders.isEmpty()) return;
+		final List<Block> found = Lists.newArrayList();
+		for (Node node : nodes) node.accept(new ForwardingAstVisitor() {
+			@Override public boolean visitNode(Node node) {
+				if (!lazyBodyPlaceholders.contains(node)) return false;
+				found.add((Block) node);
+				return true;
+			}
+		});
+		lazyBodyPlaceholders.clear();
+		
+		for (Block placeholder : found) {
+			Node owner = placeholder.getParent();
+			Position p = placeholder.getPosition();
+			owner.detach(placeholder);
+			LazyNodes.setLoader(owner, new LazyBodyLoader(rawInput, p.getStart(), p.getEnd(), generation));
+		}
+	}
+	
+	private class LazyBodyLoader implements LazyNodes.Loader {
+		private final String input;
+		private final int start, end, generation;
+		
+		LazyBodyLoader(String input, int start, int end, int generation) {
+			this.input = input;
+			this.start = start;
+			this.end = end;
+			this.generation = generation;
+		}
+		
+		@Override public void load(Node owner) {
+			Source body = createSubSource(input.substring(start, end));
+			body.parseStatement();
+			
+			Set<Node> shifted = Sets.newIdentityHashSet();
+			for (Node node : body.nodes) shiftPositions(node, null, 0, start, shifted);
+			for (Comment comment : body.comments) {
+				Position p = comment.getPosition();
+				if (!p.isUnplaced() && shifted.add(comment)) comment.setPosition(new Position(p.getStart() + start, p.getEnd() + start));
+			}
+			
+			if (body.nodes.size() == 1 && body.nodes.get(0) instanceof Block) setMemberBody(owner, (Block) body.nodes.get(0));
+			
+			/* If this source has been cleared since, the owner belongs to a tree that's no longer ours. */
+			if (generation != Source.this.generation) return;
+			
+			List<ParseProblem> bodyProblems = Lists.newArrayList();
+			for (ParseProblem problem : body.problems) {
+				Position p = problem.getPosition();
+				bodyProblems.add(new ParseProblem(new Position(p.getStart() + start, p.getEnd() + start), problem.getMessage()));
+			}
+			mergeLazyBodyResults(body.comments, bodyProblems);
+		}
+	}
+	
+	private static void setMemberBody(Node owner, Block body) {
+		if (owner instanceof MethodDeclaration) ((MethodDeclaration) owner).rawBody(body);
+		else if (owner instanceof ConstructorDeclaration) ((ConstructorDeclaration) owner).rawBody(body);
+		else if (owner instanceof InstanceInitializer) ((InstanceInitializer) owner).rawBody(body);
+		else if (owner instanceof StaticInitializer) ((StaticInitializer) owner).rawBody(body);
+	}
+	
+	private void mergeLazyBodyResults(List<Comment> bodyComments, List<ParseProblem> bodyProblems) {
+		if (!bodyComments.isEmpty()) {
+			List<Comment> merged = Lists.newArrayList(comments);
+			int bodyStart = bodyComments.get(0).getPosition().getStart();
+			int idx = 0;
+			while (idx < merged.size() && merged.get(idx).getPosition().getStart() < bodyStart) idx++;
+			merged.addAll(idx, bodyComments);
+			comments = Collections.unmodifiableList(merged);
+		}
 		
-		for (; line < lineEndings.size(); line++) {
-			int pos = lineEndings.get(line);
-			if (pos > index) break;
-			oldIdx = pos;
+		if (!bodyProblems.isEmpty()) {
+			List<ParseProblem> merged = Lists.newArrayList(problems);
+			merged.addAll(bodyProblems);
+			problems = Collections.unmodifiableList(merged);
 		}
-		return ((long) line << 32 | index - oldIdx);
+	}
+	
+	public List<Integer> getLineEndingsTable() {
+		return positionIndex.getLineEndings();
+	}
+	
+	public long lineColumn(int index) {
+		return positionIndex.lineColumn(index);
+	}
+	
+	/**
+	 * Returns the index that maps positions in this source between its raw input, its preprocessed form and line/column pairs.
+	 * It's rebuilt each time the source is parsed.
+	 */
+	public PositionIndex getPositionIndex() {
+		return positionIndex;
 	}
 	
 	/**
@@ -425,80 +1387,132 @@ public class Source {
 	 * The difference is caused by decoding backslash-U unicode escapes, for example.
 	 */
 	int mapPosition(int position) {
-		int out = position;
-		for (int delta : positionDeltas.headMap(position, true).values()) {
-			out += delta;
-		}
-		return out;
+		return positionIndex.toRaw(position);
 	}
 	
 	private String preProcess() {
 		preprocessed = rawInput;
-		this.lineEndings = calculateLineEndings();
+		positionIndex = new PositionIndex(rawInput);
+		if (ownsLimits) limits.startRun();
+		steps = 0;
 		applyBackslashU();
-//		applyBraceMatching();
+		lexer = new JavaLexer(preprocessed);
+		if (lazyBodies) applyBraceMatching();
 		return preprocessed;
 	}
 	
 	/**
-	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#3.3">JLS section 3.3</a>
+	 * Pairs up each opening brace in the preprocessed source with its closing brace, skipping over comments, string literals and character literals.
 	 */
-	private void applyBackslashU() {
-		StringBuilder buffer = new StringBuilder();
-		StringBuilder out = new StringBuilder();
+	private void applyBraceMatching() {
+		String in = preprocessed;
+		List<Integer> opens = Lists.newArrayList();
+		List<Integer> closes = Lists.newArrayList();
+		int[] stack = new int[16];
+		int depth = 0;
 		
-		int state = 0;
-		int idx = 0;
-		for (char c : preprocessed.toCharArray()) {
-			idx++;
-			switch (state) {
-			case 0:	//normal mode. Anything that isn't a backslash is not interesting.
-				if (c != '\\') {
-					out.append(c);
-					break;
+		for (int i = 0; i < in.length(); i++) {
+			char c = in.charAt(i);
+			switch (c) {
+			case '/':
+				if (i + 1 >= in.length()) break;
+				if (in.charAt(i + 1) == '/') {
+					while (i < in.length() && in.charAt(i) != '\n' && in.charAt(i) != '\r') i++;
+				} else if (in.charAt(i + 1) == '*') {
+					int commentEnd = in.indexOf("*/", i + 2);
+					i = commentEnd == -1 ? in.length() : commentEnd + 1;
 				}
-				
-				state = 1;
 				break;
-			case 1:	//Last character read is an (uneven amount of) backslash.
-				if (c != 'u') {
-					out.append('\\');
-					out.append(c);
-					state = 0;
-				} else {
-					buffer.setLength(0);
-					buffer.append("\\u");
-					state = 2;
+			case '"':
+			case '\'':
+				for (i++; i < in.length(); i++) {
+					char d = in.charAt(i);
+					if (d == '\\') i++;
+					else if (d == c || d == '\n' || d == '\r') break;
 				}
 				break;
-				//TODO add a test for more backslash-U stuff.
-			default:
-				//Gobbling hex digits. state-2 is our current position. We want 4.
-				buffer.append(c);
-				if (c == 'u') {
-					//JLS Puzzler: backslash-u-u-u-u-u-u-u-u-u-4hexdigits means the same thing as just 1 u.
-					//So, we just keep going as if nothing changed.
-				} else if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')) {
-					state++;
-					if (state == 6) {
-						//We've got our 4 hex digits.
-						out.append((char)Integer.parseInt(buffer.substring(buffer.length()-4), 0x10));
-						int delta = buffer.length() -1;	//Buffer goes away but 1 character appears in its place.
-						setPositionDelta(idx - delta, delta);
-						buffer.setLength(0);
-						//We don't have to check if this char is a backslash and set state to 1; JLS says backslash-u is not recursively applied.
-						state = 0;
-					}
-				} else {
-					//Invalid unicode escape.
-					problems.add(new ParseProblem(new Position(idx-buffer.length(), idx), "Invalid backslash-u escape: \\u is supposed to be followed by 4 hex digits."));
-					out.append(buffer.toString());
-					state = 0;
-				}
+			case '{':
+				if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+				stack[depth++] = opens.size();
+				opens.add(i);
+				closes.add(-1);
+				break;
+			case '}':
+				if (depth > 0) closes.set(stack[--depth], i);
 				break;
 			}
 		}
 		
+		braceOpens = Ints.toArray(opens);
+		braceCloses = Ints.toArray(closes);
+	}
+	
+	/**
+	 * Returns the position of the brace that closes the opening brace at {@code position}, or {@code -1} if there is no such brace
+	 * or brace matching hasn't been applied.
+	 */
+	int matchingBrace(int position) {
+		if (braceOpens == null) return -1;
+		int slot = Arrays.binarySearch(braceOpens, position);
+		return slot < 0 ? -1 : braceCloses[slot];
+	}
+	
+	/**
+	 * Decodes backslash-u escapes. Most sources contain none, in which case {@code preprocessed} remains the raw input itself.
+	 * 
+	 * @see <a href="http://java.sun.com/docs/books/jls/third_edition/html/lexical.html#3.3">JLS section 3.3</a>
+	 */
+	private void applyBackslashU() {
+		String in = preprocessed;
+		int i = in.indexOf("\\u");
+		if (i == -1) return;
+		//Start at the first of a row of backslashes, as only every other one of them can start an escape.
+		while (i > 0 && in.charAt(i - 1) == '\\') i--;
+		
+		int length = in.length();
+		StringBuilder out = new StringBuilder(length);
+		out.append(in, 0, i);
+		
+		while (i < length) {
+			char c = in.charAt(i);
+			if (c != '\\' || i + 1 == length) {
+				out.append(c);
+				i++;
+				continue;
+			}
+			
+			if (in.charAt(i + 1) != 'u') {
+				//A backslash followed by anything else, including another backslash, can't start an escape, and neither can that next character.
+				out.append(c).append(in.charAt(i + 1));
+				i += 2;
+				continue;
+			}
+			
+			//JLS Puzzler: backslash-u-u-u-u-u-u-u-u-u-4hexdigits means the same thing as just 1 u.
+			int hexStart = i + 2;
+			while (hexStart < length && in.charAt(hexStart) == 'u') hexStart++;
+			int hexEnd = hexStart;
+			while (hexEnd < length && hexEnd < hexStart + 4 && isHexDigit(in.charAt(hexEnd))) hexEnd++;
+			
+			if (hexEnd == hexStart + 4) {
+				out.append((char) Integer.parseInt(in.substring(hexStart, hexEnd), 0x10));
+				//The escape goes away but 1 character appears in its place.
+				positionIndex.addDelta(out.length(), hexEnd - i - 1);
+				//We don't have to check if this char is a backslash; JLS says backslash-u is not recursively applied.
+				i = hexEnd;
+			} else {
+				//Invalid unicode escape. The offending character, if any, is taken along as is.
+				int end = Math.min(hexEnd + 1, length);
+				problems.add(new ParseProblem(new Position(i, end), "Invalid backslash-u escape: \\u is supposed to be followed by 4 hex digits."));
+				out.append(in, i, end);
+				i = end;
+			}
+		}
+		
 		preprocessed = out.toString();
 	}
+	
+	private static boolean isHexDigit(char c) {
+		return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+	}
 }
@@ -21,6 +21,8 @@
  */
 package lombok.ast.grammar;
 
+import java.util.List;
+
 import lombok.ast.DanglingNodes;
 import lombok.ast.Identifier;
 import lombok.ast.Modifiers;
@@ -28,12 +30,22 @@ import lombok.ast.Node;
 import lombok.ast.Position;
 
 import org.parboiled.BaseActions;
+import org.parboiled.support.ParseTreeUtils;
+
+import com.google.common.collect.Lists;
 
 class SourceActions extends BaseActions<Node> {
-	protected final Source source;
+	private final ParserGroup group;
+	
+	SourceActions(ParserGroup group) {
+		this.group = group;
+	}
 	
-	SourceActions(Source source) {
-		this.source = source;
+	/**
+	 * The source currently being parsed. The grammar is shared between sources, so this must be looked up on every use.
+	 */
+	Source source() {
+		return group.getSource();
 	}
 	
 	Identifier createIdentifierIfNeeded(Node identifier, int pos) {
@@ -67,6 +79,71 @@ class SourceActions extends BaseActions<Node> {
 		return getContext().getCurrentIndex();
 	}
 	
+	org.parboiled.Node<Node> node(NodePath path) {
+		return path.find(getContext().getSubNodes());
+	}
+	
+	List<org.parboiled.Node<Node>> nodes(NodePath path) {
+		return path.findAll(getContext().getSubNodes());
+	}
+	
+	Node value(NodePath path) {
+		org.parboiled.Node<Node> node = node(path);
+		return node == null ? null : node.getValue();
+	}
+	
+	List<Node> values(NodePath path) {
+		List<Node> values = Lists.newArrayList();
+		for (org.parboiled.Node<Node> node : nodes(path)) values.add(node.getValue());
+		return values;
+	}
+	
+	String text(NodePath path) {
+		org.parboiled.Node<Node> node = node(path);
+		return node == null ? null : ParseTreeUtils.getNodeText(node, getContext().getInputBuffer());
+	}
+	
+	List<String> texts(NodePath path) {
+		List<String> texts = Lists.newArrayList();
+		for (org.parboiled.Node<Node> node : nodes(path)) texts.add(ParseTreeUtils.getNodeText(node, getContext().getInputBuffer()));
+		return texts;
+	}
+	
+	/**
+	 * Returns the values of the elements of a list rule, which are labelled {@code head} and {@code tail}, found anywhere below {@code list}
+	 * but not inside another element. List rules don't set a value; the action that builds the owning node adds the elements directly.
+	 */
+	List<Node> elements(org.parboiled.Node<Node> list) {
+		List<Node> elements = Lists.newArrayList();
+		if (list != null) collectElements(list.getChildren(), elements);
+		return elements;
+	}
+	
+	/**
+	 * Returns the elements of {@code list} like {@link #elements(org.parboiled.Node)}. If error recovery cut the list short, its value can be
+	 * something that isn't one of its elements; that is added to {@code owner} as a dangling node instead of being lost.
+	 */
+	List<Node> elements(Node owner, org.parboiled.Node<Node> list) {
+		List<Node> elements = elements(list);
+		Node value = list == null ? null : list.getValue();
+		if (value == null) return elements;
+		for (Node element : elements) if (element == value) return elements;
+		DanglingNodes.addDanglingNode(owner, value);
+		return elements;
+	}
+	
+	private static void collectElements(List<org.parboiled.Node<Node>> nodes, List<Node> elements) {
+		if (nodes == null) return;
+		for (org.parboiled.Node<Node> node : nodes) {
+			String label = node.getLabel();
+			if ("head".equals(label) || "tail".equals(label)) {
+				if (node.getValue() != null) elements.add(node.getValue());
+			} else {
+				collectElements(node.getChildren(), elements);
+			}
+		}
+	}
+	
 	void positionSpan(Node target, org.parboiled.Node<Node> start, org.parboiled.Node<Node> end) {
 		if (target == null || start == null || end == null) return;
 		target.setPosition(new Position(start.getStartIndex(), end.getEndIndex()));
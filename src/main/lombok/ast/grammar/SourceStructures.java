@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import lombok.ast.Node;
+import lombok.ast.Position;
+import lombok.ast.StructuralElement;
+
+import com.google.common.collect.Lists;
+
+/**
+ * The source structures of a parsed source, grouped by the node they belong to.
+ * 
+ * Only the offsets of each structure are kept. The {@link SourceStructure} objects of a node, with their content and their position
+ * in the raw input, are created the first time that node is looked up.
+ */
+final class SourceStructures extends AbstractMap<Node, Collection<StructuralElement>> {
+	private final String preprocessed;
+	private final PositionIndex positionIndex;
+	private final Map<Node, Integer> ownerIds;
+	private final Node[] owners;
+	/* The structures of owner {@code i} are at {@code firstStructure[i]} up to {@code firstStructure[i + 1]}. */
+	private final int[] firstStructure;
+	private final int[] starts, ends;
+	private final List<Collection<StructuralElement>> materialized;
+	
+	private SourceStructures(Builder builder) {
+		this.preprocessed = builder.preprocessed;
+		this.positionIndex = builder.positionIndex;
+		this.ownerIds = builder.ownerIds;
+		this.owners = builder.owners.toArray(new Node[builder.owners.size()]);
+		
+		int count = builder.count;
+		firstStructure = new int[owners.length + 1];
+		for (int i = 0; i < count; i++) firstStructure[builder.ownerOf[i] + 1]++;
+		for (int i = 0; i < owners.length; i++) firstStructure[i + 1] += firstStructure[i];
+		
+		int[] next = Arrays.copyOf(firstStructure, owners.length);
+		starts = new int[count];
+		ends = new int[count];
+		for (int i = 0; i < count; i++) {
+			int slot = next[builder.ownerOf[i]]++;
+			starts[slot] = builder.starts[i];
+			ends[slot] = builder.ends[i];
+		}
+		
+		materialized = Lists.newArrayList(Collections.<Collection<StructuralElement>>nCopies(owners.length, null));
+	}
+	
+	@Override public boolean containsKey(Object key) {
+		return ownerIds.containsKey(key);
+	}
+	
+	@Override public Collection<StructuralElement> get(Object key) {
+		Integer id = ownerIds.get(key);
+		return id == null ? null : structuresOf(id);
+	}
+	
+	@Override public int size() {
+		return owners.length;
+	}
+	
+	private Collection<StructuralElement> structuresOf(int id) {
+		Collection<StructuralElement> result = materialized.get(id);
+		if (result != null) return result;
+		
+		List<StructuralElement> list = Lists.newArrayListWithCapacity(firstStructure[id + 1] - firstStructure[id]);
+		for (int i = firstStructure[id]; i < firstStructure[id + 1]; i++) {
+			Position position = new Position(positionIndex.toRaw(starts[i]), positionIndex.toRaw(ends[i]));
+			list.add(new SourceStructure(position, preprocessed.substring(starts[i], ends[i])));
+		}
+		result = Collections.unmodifiableList(list);
+		materialized.set(id, result);
+		return result;
+	}
+	
+	@Override public Set<Map.Entry<Node, Collection<StructuralElement>>> entrySet() {
+		return new AbstractSet<Map.Entry<Node, Collection<StructuralElement>>>() {
+			@Override public int size() {
+				return owners.length;
+			}
+			
+			@Override public Iterator<Map.Entry<Node, Collection<StructuralElement>>> iterator() {
+				return new Iterator<Map.Entry<Node, Collection<StructuralElement>>>() {
+					private int id;
+					
+					@Override public boolean hasNext() {
+						return id < owners.length;
+					}
+					
+					@Override public Map.Entry<Node, Collection<StructuralElement>> next() {
+						if (!hasNext()) throw new NoSuchElementException();
+						Map.Entry<Node, Collection<StructuralElement>> entry = new SimpleImmutableEntry<Node, Collection<StructuralElement>>(owners[id], structuresOf(id));
+						id++;
+						return entry;
+					}
+					
+					@Override public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+	
+	/**
+	 * Collects structures, in order, while walking the parse tree.
+	 */
+	static final class Builder {
+		private final String preprocessed;
+		private final PositionIndex positionIndex;
+		private final Map<Node, Integer> ownerIds = new IdentityHashMap<Node, Integer>();
+		private final List<Node> owners = Lists.newArrayList();
+		private int[] ownerOf = new int[64], starts = new int[64], ends = new int[64];
+		private int count;
+		
+		Builder(String preprocessed, PositionIndex positionIndex) {
+			this.preprocessed = preprocessed;
+			this.positionIndex = positionIndex;
+		}
+		
+		/**
+		 * Adds the text between {@code start} and {@code end} of the preprocessed source as a structure of {@code node}, unless
+		 * it is empty, all whitespace, or covers exactly the same stretch as the node itself.
+		 */
+		void add(Node node, int start, int end) {
+			if (end <= start || isBlank(start, end)) return;
+			Position p = node.getPosition();
+			if (p.getStart() == start && p.getEnd() == end && p.getGeneratedBy() == null) return;
+			
+			Integer id = ownerIds.get(node);
+			if (id == null) {
+				id = owners.size();
+				ownerIds.put(node, id);
+				owners.add(node);
+			}
+			
+			if (count == starts.length) {
+				ownerOf = Arrays.copyOf(ownerOf, count * 2);
+				starts = Arrays.copyOf(starts, count * 2);
+				ends = Arrays.copyOf(ends, count * 2);
+			}
+			ownerOf[count] = id;
+			starts[count] = start;
+			ends[count] = end;
+			count++;
+		}
+		
+		/* Mirrors {@code String.trim()}, which strips everything up to and including the space character. */
+		private boolean isBlank(int start, int end) {
+			for (int i = start; i < end; i++) if (preprocessed.charAt(i) > ' ') return false;
+			return true;
+		}
+		
+		SourceStructures build() {
+			return new SourceStructures(this);
+		}
+	}
+}
@@ -55,8 +55,8 @@ import lombok.ast.VariableDefinitionEntry;
 import lombok.ast.While;
 
 public class StatementsActions extends SourceActions {
-	public StatementsActions(Source source) {
-		super(source);
+	public StatementsActions(ParserGroup group) {
+		super(group);
 	}
 	
 	public Node createBlock(List<Node> statements) {
@@ -106,7 +106,7 @@ public class StatementsActions extends SourceActions {
 	
 	public Node createDefaultStatement(org.parboiled.Node<Node> defaultStatement) {
 		Default node = new Default();
-		source.registerStructure(node, defaultStatement);
+		source().registerStructure(node, defaultStatement);
 		return posify(node);
 	}
 	
@@ -118,30 +118,18 @@ public class StatementsActions extends SourceActions {
 		return posify(new DoWhile().rawCondition(condition).rawStatement(statement));
 	}
 	
-	public Node createStatementExpressionList(Node head, List<Node> tail) {
-		TemporaryNode.StatementExpressionList result = new TemporaryNode.StatementExpressionList();
-		if (head != null) result.expressions.add(head);
-		if (tail != null) for (Node n : tail) if (n != null) result.expressions.add(n);
-		return posify(result);
-	}
-	
-	public Node createBasicFor(Node init, Node condition, Node update, Node statement) {
-		For result = new For().rawCondition(condition).rawStatement(statement);
-		List<Node> updates;
+	public Node createBasicFor(Node variableDefinition, org.parboiled.Node<Node> inits, Node condition,
+			org.parboiled.Node<Node> updates, Node statement) {
 		
-		if (update instanceof TemporaryNode.StatementExpressionList) {
-			updates = ((TemporaryNode.StatementExpressionList)update).expressions;
-		} else {
-			updates = Collections.singletonList(update);
-		}
+		For result = new For().rawCondition(condition).rawStatement(statement);
 		
-		if (init instanceof TemporaryNode.StatementExpressionList) {
-			for (Node n : ((TemporaryNode.StatementExpressionList)init).expressions) result.rawExpressionInits().addToEnd(n);
+		if (inits != null) {
+			for (Node n : elements(inits)) result.rawExpressionInits().addToEnd(n);
 		} else {
-			result.rawVariableDeclaration(init);
+			result.rawVariableDeclaration(variableDefinition);
 		}
 		
-		for (Node n : updates) if (n != null) result.rawUpdates().addToEnd(n);
+		for (Node n : elements(updates)) result.rawUpdates().addToEnd(n);
 		return posify(result);
 	}
 	
@@ -204,38 +192,20 @@ public class StatementsActions extends SourceActions {
 		return posify(variableDefinition);
 	}
 	
-	public Node createAlternateConstructorInvocation(Node typeArguments, Node arguments) {
+	public Node createAlternateConstructorInvocation(org.parboiled.Node<Node> typeArguments, org.parboiled.Node<Node> arguments) {
 		AlternateConstructorInvocation result = new AlternateConstructorInvocation();
-		
-		if (typeArguments instanceof TemporaryNode.TypeArguments) {
-			for (Node arg : ((TemporaryNode.TypeArguments)typeArguments).arguments) {
-				result.rawConstructorTypeArguments().addToEnd(arg);
-			}
-		}
-		
-		if (arguments instanceof TemporaryNode.MethodArguments) {
-			for (Node arg : ((TemporaryNode.MethodArguments)arguments).arguments) {
-				result.rawArguments().addToEnd(arg);
-			}
-		}
+		for (Node arg : elements(typeArguments)) result.rawConstructorTypeArguments().addToEnd(arg);
+		for (Node arg : elements(arguments)) result.rawArguments().addToEnd(arg);
 		return posify(result);
 	}
 	
-	public Node createSuperConstructorInvocation(org.parboiled.Node<Node> dot, Node qualifier, Node typeArguments, Node arguments) {
-		SuperConstructorInvocation result = new SuperConstructorInvocation().rawQualifier(qualifier);
-		
-		if (typeArguments instanceof TemporaryNode.TypeArguments) {
-			for (Node arg : ((TemporaryNode.TypeArguments)typeArguments).arguments) {
-				result.rawConstructorTypeArguments().addToEnd(arg);
-			}
-		}
+	public Node createSuperConstructorInvocation(org.parboiled.Node<Node> dot, Node qualifier,
+			org.parboiled.Node<Node> typeArguments, org.parboiled.Node<Node> arguments) {
 		
-		if (arguments instanceof TemporaryNode.MethodArguments) {
-			for (Node arg : ((TemporaryNode.MethodArguments)arguments).arguments) {
-				result.rawArguments().addToEnd(arg);
-			}
-		}
-		if (dot != null) source.registerStructure(result, dot);
+		SuperConstructorInvocation result = new SuperConstructorInvocation().rawQualifier(qualifier);
+		for (Node arg : elements(typeArguments)) result.rawConstructorTypeArguments().addToEnd(arg);
+		for (Node arg : elements(arguments)) result.rawArguments().addToEnd(arg);
+		if (dot != null) source().registerStructure(result, dot);
 		return posify(result);
 	}
 	
@@ -30,8 +30,18 @@ public class StatementsParser extends BaseParser<Node> {
 	final ParserGroup group;
 	final StatementsActions actions;
 	
+	static final NodePath ZERO_OR_MORE_STATEMENT = new NodePath("ZeroOrMore/statement");
+	static final NodePath QUALIFIER_SEQUENCE_DOT = new NodePath("qualifier/Sequence/dot");
+	static final NodePath ZERO_OR_MORE_SEQUENCE_LABEL_NAME = new NodePath("ZeroOrMore/Sequence/labelName");
+	static final NodePath OPTIONAL_ELSE = new NodePath("Optional/else");
+	static final NodePath OPTIONAL_SEQUENCE = new NodePath("Optional/Sequence");
+	static final NodePath INIT_FIRST_OF_DEFINITION = new NodePath("init/FirstOf/definition");
+	static final NodePath INIT_FIRST_OF_EXPRESSIONS = new NodePath("init/FirstOf/expressions");
+	static final NodePath ZERO_OR_MORE_CATCH_BLOCK = new NodePath("ZeroOrMore/catchBlock");
+	static final NodePath OPTIONAL_SEQUENCE_FINALLY_BODY = new NodePath("Optional/Sequence/finallyBody");
+	
 	public StatementsParser(ParserGroup group) {
-		this.actions = new StatementsActions(group.getSource());
+		this.actions = new StatementsActions(group);
 		this.group = group;
 	}
 	
@@ -49,7 +59,7 @@ public class StatementsParser extends BaseParser<Node> {
 				Ch('{'), group.basics.optWS(),
 				ZeroOrMore(anyStatement().label("statement")),
 				Ch('}'), group.basics.optWS(),
-				set(actions.createBlock(values("ZeroOrMore/statement"))));
+				set(actions.createBlock(actions.values(ZERO_OR_MORE_STATEMENT))));
 	}
 	
 	/**
@@ -82,7 +92,7 @@ public class StatementsParser extends BaseParser<Node> {
 				String("this"), group.basics.testLexBreak(), group.basics.optWS(),
 				group.structures.methodArguments().label("arguments"),
 				Ch(';'), group.basics.optWS(),
-				set(actions.createAlternateConstructorInvocation(value("typeArgs"), value("arguments"))));
+				set(actions.createAlternateConstructorInvocation(node("typeArgs"), node("arguments"))));
 	}
 	
 	public Rule explicitSuperConstructorInvocation() {
@@ -92,7 +102,7 @@ public class StatementsParser extends BaseParser<Node> {
 				String("super"), group.basics.testLexBreak(), group.basics.optWS(),
 				group.structures.methodArguments().label("arguments"),
 				Ch(';'), group.basics.optWS(),
-				set(actions.createSuperConstructorInvocation(node("qualifier/Sequence/dot"), value("qualifier"), value("typeArgs"), value("arguments"))));
+				set(actions.createSuperConstructorInvocation(actions.node(QUALIFIER_SEQUENCE_DOT), value("qualifier"), node("typeArgs"), node("arguments"))));
 	}
 	
 	/**
@@ -117,31 +127,31 @@ public class StatementsParser extends BaseParser<Node> {
 						group.basics.identifier().label("labelName"),
 						Ch(':'),
 						group.basics.optWS())),
-				FirstOf(
-						blockStatement(),
-						localClassDeclaration(),
-						localVariableDeclaration(),
-						emptyStatement(),
-						expressionStatement(),
-						ifStatement(),
-						assertStatement(),
-						switchStatement(),
-						caseStatement(),
-						defaultStatement(),
-						whileStatement(),
-						doWhileStatement(),
-						basicForStatement(),
-						enhancedForStatement(),
-						breakStatement(),
-						continueStatement(),
-						returnStatement(),
-						synchronizedStatement(),
-						throwStatement(),
-						tryStatement(),
-						explicitAlternateConstructorInvocation(),
-						explicitSuperConstructorInvocation()
-				).label("statement"),
-				set(actions.createLabelledStatement(values("ZeroOrMore/Sequence/labelName"), value("statement"))));
+				DispatchMatcher.builder(group)
+						.chars("{", blockStatement())
+						.chars(DispatchMatcher.DECLARATION_START, localClassDeclaration())
+						.chars(DispatchMatcher.DECLARATION_START, localVariableDeclaration())
+						.chars(";", emptyStatement())
+						.chars(DispatchMatcher.EXPRESSION_START, expressionStatement())
+						.words("if", ifStatement())
+						.words("assert", assertStatement())
+						.words("switch", switchStatement())
+						.words("case", caseStatement())
+						.words("default", defaultStatement())
+						.words("while", whileStatement())
+						.words("do", doWhileStatement())
+						.words("for", basicForStatement())
+						.words("for", enhancedForStatement())
+						.words("break", breakStatement())
+						.words("continue", continueStatement())
+						.words("return", returnStatement())
+						.words("synchronized", synchronizedStatement())
+						.words("throw", throwStatement())
+						.words("try", tryStatement())
+						.chars("<t", explicitAlternateConstructorInvocation())
+						.chars(DispatchMatcher.EXPRESSION_START + "<", explicitSuperConstructorInvocation())
+						.build().label("statement"),
+				set(actions.createLabelledStatement(actions.values(ZERO_OR_MORE_SEQUENCE_LABEL_NAME), value("statement"))));
 	}
 	
 	/**
@@ -167,7 +177,7 @@ public class StatementsParser extends BaseParser<Node> {
 				Optional(Sequence(
 						String("else"), group.basics.testLexBreak(), group.basics.optWS(),
 						anyStatement()).label("else")),
-				set(actions.createIfStatement(value("condition"), value(), value("Optional/else"))));
+				set(actions.createIfStatement(value("condition"), value(), actions.value(OPTIONAL_ELSE))));
 	}
 	
 	/**
@@ -182,7 +192,7 @@ public class StatementsParser extends BaseParser<Node> {
 						Ch(':'), group.basics.optWS(),
 						group.expressions.anyExpression(), set())),
 				Ch(';'), group.basics.optWS(),
-				set(actions.createAssertStatement(value(), value("Optional/Sequence"))));
+				set(actions.createAssertStatement(value(), actions.value(OPTIONAL_SEQUENCE))));
 	}
 	
 	/**
@@ -261,13 +271,14 @@ public class StatementsParser extends BaseParser<Node> {
 				forUpdate().label("update"),
 				Ch(')'), group.basics.optWS(),
 				anyStatement().label("statement"),
-				set(actions.createBasicFor(value("init"), value("condition"), value("update"), value("statement"))));
+				set(actions.createBasicFor(actions.value(INIT_FIRST_OF_DEFINITION), actions.node(INIT_FIRST_OF_EXPRESSIONS), value("condition"),
+						node("update"), value("statement"))));
 	}
 	
 	Rule forInit() {
 		return Optional(FirstOf(
-				variableDefinition(),
-				statementExpressionList()));
+				variableDefinition().label("definition"),
+				statementExpressionList().label("expressions")));
 	}
 	
 	Rule forUpdate() {
@@ -279,8 +290,7 @@ public class StatementsParser extends BaseParser<Node> {
 				group.expressions.statementExpression().label("head"),
 				ZeroOrMore(Sequence(
 						Ch(','), group.basics.optWS(),
-						group.expressions.statementExpression()).label("tail")),
-				set(actions.createStatementExpressionList(value("head"), values("ZeroOrMore/tail"))));
+						group.expressions.statementExpression()).label("tail")));
 	}
 	
 	/**
@@ -369,7 +379,7 @@ public class StatementsParser extends BaseParser<Node> {
 				Optional(Sequence(
 						String("finally"), group.basics.testLexBreak(), group.basics.optWS(),
 						blockStatement().label("finallyBody"))),
-				set(actions.createTryStatement(value("body"), values("ZeroOrMore/catchBlock"), value("Optional/Sequence/finallyBody"))));
+				set(actions.createTryStatement(value("body"), actions.values(ZERO_OR_MORE_CATCH_BLOCK), actions.value(OPTIONAL_SEQUENCE_FINALLY_BODY))));
 	}
 	
 	Rule catchBlock() {
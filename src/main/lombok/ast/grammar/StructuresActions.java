@@ -28,10 +28,10 @@ import lombok.ast.AnnotationDeclaration;
 import lombok.ast.AnnotationElement;
 import lombok.ast.AnnotationMethodDeclaration;
 import lombok.ast.ArrayInitializer;
+import lombok.ast.Block;
 import lombok.ast.ClassDeclaration;
 import lombok.ast.CompilationUnit;
 import lombok.ast.ConstructorDeclaration;
-import lombok.ast.DanglingNodes;
 import lombok.ast.EmptyDeclaration;
 import lombok.ast.EnumConstant;
 import lombok.ast.EnumDeclaration;
@@ -52,34 +52,22 @@ import lombok.ast.TypeReference;
 import lombok.ast.VariableDeclaration;
 import lombok.ast.VariableDefinition;
 import lombok.ast.VariableDefinitionEntry;
-import lombok.ast.grammar.TemporaryNode.MethodArguments;
 
 public class StructuresActions extends SourceActions {
-	public StructuresActions(Source source) {
-		super(source);
-	}
-	
-	public Node createMethodArguments(Node head, List<Node> tail) {
-		MethodArguments ma = new MethodArguments();
-		if (head != null) ma.arguments.add(head);
-		if (tail != null) for (Node n : tail) ma.arguments.add(n);
-		return posify(ma);
+	public StructuresActions(ParserGroup group) {
+		super(group);
 	}
 	
 	public Node createKeywordModifier(String text) {
 		return posify(new KeywordModifier().astName(text));
 	}
 	
-	public Node createMethodDeclaration(Node modifiers, Node typeParameters, Node resultType, Node name,
-			Node params, List<org.parboiled.Node<Node>> dims, Node throwsHead, List<Node> throwsTail, Node body) {
+	public Node createMethodDeclaration(Node modifiers, org.parboiled.Node<Node> typeParameters, Node resultType, Node name,
+			org.parboiled.Node<Node> params, List<org.parboiled.Node<Node>> dims, Node throwsHead, List<Node> throwsTail, Node body) {
 		
 		MethodDeclaration decl = new MethodDeclaration();
 		
-		if (params instanceof TemporaryNode.MethodParameters) {
-			for (Node param : ((TemporaryNode.MethodParameters)params).parameters) {
-				decl.rawParameters().addToEnd(param);
-			}
-		} else DanglingNodes.addDanglingNode(decl, params);
+		for (Node param : elements(decl, params)) decl.rawParameters().addToEnd(param);
 		
 		decl.astMethodName(createIdentifierIfNeeded(name, currentPos())).rawBody(body);
 		if (modifiers != null) decl.astModifiers(createModifiersIfNeeded(modifiers, currentPos()));
@@ -90,16 +78,11 @@ public class StructuresActions extends SourceActions {
 		}
 		decl.astExplicitArrayDimensions(extraDims);
 		decl.rawReturnTypeReference(returnType);
-		if (typeParameters instanceof TemporaryNode.OrphanedTypeVariables) {
-			TemporaryNode.OrphanedTypeVariables otv = (TemporaryNode.OrphanedTypeVariables)typeParameters;
-			if (otv.variables != null) for (Node typeParameter : otv.variables) {
-				if (typeParameter != null) decl.rawTypeVariables().addToEnd(typeParameter);
-			}
-		}
+		for (Node typeParameter : elements(typeParameters)) decl.rawTypeVariables().addToEnd(typeParameter);
 		
 		for (org.parboiled.Node<Node> dim : dims) {
 			for (org.parboiled.Node<Node> dimSub : dim.getChildren()) {
-				source.registerStructure(decl, dimSub);
+				source().registerStructure(decl, dimSub);
 			}
 		}
 		
@@ -108,23 +91,14 @@ public class StructuresActions extends SourceActions {
 		return posify(decl);
 	}
 	
-	public Node createConstructorDeclaration(Node modifiers, Node typeParameters, Node name,
-			Node params, Node throwsHead, List<Node> throwsTail, Node body) {
+	public Node createConstructorDeclaration(Node modifiers, org.parboiled.Node<Node> typeParameters, Node name,
+			org.parboiled.Node<Node> params, Node throwsHead, List<Node> throwsTail, Node body) {
 		
 		ConstructorDeclaration decl = new ConstructorDeclaration().astTypeName(
 				createIdentifierIfNeeded(name, currentPos())).rawBody(body);
 		if (modifiers != null) decl.astModifiers(createModifiersIfNeeded(modifiers, currentPos()));
-		if (typeParameters instanceof TemporaryNode.OrphanedTypeVariables) {
-			for (Node typeParameter : ((TemporaryNode.OrphanedTypeVariables)typeParameters).variables) {
-				decl.rawTypeVariables().addToEnd(typeParameter);
-			}
-		}
-		
-		if (params instanceof TemporaryNode.MethodParameters) {
-			for (Node param : ((TemporaryNode.MethodParameters)params).parameters) {
-				decl.rawParameters().addToEnd(param);
-			}
-		} else DanglingNodes.addDanglingNode(decl, params);
+		for (Node typeParameter : elements(typeParameters)) decl.rawTypeVariables().addToEnd(typeParameter);
+		for (Node param : elements(decl, params)) decl.rawParameters().addToEnd(param);
 		
 		if (throwsHead != null) decl.rawThrownTypeReferences().addToEnd(throwsHead);
 		if (throwsTail != null) for (Node n : throwsTail) if (n != null) decl.rawThrownTypeReferences().addToEnd(n);
@@ -147,10 +121,10 @@ public class StructuresActions extends SourceActions {
 		VariableDefinitionEntry e = new VariableDefinitionEntry().astName(createIdentifierIfNeeded(name, currentPos()))
 				.astArrayDimensions(dimOpen == null ? 0 : dimOpen.size());
 		if (dimOpen != null) for (org.parboiled.Node<Node> pNode : dimOpen) {
-			source.registerStructure(e, pNode);
+			source().registerStructure(e, pNode);
 		}
 		if (dimClosed != null) for (org.parboiled.Node<Node> pNode : dimClosed) {
-			source.registerStructure(e, pNode);
+			source().registerStructure(e, pNode);
 		}
 		if (name != null) e.setPosition(new Position(name.getPosition().getStart(), currentPos()));
 		VariableDefinition decl = new VariableDefinition().rawTypeReference(type);
@@ -160,6 +134,12 @@ public class StructuresActions extends SourceActions {
 		return posify(decl);
 	}
 	
+	public Node createLazyBodyPlaceholder() {
+		Block placeholder = posify(new Block());
+		source().registerLazyBody(placeholder);
+		return placeholder;
+	}
+	
 	public Node createInstanceInitializer(Node body) {
 		return posify(new InstanceInitializer().rawBody(body));
 	}
@@ -221,71 +201,45 @@ public class StructuresActions extends SourceActions {
 		return posify(new Annotation().rawAnnotationTypeReference(type));
 	}
 	
-	public Node createExtendsClause(Node head, List<Node> tail) {
-		TemporaryNode.ExtendsClause result = new TemporaryNode.ExtendsClause();
-		if (head != null) result.superTypes.add(head);
-		if (tail != null) for (Node n : tail) if (n != null) result.superTypes.add(n);
-		return posify(result);
-	}
-	
-	public Node createImplementsClause(Node head, List<Node> tail) {
-		TemporaryNode.ImplementsClause result = new TemporaryNode.ImplementsClause();
-		if (head != null) result.superInterfaces.add(head);
-		if (tail != null) for (Node n : tail) if (n != null) result.superInterfaces.add(n);
-		return posify(result);
-	}
-	
-	public Node createInterfaceDeclaration(Node modifiers, Node name, Node params, Node body, List<Node> addons) {
+	public Node createInterfaceDeclaration(Node modifiers, Node name, org.parboiled.Node<Node> params, Node body,
+			List<org.parboiled.Node<Node>> extendsClauses, List<org.parboiled.Node<Node>> implementsClauses) {
+		
 		InterfaceDeclaration decl = new InterfaceDeclaration().astName(createIdentifierIfNeeded(name, currentPos())).rawBody(body);
 		if (modifiers != null) decl.astModifiers(createModifiersIfNeeded(modifiers, currentPos()));
-		if (params instanceof TemporaryNode.OrphanedTypeVariables) {
-			TemporaryNode.OrphanedTypeVariables otv = (TemporaryNode.OrphanedTypeVariables)params;
-			if (otv.variables != null) for (Node typeParameter : otv.variables) {
-				if (typeParameter != null) decl.rawTypeVariables().addToEnd(typeParameter);
-			}
-		}
+		for (Node typeParameter : elements(params)) decl.rawTypeVariables().addToEnd(typeParameter);
 		
-		if (addons != null) for (Node n : addons) {
-			if (n instanceof TemporaryNode.ExtendsClause) {
-				//if (!decl.extending().isEmpty()) //TODO add error node: multiple extends clauses.
-				List<Node> superClasses = ((TemporaryNode.ExtendsClause)n).superTypes;
-				if (superClasses != null) for (Node superClass : superClasses) if (superClass != null) decl.rawExtending().addToEnd(superClass);
-			}
-			
-			//if (n instanceof TemporaryNode.ImplementsClause) //TODO add error node: implements not allowed here.
+		if (extendsClauses != null) for (org.parboiled.Node<Node> clause : extendsClauses) {
+			//if (!decl.extending().isEmpty()) //TODO add error node: multiple extends clauses.
+			for (Node superClass : elements(clause)) decl.rawExtending().addToEnd(superClass);
 		}
 		
+		//if (!implementsClauses.isEmpty()) //TODO add error node: implements not allowed here.
+		
 		return posify(decl);
 	}
 	
-	public Node createTypeDeclaration(String kind, Node modifiers, Node name, Node params, Node body, List<Node> addons) {
-		if (kind.equals("interface")) return createInterfaceDeclaration(modifiers, name, params, body, addons);
+	public Node createTypeDeclaration(String kind, Node modifiers, Node name, org.parboiled.Node<Node> params, Node body,
+			List<org.parboiled.Node<Node>> extendsClauses, List<org.parboiled.Node<Node>> implementsClauses) {
+		
+		if (kind.equals("interface")) return createInterfaceDeclaration(modifiers, name, params, body, extendsClauses, implementsClauses);
 		
 		ClassDeclaration decl = new ClassDeclaration().astName(createIdentifierIfNeeded(name, currentPos())).rawBody(body);
 		if (modifiers != null) decl.astModifiers(createModifiersIfNeeded(modifiers, currentPos()));
-		if (params instanceof TemporaryNode.OrphanedTypeVariables) {
-			TemporaryNode.OrphanedTypeVariables otv = (TemporaryNode.OrphanedTypeVariables)params;
-			if (otv.variables != null) for (Node typeParameter : otv.variables) {
-				if (typeParameter != null) decl.rawTypeVariables().addToEnd(typeParameter);
+		for (Node typeParameter : elements(params)) decl.rawTypeVariables().addToEnd(typeParameter);
+		
+		if (extendsClauses != null) for (org.parboiled.Node<Node> clause : extendsClauses) {
+			//if (!decl.implementing().isEmpty()) //TODO add error node: implements must come after extends
+			//if (!decl.extending().isEmpty()) //TODO add error node: multiple extends clauses.
+			List<Node> superClasses = elements(clause);
+			if (superClasses.size() > 0) {
+				//if (superClasses.size() > 1) //TODO add error node: 'extends' on class can only accept 1 type.
+				decl.rawExtending(superClasses.get(0));
 			}
 		}
 		
-		if (addons != null) for (Node n : addons) {
-			if (n instanceof TemporaryNode.ExtendsClause) {
-				//if (!decl.implementing().isEmpty()) //TODO add error node: implements must come after extends
-				//if (!decl.extending().isEmpty()) //TODO add error node: multiple extends clauses.
-				List<Node> superClasses = ((TemporaryNode.ExtendsClause)n).superTypes;
-				if (superClasses != null && superClasses.size() > 0) {
-					//if (superClasses.size() > 1) //TODO add error node: 'extends' on class can only accept 1 type.
-					decl.rawExtending(superClasses.get(0));
-				}
-			}
-			
-			if (n instanceof TemporaryNode.ImplementsClause) {
-				//if (!decl.implementing().isEmpty()) //TODO add error node: multiple implements clauses.
-				List<Node> interfaces = ((TemporaryNode.ImplementsClause)n).superInterfaces;
-				if (interfaces != null) for (Node i : interfaces) decl.rawImplementing().addToEnd(i);
-			}
+		if (implementsClauses != null) for (org.parboiled.Node<Node> clause : implementsClauses) {
+			//if (!decl.implementing().isEmpty()) //TODO add error node: multiple implements clauses.
+			for (Node i : elements(clause)) decl.rawImplementing().addToEnd(i);
 		}
 		return posify(decl);
 	}
@@ -296,14 +250,10 @@ public class StructuresActions extends SourceActions {
 		return posify(body);
 	}
 	
-	public Node createEnumConstant(List<Node> annotations, Node name, Node arguments, Node body) {
+	public Node createEnumConstant(List<Node> annotations, Node name, org.parboiled.Node<Node> arguments, Node body) {
 		EnumConstant result = new EnumConstant().astName(createIdentifierIfNeeded(name, currentPos())).rawBody(body);
 		if (annotations != null) for (Node n : annotations) if (n != null) result.rawAnnotations().addToEnd(n);
-		if (arguments instanceof TemporaryNode.MethodArguments) {
-			for (Node arg : ((TemporaryNode.MethodArguments)arguments).arguments) {
-				result.rawArguments().addToEnd(arg);
-			}
-		}
+		for (Node arg : elements(arguments)) result.rawArguments().addToEnd(arg);
 		return posify(result);
 	}
 	
@@ -317,17 +267,14 @@ public class StructuresActions extends SourceActions {
 		return posify(body);
 	}
 	
-	public Node createEnumDeclaration(Node modifiers, Node name, Node body, List<Node> addons) {
+	public Node createEnumDeclaration(Node modifiers, Node name, Node body, List<org.parboiled.Node<Node>> implementsClauses) {
 		EnumDeclaration decl = new EnumDeclaration();
 		decl.astName(createIdentifierIfNeeded(name, currentPos())).rawBody(body);
 		if (modifiers != null) decl.astModifiers(createModifiersIfNeeded(modifiers, currentPos()));
-		if (addons != null) for (Node n : addons) {
-			//if (n instanceof ExtendsClause) //TODO add error node: implements not allowed here.
-			if (n instanceof TemporaryNode.ImplementsClause) {
-				//if (!decl.implementing().isEmpty()) //TODO add error node: multiple implements clauses.
-				List<Node> interfaces = ((TemporaryNode.ImplementsClause)n).superInterfaces;
-				if (interfaces != null) for (Node i : interfaces) decl.rawImplementing().addToEnd(i);
-			}
+		//TODO add error node: extends not allowed here.
+		if (implementsClauses != null) for (org.parboiled.Node<Node> clause : implementsClauses) {
+			//if (!decl.implementing().isEmpty()) //TODO add error node: multiple implements clauses.
+			for (Node i : elements(clause)) decl.rawImplementing().addToEnd(i);
 		}
 		return posify(decl);
 	}
@@ -379,14 +326,6 @@ public class StructuresActions extends SourceActions {
 		return posify(unit);
 	}
 	
-	public Node createMethodParameters(Node head, List<Node> tail) {
-		TemporaryNode.MethodParameters params = new TemporaryNode.MethodParameters();
-		if (head != null) params.parameters.add(head);
-		if (tail != null) for (Node n : tail) if (n != null) params.parameters.add(n);
-		
-		return params;
-	}
-	
 	public Node createEmptyDeclaration() {
 		return posify(new EmptyDeclaration());
 	}
@@ -24,15 +24,37 @@ package lombok.ast.grammar;
 import lombok.ast.Node;
 
 import org.parboiled.BaseParser;
+import org.parboiled.MatcherContext;
 import org.parboiled.Rule;
 import org.parboiled.annotations.SuppressSubnodes;
+import org.parboiled.matchers.CharSetMatcher;
+import org.parboiled.support.Characters;
 
 public class StructuresParser extends BaseParser<Node> {
 	final ParserGroup group;
 	final StructuresActions actions;
 	
+	static final NodePath MEMBERS_MEMBER = new NodePath("members/member");
+	static final NodePath ADDONS_ADDON_EXTENDS_CLAUSE = new NodePath("addons/addon/extendsClause");
+	static final NodePath ADDONS_ADDON_IMPLEMENTS_CLAUSE = new NodePath("addons/addon/implementsClause");
+	static final NodePath ZERO_OR_MORE_TAIL = new NodePath("ZeroOrMore/tail");
+	static final NodePath CONSTANTS_SEQUENCE_HEAD = new NodePath("constants/Sequence/head");
+	static final NodePath CONSTANTS_SEQUENCE_ZERO_OR_MORE_TAIL = new NodePath("constants/Sequence/ZeroOrMore/tail");
+	static final NodePath ANNOTATIONS_ANNOTATION = new NodePath("annotations/annotation");
+	static final NodePath THROWS_CLAUSE_SEQUENCE_THROWS_HEAD = new NodePath("throwsClause/Sequence/throwsHead");
+	static final NodePath THROWS_CLAUSE_SEQUENCE_ZERO_OR_MORE_THROWS_TAIL = new NodePath("throwsClause/Sequence/ZeroOrMore/throwsTail");
+	static final NodePath DIMS_DIM = new NodePath("dims/dim");
+	static final NodePath OPTIONAL_SEQUENCE_HEAD = new NodePath("Optional/Sequence/head");
+	static final NodePath DIMS_DIM_OPEN = new NodePath("dims/dim/open");
+	static final NodePath DIMS_DIM_CLOSED = new NodePath("dims/dim/closed");
+	static final NodePath OPTIONAL_SEQUENCE_ZERO_OR_MORE_TAIL = new NodePath("Optional/Sequence/ZeroOrMore/tail");
+	static final NodePath ZERO_OR_MORE_MODIFIER = new NodePath("ZeroOrMore/modifier");
+	static final NodePath SEQUENCE_ANNOTATIONS_ANNOTATION = new NodePath("Sequence/annotations/annotation");
+	static final NodePath IMPORTS_IMPORT = new NodePath("imports/import");
+	static final NodePath TYPES_TYPE = new NodePath("types/type");
+	
 	public StructuresParser(ParserGroup group) {
-		this.actions = new StructuresActions(group.getSource());
+		this.actions = new StructuresActions(group);
 		this.group = group;
 	}
 	
@@ -45,20 +67,31 @@ public class StructuresParser extends BaseParser<Node> {
 	}
 	
 	public Rule typeBodyMember() {
-		return FirstOf(
-				anyTypeDeclaration(),
-				fieldDeclaration(),
-				methodDeclaration(),
-				constructorDeclaration(),
-				staticInitializer(),
-				instanceInitializer(),
-				emptyDeclaration());
+		return DispatchMatcher.builder(group)
+				.chars(DispatchMatcher.DECLARATION_START + ";", anyTypeDeclaration())
+				.chars(DispatchMatcher.DECLARATION_START, fieldDeclaration())
+				.chars(DispatchMatcher.DECLARATION_START + "<", methodDeclaration())
+				.chars(DispatchMatcher.DECLARATION_START + "<", constructorDeclaration())
+				.words("static", staticInitializer())
+				.chars("{", instanceInitializer())
+				.chars(";", emptyDeclaration())
+				.build();
+	}
+	
+	/**
+	 * A single type body member, with the whitespace and comments around it, making up all of the input.
+	 */
+	public Rule typeBodyMemberChunk() {
+		return Sequence(
+				group.basics.optWS(),
+				typeBodyMember(), set(),
+				Eoi());
 	}
 	
 	Rule typeBodyDeclarations() {
 		return Sequence(
 				ZeroOrMore(typeBodyMember().label("member")).label("members"),
-				set(actions.createNormalTypeBody(values("members/member"))));
+				set(actions.createNormalTypeBody(actions.values(MEMBERS_MEMBER))));
 	}
 	
 	Rule emptyDeclaration() {
@@ -70,15 +103,13 @@ public class StructuresParser extends BaseParser<Node> {
 				Ch('('),
 				group.basics.optWS(),
 				Optional(Sequence(
-						group.expressions.anyExpression(),
-						set(),
+						group.expressions.anyExpression().label("head"),
 						ZeroOrMore(Sequence(
 								Ch(','),
 								group.basics.optWS(),
-								group.expressions.anyExpression(), set())))),
+								group.expressions.anyExpression().label("tail"))))),
 				Ch(')'),
-				group.basics.optWS(),
-				set(actions.createMethodArguments(value("Optional/Sequence"), values("Optional/Sequence/ZeroOrMore/Sequence"))));
+				group.basics.optWS());
 	}
 	
 	public Rule anyTypeDeclaration() {
@@ -102,7 +133,8 @@ public class StructuresParser extends BaseParser<Node> {
 						extendsClause(),
 						implementsClause()).label("addon")).label("addons"),
 				typeBody().label("body"),
-				set(actions.createTypeDeclaration(text("kind"), value("modifiers"), value("typeName"), value("typeParameters"), value("body"), values("addons/addon"))));
+				set(actions.createTypeDeclaration(text("kind"), value("modifiers"), value("typeName"), node("typeParameters"), value("body"),
+						actions.nodes(ADDONS_ADDON_EXTENDS_CLAUSE), actions.nodes(ADDONS_ADDON_IMPLEMENTS_CLAUSE))));
 	}
 	
 	Rule extendsClause() {
@@ -111,8 +143,7 @@ public class StructuresParser extends BaseParser<Node> {
 				group.types.type().label("head"),
 				ZeroOrMore(Sequence(
 						Ch(','), group.basics.optWS(),
-						group.types.type()).label("tail")),
-				set(actions.createExtendsClause(value("head"), values("ZeroOrMore/tail"))));
+						group.types.type()).label("tail")));
 	}
 	
 	Rule implementsClause() {
@@ -121,8 +152,7 @@ public class StructuresParser extends BaseParser<Node> {
 				group.types.type().label("head"),
 				ZeroOrMore(Sequence(
 						Ch(','), group.basics.optWS(),
-						group.types.type()).label("tail")),
-				set(actions.createImplementsClause(value("head"), values("ZeroOrMore/tail"))));
+						group.types.type()).label("tail")));
 	}
 	
 	public Rule enumDeclaration() {
@@ -134,7 +164,7 @@ public class StructuresParser extends BaseParser<Node> {
 						extendsClause(),
 						implementsClause()).label("addon")).label("addons"),
 				enumBody().label("body"),
-				set(actions.createEnumDeclaration(value("modifiers"), value("typeName"), value("body"), values("addons/addon"))));
+				set(actions.createEnumDeclaration(value("modifiers"), value("typeName"), value("body"), actions.nodes(ADDONS_ADDON_IMPLEMENTS_CLAUSE))));
 	}
 	
 	public Rule annotationDeclaration() {
@@ -146,7 +176,7 @@ public class StructuresParser extends BaseParser<Node> {
 				Ch('{').label("typeOpen"), group.basics.optWS(),
 				ZeroOrMore(annotationElementDeclaration().label("member")).label("members"),
 				Ch('}').label("typeClose"), group.basics.optWS(),
-				set(actions.createAnnotationDeclaration(value("modifiers"), value("name"), values("members/member"), node("typeOpen"), node("typeClose"))));
+				set(actions.createAnnotationDeclaration(value("modifiers"), value("name"), actions.values(MEMBERS_MEMBER), node("typeOpen"), node("typeClose"))));
 	}
 	
 	Rule annotationElementDeclaration() {
@@ -173,7 +203,7 @@ public class StructuresParser extends BaseParser<Node> {
 						Ch(';'), group.basics.optWS(),
 						typeBodyDeclarations())).label("typeBodyDeclarations"),
 				Ch('}'), group.basics.optWS(),
-				set(actions.createEnumBody(value("constants/Sequence/head"), values("constants/Sequence/ZeroOrMore/tail"), value("typeBodyDeclarations"))));
+				set(actions.createEnumBody(actions.value(CONSTANTS_SEQUENCE_HEAD), actions.values(CONSTANTS_SEQUENCE_ZERO_OR_MORE_TAIL), value("typeBodyDeclarations"))));
 	}
 	
 	Rule enumConstant() {
@@ -182,7 +212,7 @@ public class StructuresParser extends BaseParser<Node> {
 				group.basics.identifier().label("name"),
 				Optional(methodArguments()).label("arguments"),
 				Optional(typeBody()).label("body"),
-				set(actions.createEnumConstant(values("annotations/annotation"), value("name"), value("arguments"), value("body"))));
+				set(actions.createEnumConstant(actions.values(ANNOTATIONS_ANNOTATION), value("name"), node("arguments"), value("body"))));
 	}
 	
 	public Rule constructorDeclaration() {
@@ -198,9 +228,9 @@ public class StructuresParser extends BaseParser<Node> {
 						)).label("throwsClause"),
 				FirstOf(
 						Sequence(Ch(';'), group.basics.optWS()),
-						group.statements.blockStatement()).label("body"),
-				set(actions.createConstructorDeclaration(value("modifiers"), value("typeParameters"), value("typeName"), value("params"), 
-						value("throwsClause/Sequence/throwsHead"), values("throwsClause/Sequence/ZeroOrMore/throwsTail"),
+						memberBody()).label("body"),
+				set(actions.createConstructorDeclaration(value("modifiers"), node("typeParameters"), value("typeName"), node("params"), 
+						actions.value(THROWS_CLAUSE_SEQUENCE_THROWS_HEAD), actions.values(THROWS_CLAUSE_SEQUENCE_ZERO_OR_MORE_THROWS_TAIL),
 						value("body"))));
 	}
 	
@@ -216,7 +246,7 @@ public class StructuresParser extends BaseParser<Node> {
 						Sequence(String("default"), group.basics.testLexBreak(), group.basics.optWS()),
 						annotationElementValue())).label("defaultValue"),
 				Ch(';'), group.basics.optWS(),
-				set(actions.createAnnotationMethodDeclaration(value("modifiers"), value("resultType"), value("methodName"), nodes("dims/dim"), value("defaultValue"))));
+				set(actions.createAnnotationMethodDeclaration(value("modifiers"), value("resultType"), value("methodName"), actions.nodes(DIMS_DIM), value("defaultValue"))));
 	}
 	
 	public Rule methodDeclaration() {
@@ -234,12 +264,47 @@ public class StructuresParser extends BaseParser<Node> {
 						)).label("throwsClause"),
 				FirstOf(
 						Sequence(Ch(';'), group.basics.optWS()),
-						group.statements.blockStatement()).label("body"),
-				set(actions.createMethodDeclaration(value("modifiers"), value("typeParameters"), value("resultType"), value("methodName"), value("params"), 
-						nodes("dims/dim"), value("throwsClause/Sequence/throwsHead"), values("throwsClause/Sequence/ZeroOrMore/throwsTail"),
+						memberBody()).label("body"),
+				set(actions.createMethodDeclaration(value("modifiers"), node("typeParameters"), value("resultType"), value("methodName"), node("params"), 
+						actions.nodes(DIMS_DIM), actions.value(THROWS_CLAUSE_SEQUENCE_THROWS_HEAD), actions.values(THROWS_CLAUSE_SEQUENCE_ZERO_OR_MORE_THROWS_TAIL),
 						value("body"))));
 	}
 	
+	/**
+	 * The body of a method, constructor or initializer. If the source asks for lazy bodies, the body is skipped by brace matching
+	 * and a placeholder takes its place; see {@link Source#setLazyBodies(boolean)}.
+	 */
+	Rule memberBody() {
+		return FirstOf(
+				Sequence(
+						new LazyBodyMatcher(group),
+						set(actions.createLazyBodyPlaceholder()),
+						group.basics.optWS()),
+				group.statements.blockStatement());
+	}
+	
+	static class LazyBodyMatcher extends CharSetMatcher<Node> {
+		private final ParserGroup group;
+		
+		public LazyBodyMatcher(ParserGroup group) {
+			super(Characters.of("{"));
+			this.group = group;
+		}
+		
+		@Override public boolean match(MatcherContext<Node> context) {
+			Source source = group.getSource();
+			if (source == null || !source.isLazyBodies() || context.getCurrentChar() != '{') return false;
+			int close = source.matchingBrace(context.getCurrentIndex());
+			if (close == -1) return false;
+			while (context.getCurrentIndex() < close) context.advanceIndex();
+			/* Error recovery edits the input buffer, which can put the precalculated brace out of place. In that case, just parse the body. */
+			if (context.getCurrentChar() != '}') return false;
+			context.advanceIndex();
+			context.createNode();
+			return true;
+		}
+	}
+	
 	Rule methodParameters() {
 		return Sequence(
 				Ch('('), group.basics.optWS(),
@@ -248,8 +313,7 @@ public class StructuresParser extends BaseParser<Node> {
 						ZeroOrMore(Sequence(
 								Ch(','), group.basics.optWS(),
 								methodParameter().label("tail"))))),
-				Ch(')'), group.basics.optWS(),
-				set(actions.createMethodParameters(value("Optional/Sequence/head"), values("Optional/Sequence/ZeroOrMore/Sequence/tail"))));
+				Ch(')'), group.basics.optWS());
 	}
 	
 	Rule methodParameter() {
@@ -259,19 +323,19 @@ public class StructuresParser extends BaseParser<Node> {
 				Optional(Sequence(String("..."), group.basics.optWS())).label("varargs"),
 				group.basics.identifier().label("name"),
 				ZeroOrMore(Sequence(Ch('[').label("open"), group.basics.optWS(), Ch(']').label("closed"), group.basics.optWS()).label("dim")).label("dims"),
-				set(actions.createMethodParameter(value("modifiers"), value("type"), text("varargs"), value("name"), nodes("dims/dim/open"), nodes("dims/dim/closed"))));
+				set(actions.createMethodParameter(value("modifiers"), value("type"), text("varargs"), value("name"), actions.nodes(DIMS_DIM_OPEN), actions.nodes(DIMS_DIM_CLOSED))));
 	}
 	
 	public Rule instanceInitializer() {
 		return Sequence(
-				group.statements.blockStatement().label("initializer"),
+				memberBody().label("initializer"),
 				set(actions.createInstanceInitializer(value("initializer"))));
 	}
 	
 	public Rule staticInitializer() {
 		return Sequence(
 				String("static"), group.basics.testLexBreak(), group.basics.optWS(),
-				group.statements.blockStatement().label("initializer"),
+				memberBody().label("initializer"),
 				set(actions.createStaticInitializer(value("initializer"))));
 	}
 	
@@ -293,14 +357,14 @@ public class StructuresParser extends BaseParser<Node> {
 				ZeroOrMore(Sequence(
 						Ch(','), group.basics.optWS(),
 						variableDefinitionPart()).label("tail")),
-				set(actions.createVariableDefinition(value("type"), value("head"), values("ZeroOrMore/tail"))));
+				set(actions.createVariableDefinition(value("type"), value("head"), actions.values(ZERO_OR_MORE_TAIL))));
 	}
 	
 	Rule variableDefinitionPartNoAssign() {
 		return Sequence(
 				group.basics.identifier().label("varName"),
 				ZeroOrMore(Sequence(Ch('['), group.basics.optWS(), Ch(']'), group.basics.optWS()).label("dim")).label("dims"),
-				set(actions.createVariableDefinitionPart(value("varName"), texts("dims/dim"), null)));
+				set(actions.createVariableDefinitionPart(value("varName"), actions.texts(DIMS_DIM), null)));
 	}
 	
 	Rule variableDefinitionPart() {
@@ -312,7 +376,7 @@ public class StructuresParser extends BaseParser<Node> {
 						FirstOf(
 								group.expressions.arrayInitializer(),
 								group.expressions.anyExpression()))).label("initializer"),
-				set(actions.createVariableDefinitionPart(value("varName"), texts("dims/dim"), value("initializer"))));
+				set(actions.createVariableDefinitionPart(value("varName"), actions.texts(DIMS_DIM), value("initializer"))));
 	}
 	
 	public Rule annotation() {
@@ -335,7 +399,7 @@ public class StructuresParser extends BaseParser<Node> {
 				ZeroOrMore(Sequence(
 						Ch(','), group.basics.optWS(),
 						annotationElement()).label("tail")),
-				set(actions.createAnnotationFromElements(value("head"), values("ZeroOrMore/tail"))));
+				set(actions.createAnnotationFromElements(value("head"), actions.values(ZERO_OR_MORE_TAIL))));
 	}
 	
 	Rule annotationElement() {
@@ -358,7 +422,7 @@ public class StructuresParser extends BaseParser<Node> {
 										annotationElementValue()).label("tail")),
 								Optional(Sequence(Ch(','), group.basics.optWS())))),
 						Ch('}'), group.basics.optWS(),
-						set(actions.createAnnotationElementValueArrayInitializer(value("Optional/Sequence/head"), values("Optional/Sequence/ZeroOrMore/tail")))),
+						set(actions.createAnnotationElementValueArrayInitializer(actions.value(OPTIONAL_SEQUENCE_HEAD), actions.values(OPTIONAL_SEQUENCE_ZERO_OR_MORE_TAIL)))),
 				group.expressions.inlineIfExpressionChaining());
 	}
 	
@@ -380,28 +444,28 @@ public class StructuresParser extends BaseParser<Node> {
 		return Sequence(
 				TestNot(Ch('}')),
 				ZeroOrMore(anyModifier().label("modifier")),
-				set(actions.createModifiers(values("ZeroOrMore/modifier"))));
+				set(actions.createModifiers(actions.values(ZERO_OR_MORE_MODIFIER))));
 	}
 	
 	public Rule methodDeclarationModifiers() {
 		return Sequence(
 				TestNot(Ch('}')),
 				ZeroOrMore(anyModifier().label("modifier")),
-				set(actions.createModifiers(values("ZeroOrMore/modifier"))));
+				set(actions.createModifiers(actions.values(ZERO_OR_MORE_MODIFIER))));
 	}
 	
 	public Rule fieldDeclarationModifiers() {
 		return Sequence(
 				TestNot(Ch('}')),
 				ZeroOrMore(anyModifier().label("modifier")),
-				set(actions.createModifiers(values("ZeroOrMore/modifier"))));
+				set(actions.createModifiers(actions.values(ZERO_OR_MORE_MODIFIER))));
 	}
 	
 	public Rule variableDefinitionModifiers() {
 		return Sequence(
 				TestNot(Ch('}')),
 				ZeroOrMore(anyModifier().label("modifier")),
-				set(actions.createModifiers(values("ZeroOrMore/modifier"))));
+				set(actions.createModifiers(actions.values(ZERO_OR_MORE_MODIFIER))));
 	}
 	
 	public Rule anyModifier() {
@@ -416,7 +480,7 @@ public class StructuresParser extends BaseParser<Node> {
 				group.basics.identifier().label("head"),
 				ZeroOrMore(group.basics.dotIdentifier().label("tail")),
 				Ch(';'), group.basics.optWS(),
-				set(actions.createPackageDeclaration(values("Sequence/annotations/annotation"), value("head"), values("ZeroOrMore/tail"))));
+				set(actions.createPackageDeclaration(actions.values(SEQUENCE_ANNOTATIONS_ANNOTATION), value("head"), actions.values(ZERO_OR_MORE_TAIL))));
 	}
 	
 	public Rule importDeclaration() {
@@ -429,7 +493,7 @@ public class StructuresParser extends BaseParser<Node> {
 						Ch('.'), group.basics.optWS(),
 						Ch('*'), group.basics.optWS())).label("dotStar"),
 				Ch(';'), group.basics.optWS(),
-				set(actions.createImportDeclaration(text("static"), value("head"), values("ZeroOrMore/tail"), text("dotStar"))));
+				set(actions.createImportDeclaration(text("static"), value("head"), actions.values(ZERO_OR_MORE_TAIL), text("dotStar"))));
 	}
 	
 	public Rule compilationUnitEoi() {
@@ -442,6 +506,6 @@ public class StructuresParser extends BaseParser<Node> {
 				Optional(packageDeclaration()).label("package"),
 				ZeroOrMore(importDeclaration().label("import")).label("imports"),
 				ZeroOrMore(anyTypeDeclaration().label("type")).label("types"),
-				set(actions.createCompilationUnit(value("package"), values("imports/import"), values("types/type"))));
+				set(actions.createCompilationUnit(value("package"), actions.values(IMPORTS_IMPORT), actions.values(TYPES_TYPE))));
 	}
 }
@@ -33,8 +33,8 @@ import lombok.ast.TypeVariable;
 import lombok.ast.WildcardKind;
 
 public class TypesActions extends SourceActions {
-	public TypesActions(Source source) {
-		super(source);
+	public TypesActions(ParserGroup group) {
+		super(group);
 	}
 	
 	public Node createPrimitiveType(String text) {
@@ -44,14 +44,10 @@ public class TypesActions extends SourceActions {
 		return posify(new TypeReference().rawParts().addToStart(typeReferencePart));
 	}
 	
-	public Node createTypeReferencePart(org.parboiled.Node<Node> identifier, Node typeArguments) {
+	public Node createTypeReferencePart(org.parboiled.Node<Node> identifier, org.parboiled.Node<Node> typeArguments) {
 		TypeReferencePart result = new TypeReferencePart().astIdentifier(createIdentifierIfNeeded(identifier.getValue(), currentPos()));
 		
-		if (typeArguments instanceof TemporaryNode.TypeArguments) {
-			for (Node arg : ((TemporaryNode.TypeArguments)typeArguments).arguments) {
-				result.rawTypeArguments().addToEnd(arg);
-			}
-		}
+		for (Node arg : elements(typeArguments)) result.rawTypeArguments().addToEnd(arg);
 		
 		posify(result); //We only care about the end position here.
 		return result.setPosition(new Position(identifier.getStartIndex(), result.getPosition().getEnd()));
@@ -73,29 +69,19 @@ public class TypesActions extends SourceActions {
 		}
 		
 		ref.astWildcard(wildcard);
-		source.registerStructure(ref, qmark);
+		source().registerStructure(ref, qmark);
 		for (org.parboiled.Node<Node> childPNode : boundType.getChildren()) {
-			if (childPNode != null) source.registerStructure(ref, childPNode);
+			if (childPNode != null) source().registerStructure(ref, childPNode);
 		}
 		return posify(ref);
 	}
 	
 	public Node createUnboundedWildcardType(org.parboiled.Node<Node> qmark) {
 		TypeReference ref = new TypeReference().astWildcard(WildcardKind.UNBOUND);
-		source.registerStructure(ref, qmark);
+		source().registerStructure(ref, qmark);
 		return posify(ref);
 	}
 	
-	public Node createTypeArguments(Node head, List<Node> tail) {
-		TemporaryNode.TypeArguments ta = new TemporaryNode.TypeArguments();
-		if (head != null) ta.arguments.add(head);
-		if (tail != null) for (Node n : tail) {
-			if (n != null) ta.arguments.add(n);
-		}
-		
-		return posify(ta);
-	}
-	
 	public Node createReferenceType(Node head, List<Node> tail) {
 		TypeReference t = new TypeReference();
 		if (head != null) t.rawParts().addToEnd(head);
@@ -127,11 +113,4 @@ public class TypesActions extends SourceActions {
 		if (tail != null) for (Node t : tail) if (t != null) tv.rawExtending().addToEnd(t);
 		return posify(tv);
 	}
-	
-	public Node createTypeVariables(Node head, List<Node> tail) {
-		TemporaryNode.OrphanedTypeVariables otv = new TemporaryNode.OrphanedTypeVariables();
-		if (head != null) otv.variables.add(head);
-		if (tail != null) for (Node t : tail) otv.variables.add(t);
-		return posify(otv);
-	}
 }
@@ -31,8 +31,14 @@ public class TypesParser extends BaseParser<Node> {
 	final ParserGroup group;
 	final TypesActions actions;
 	
+	static final NodePath ZERO_OR_MORE_SEQUENCE = new NodePath("ZeroOrMore/Sequence");
+	static final NodePath ZERO_OR_MORE_TAIL = new NodePath("ZeroOrMore/tail");
+	static final NodePath OPTIONAL_TYPE_ARGUMENTS = new NodePath("Optional/typeArguments");
+	static final NodePath OPTIONAL_SEQUENCE_TYPE = new NodePath("Optional/Sequence/type");
+	static final NodePath OPTIONAL_SEQUENCE_ZERO_OR_MORE_SEQUENCE_TYPE = new NodePath("Optional/Sequence/ZeroOrMore/Sequence/type");
+	
 	public TypesParser(ParserGroup group) {
-		actions = new TypesActions(group.getSource());
+		actions = new TypesActions(group);
 		this.group = group;
 	}
 	
@@ -49,7 +55,7 @@ public class TypesParser extends BaseParser<Node> {
 				set(),
 				ZeroOrMore(Sequence(
 						Ch('['), group.basics.optWS(), Ch(']'), group.basics.optWS())),
-				set(actions.setArrayDimensionsOfType(value(), texts("ZeroOrMore/Sequence")))).label("type");
+				set(actions.setArrayDimensionsOfType(value(), actions.texts(ZERO_OR_MORE_SEQUENCE)))).label("type");
 	}
 	
 	/**
@@ -76,7 +82,7 @@ public class TypesParser extends BaseParser<Node> {
 		return Sequence(
 				referenceTypePart().label("head"),
 				ZeroOrMore(dotReferenceTypePart().label("tail")),
-				set(actions.createReferenceType(value("head"), values("ZeroOrMore/tail"))));
+				set(actions.createReferenceType(value("head"), actions.values(ZERO_OR_MORE_TAIL))));
 	}
 	
 	Rule dotReferenceTypePart() {
@@ -84,7 +90,7 @@ public class TypesParser extends BaseParser<Node> {
 				Ch('.'), group.basics.optWS(),
 				group.basics.identifier().label("partName"),
 				Optional(typeArguments()),
-				set(actions.createTypeReferencePart(node("partName"), value("Optional/typeArguments"))),
+				set(actions.createTypeReferencePart(node("partName"), actions.node(OPTIONAL_TYPE_ARGUMENTS))),
 				group.basics.optWS());
 	}
 	
@@ -92,7 +98,7 @@ public class TypesParser extends BaseParser<Node> {
 		return Sequence(
 				group.basics.identifier().label("partName"),
 				Optional(typeArguments()),
-				set(actions.createTypeReferencePart(node("partName"), value("Optional/typeArguments"))),
+				set(actions.createTypeReferencePart(node("partName"), actions.node(OPTIONAL_TYPE_ARGUMENTS))),
 				group.basics.optWS());
 	}
 	
@@ -100,7 +106,7 @@ public class TypesParser extends BaseParser<Node> {
 		return Sequence(
 				plainReferenceTypePart().label("head"),
 				ZeroOrMore(dotPlainReferenceTypePart().label("tail")),
-				set(actions.createReferenceType(value("head"), values("ZeroOrMore/tail"))));
+				set(actions.createReferenceType(value("head"), actions.values(ZERO_OR_MORE_TAIL))));
 	}
 	
 	Rule plainReferenceTypePart() {
@@ -129,7 +135,6 @@ public class TypesParser extends BaseParser<Node> {
 								group.basics.optWS(),
 								typeVariable().label("tail"))))),
 				Ch('>'),
-				set(actions.createTypeVariables(value("Optional/Sequence/head"), values("Optional/Sequence/ZeroOrMore/Sequence/tail"))),
 				group.basics.optWS()));
 	}
 	
@@ -145,7 +150,7 @@ public class TypesParser extends BaseParser<Node> {
 						ZeroOrMore(Sequence(
 								Ch('&'), group.basics.optWS(),
 								type())))),
-				set(actions.createTypeVariable(value("identifier"), value("Optional/Sequence/type"), values("Optional/Sequence/ZeroOrMore/Sequence/type"))));
+				set(actions.createTypeVariable(value("identifier"), actions.value(OPTIONAL_SEQUENCE_TYPE), actions.values(OPTIONAL_SEQUENCE_ZERO_OR_MORE_SEQUENCE_TYPE))));
 	}
 	
 	/**
@@ -162,7 +167,6 @@ public class TypesParser extends BaseParser<Node> {
 								group.basics.optWS(),
 								typeArgument().label("tail"))))),
 				Ch('>'),
-				set(actions.createTypeArguments(value("Optional/Sequence/head"), values("Optional/Sequence/ZeroOrMore/Sequence/tail"))),
 				group.basics.optWS())).label("typeArguments");
 	}
 	
@@ -178,6 +178,8 @@ public class TemplateProcessor extends AbstractProcessor {
 		private final boolean suppressSetter;
 		/** If {@code true}, there will be no rawFieldName() method, only an astFieldName() method. */
 		private final boolean forcedType;
+		/** If {@code true}, the node's pending lazy loader must run before this field is accessed. */
+		private final boolean lazilyLoaded;
 		/**
 		 * Never set if {@code astNode} is {@code true}, but may be set otherwise. Contains the expression required to create a copy of the field.
 		 * @see NotChildOfNode#codeToCopy()
@@ -227,6 +229,7 @@ public class TemplateProcessor extends AbstractProcessor {
 				}
 			}
 			this.suppressSetter = ncon != null && ncon.suppressSetter();
+			this.lazilyLoaded = field.getAnnotation(LazilyLoaded.class) != null;
 			if (ncon != null) {
 				this.codeToCopy = ncon.codeToCopy().isEmpty() ? ("this." + this.name) : ncon.codeToCopy();
 			} else {
@@ -523,6 +526,9 @@ public class TemplateProcessor extends AbstractProcessor {
 		}
 		
 		out.write(" {\n");
+		boolean hasLazyFields = false;
+		for (FieldData field : fields) if (field.isLazilyLoaded()) hasLazyFields = true;
+		
 		for (FieldData field : fields) {
 			if (field.isList()) {
 				generateFieldForList(out, className, typeName, fields.size(), field);
@@ -581,6 +587,7 @@ public class TemplateProcessor extends AbstractProcessor {
 		
 		/* children */ {
 			out.write("\t@java.lang.Override public java.util.List<Node> getChildren() {\n");
+			if (hasLazyFields) generateLoadLazyChildren(out);
 			out.write("\t\tjava.util.List<Node> result = new java.util.ArrayList<Node>();\n");
 			for (FieldData data : fields) {
 				if (!data.isAstNode()) continue;
@@ -601,6 +608,7 @@ public class TemplateProcessor extends AbstractProcessor {
 		
 		/* replaceChild */ {
 			out.write("\t@java.lang.Override public boolean replaceChild(Node original, Node replacement) throws lombok.ast.AstException {\n");
+			if (hasLazyFields) generateLoadLazyChildren(out);
 			for (FieldData field : fields) {
 				if (!field.isAstNode()) continue;
 				if (!field.isList()) {
@@ -640,6 +648,7 @@ public class TemplateProcessor extends AbstractProcessor {
 		
 		/* detach */ {
 			out.write("\t@java.lang.Override public boolean detach(Node child) {\n");
+			if (hasLazyFields) generateLoadLazyChildren(out);
 			for (FieldData field : fields) {
 				if (!field.isAstNode()) continue;
 				if (!field.isList()) {
@@ -666,6 +675,7 @@ public class TemplateProcessor extends AbstractProcessor {
 			out.write("\t\tif (visitor.visit");
 			out.write(typeName);
 			out.write("(this)) return;\n");
+			if (hasLazyFields) generateLoadLazyChildren(out);
 			for (FieldData field : fields) {
 				if (!field.isAstNode()) continue;
 				if (field.isList()) {
@@ -690,7 +700,9 @@ public class TemplateProcessor extends AbstractProcessor {
 		/* copy */ {
 			out.write("\t@java.lang.Override public ");
 			out.write(typeName);
-			out.write(" copy() {\n\t\t");
+			out.write(" copy() {\n");
+			if (hasLazyFields) generateLoadLazyChildren(out);
+			out.write("\t\t");
 			out.write(typeName);
 			out.write(" result = new ");
 			out.write(typeName);
@@ -844,6 +856,7 @@ public class TemplateProcessor extends AbstractProcessor {
 		out.write(" ast");
 		out.write(field.titleCasedName());
 		out.write("() {\n");
+		if (field.isLazilyLoaded()) generateLoadLazyChildren(out);
 		if (!field.getRawFormParser().isEmpty()) {
 			out.write("\t\tif (this.errorReasonFor");
 			out.write(field.titleCasedName());
@@ -870,13 +883,19 @@ public class TemplateProcessor extends AbstractProcessor {
 		out.write(";\n\t}\n\t\n");
 	}
 	
+	private void generateLoadLazyChildren(Writer out) throws IOException {
+		out.write("\t\tthis.loadLazyChildren();\n");
+	}
+	
 	private void generateRawGetter(Writer out, FieldData field, boolean basic) throws IOException {
 		out.write("\t");
 		out.write(field.isForcedType() ? "private " : "public ");
 		out.write(basic ? "java.lang.String" : "lombok.ast.Node");
 		out.write(" raw");
 		out.write(field.titleCasedName());
-		out.write("() {\n\t\treturn this.");
+		out.write("() {\n");
+		if (field.isLazilyLoaded()) generateLoadLazyChildren(out);
+		out.write("\t\treturn this.");
 		if (basic) {
 			out.write("raw");
 			out.write(field.titleCasedName());
@@ -908,10 +927,12 @@ public class TemplateProcessor extends AbstractProcessor {
 				field.getName(),
 				initialValueElse,
 				field.isForcedType() ? "private" : "public",
+				field.isLazilyLoaded() ? "\t\tthis.loadLazyChildren();\n" : "",
 		};
 		
 		out.write(String.format(
 				"\t%5$s %1$s raw%2$s(lombok.ast.Node %3$s) {\n" +
+				"%6$s" +
 				"\t\tif (%3$s == this.%3$s) return this;\n" +
 				"\t\tif (%3$s != null) this.adopt((lombok.ast.AbstractNode)%3$s);\n" +
 				"%4$s" +
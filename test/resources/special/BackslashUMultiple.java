@@ -0,0 +1,7 @@
+class BackslashUMultiple {
+    void test() {
+        String x = "\u00A0\u0041" + "\\u0041";
+        char \u0063 = \u0027\u0061\u0027;
+        int y = c + 10;
+    }
+}
\ No newline at end of file
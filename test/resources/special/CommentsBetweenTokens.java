@@ -0,0 +1,33 @@
+class CommentsBetweenTokens {
+    <T> CommentsBetweenTokens(T value) {
+    }
+    
+    CommentsBetweenTokens() {
+        </* < */String>this("value");
+    }
+    
+    java.util /* List */ .List<String> list;
+    
+    @SuppressWarnings(/* value */ value = "all")
+    void test(/* test */ int test) {
+        try {
+            test(/* test */ test);
+        } catch /* catch */ (RuntimeException e) {
+        } catch (/* catch */ Error e) {
+        }
+        this. /* test */ test(test);
+        Object o = new java.util /* ArrayList */ .ArrayList<String>();
+        label: /* label */ for (;;) break /* label */ label;
+        int /* x */ x = 0, /* y */ y;
+        String /* String */ [] array;
+    }
+    
+    enum E { /* A */ A, /* B */ B /* B */ (), C /* C */ { } }
+    
+    class Inner extends /* Object */ Object implements /* Runnable */ Runnable {
+        public void run() throws /* Error */ Error {
+            CommentsBetweenTokens.this. /* list */ list = null;
+            CommentsBetweenTokens /* x */ .super.toString();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+import static lombok.ast.grammar.ParsedSources.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+public class BatchParserTest {
+	private static final int THREADS = 4;
+	
+	private static List<Source> loadSources() throws IOException {
+		List<Source> sources = Lists.newArrayList();
+		for (String dir : new String[] {"test/resources/idempotency", "test/resources/parseErrors"}) {
+			File[] files = new File(dir).listFiles();
+			if (files == null) continue;
+			for (File file : files) {
+				if (!file.getName().endsWith(".java")) continue;
+				sources.add(new Source(Files.toString(file, Charsets.UTF_8), file.getName()));
+			}
+		}
+		return sources;
+	}
+	
+	@Test
+	public void testBatchMatchesSequential() throws IOException {
+		List<Source> batch = loadSources();
+		List<Source> sequential = loadSources();
+		
+		Map<Source, List<ParseProblem>> result = BatchParser.parseAll(batch, THREADS);
+		assertEquals(batch, Lists.newArrayList(result.keySet()));
+		
+		for (int i = 0; i < batch.size(); i++) {
+			Source b = batch.get(i), s = sequential.get(i);
+			s.parseCompilationUnit();
+			assertEquals(b.getName(), describeProblems(s.getProblems()), describeProblems(result.get(b)));
+			if (s.getProblems().isEmpty()) assertEquals(b.getName(), print(s), print(b));
+		}
+	}
+	
+	@Test
+	public void testUnorderedDeliversEverySourceOnce() throws IOException {
+		List<Source> sources = loadSources();
+		final List<Source> delivered = Collections.synchronizedList(Lists.<Source>newArrayList());
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			new BatchParser(executor).parse(sources, BatchParser.Delivery.UNORDERED, new BatchParser.Listener() {
+				@Override public void parsed(Source source, List<ParseProblem> problems) {
+					delivered.add(source);
+				}
+			});
+		} finally {
+			executor.shutdown();
+		}
+		
+		assertEquals(sources.size(), delivered.size());
+		assertTrue(delivered.containsAll(sources));
+	}
+}
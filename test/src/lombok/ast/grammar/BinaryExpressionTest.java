@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import lombok.ast.BinaryExpression;
+import lombok.ast.Expression;
+import lombok.ast.InstanceOf;
+import lombok.ast.Node;
+import lombok.ast.Position;
+
+import org.junit.Test;
+
+public class BinaryExpressionTest {
+	@Test
+	public void testLeftAssociative() {
+		assertTree("((a - b) - c)", "a - b - c");
+		assertTree("(((a / b) * c) % d)", "a / b * c % d");
+		assertTree("(((a & b) ^ c) | d)", "a & b ^ c | d");
+	}
+	
+	@Test
+	public void testPrecedence() {
+		assertTree("(a || (b && (c | d)))", "a || b && c | d");
+		assertTree("((x + y) << z)", "x + y << z");
+		assertTree("((a + (b * c)) - d)", "a + b * c - d");
+		assertTree("((a * b) + (c * d))", "a * b + c * d");
+	}
+	
+	@Test
+	public void testInstanceOf() {
+		assertTree("((a < b) == (c instanceof T))", "a < b == c instanceof T");
+		assertTree("((a << b) instanceof T)", "a << b instanceof T");
+		assertTree("((a instanceof T) != (b instanceof U))", "a instanceof T != b instanceof U");
+	}
+	
+	@Test
+	public void testParentheses() {
+		assertTree("((a + b) * c)", "(a + b) * c");
+		assertTree("(a - (b - c))", "a - (b - c)");
+	}
+	
+	private static void assertTree(String expected, String expression) {
+		Source source = new Source(expression, "Expression.java");
+		source.parseExpression();
+		assertTrue(expression + ": " + source.getProblems(), source.getProblems().isEmpty());
+		assertEquals(expression, expected, describe(source.getNodes().get(0), expression));
+	}
+	
+	/**
+	 * Renders every binary and instanceof expression in parentheses, and checks that each one spans exactly its operands, with the parentheses around them.
+	 */
+	private static String describe(Node node, String in) {
+		String result;
+		Node first, last;
+		if (node instanceof BinaryExpression) {
+			BinaryExpression binary = (BinaryExpression) node;
+			first = binary.astLeft();
+			last = binary.astRight();
+			result = "(" + describe(first, in) + " " + binary.astOperator().getSymbol() + " " + describe(last, in) + ")";
+		} else if (node instanceof InstanceOf) {
+			InstanceOf instanceOf = (InstanceOf) node;
+			first = instanceOf.astObjectReference();
+			last = instanceOf.astTypeReference();
+			result = "(" + describe(first, in) + " instanceof " + describe(last, in) + ")";
+		} else {
+			return in.substring(node.getPosition().getStart(), node.getPosition().getEnd());
+		}
+		
+		String span = in.substring(node.getPosition().getStart(), node.getPosition().getEnd());
+		String operands = in.substring(outer(first).getStart(), outer(last).getEnd());
+		assertEquals(result, operands, span);
+		return result;
+	}
+	
+	/**
+	 * Returns the position of {@code node} including the parentheses around it, if any.
+	 */
+	private static Position outer(Node node) {
+		if (node instanceof Expression && !((Expression) node).astParensPositions().isEmpty()) {
+			List<Position> parens = ((Expression) node).astParensPositions();
+			return parens.get(parens.size() - 1);
+		}
+		return node.getPosition();
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class DispatchMatcherTest {
+	private static final String INPUT = "class A {\n\tvoid m() {\n\t\treturn;\n\t}\n}\n";
+	private static final String[] SKIPPED = {"emptyStatement", "ifStatement", "whileStatement", "doWhileStatement", "breakStatement"};
+	
+	@Test
+	public void testSkipsAlternativesThatCannotStartHere() throws IOException {
+		GrammarProfile dispatched = profile(true);
+		/* The declarations can start with 'r', so they are tried before the return statement. */
+		assertTrue(invocations(dispatched, "localVariableDeclaration") > 0);
+		for (String skipped : SKIPPED) assertEquals(skipped, 0, invocations(dispatched, skipped));
+		
+		GrammarProfile plain = profile(false);
+		for (String skipped : SKIPPED) assertTrue(skipped, invocations(plain, skipped) > 0);
+		long dispatchedTotal = dispatched.getTotal(GrammarProfile.Metric.INVOCATIONS);
+		long plainTotal = plain.getTotal(GrammarProfile.Metric.INVOCATIONS);
+		assertTrue(dispatchedTotal + " >= " + plainTotal, dispatchedTotal < plainTotal);
+	}
+	
+	private static GrammarProfile profile(boolean dispatching) {
+		Source source = new Source(INPUT, "A.java");
+		source.setDispatching(dispatching);
+		GrammarProfile profile = new GrammarProfile();
+		source.addProfileInformation(profile);
+		assertTrue(source.getProblems().isEmpty());
+		return profile;
+	}
+	
+	/**
+	 * Adds up the invocations of the rule labelled {@code label} over every path it was run on.
+	 */
+	private static long invocations(GrammarProfile profile, String label) throws IOException {
+		StringBuilder stacks = new StringBuilder();
+		profile.writeCollapsedStacks(stacks, GrammarProfile.Metric.INVOCATIONS);
+		long total = 0;
+		for (String line : stacks.toString().split("\n")) {
+			String stack = line.substring(0, line.indexOf(' '));
+			if (stack.equals(label) || stack.endsWith(";" + label)) total += Long.parseLong(line.substring(line.indexOf(' ') + 1));
+		}
+		return total;
+	}
+}
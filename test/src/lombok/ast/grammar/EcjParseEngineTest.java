@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+import static lombok.ast.grammar.ParsedSources.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.ast.Node;
+import lombok.ast.ecj.EcjParseEngine;
+import lombok.ast.grammar.RunForEachFileInDirRunner.DirDescriptor;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(RunForEachFileInDirRunner.class)
+public class EcjParseEngineTest extends RunForEachFileInDirRunner.SourceFileBasedTester {
+	@Override
+	protected Collection<DirDescriptor> getDirDescriptors() {
+		return Arrays.asList(
+				DirDescriptor.of(new File("test/resources/idempotency"), true),
+				DirDescriptor.of(new File("test/resources/alias"), true),
+				DirDescriptor.of(new File("test/resources/special"), true));
+	}
+	
+	@Override
+	protected List<ParseEngine> getParseEngines() {
+		return Collections.singletonList(null);
+	}
+	
+	@Test
+	public void testSameTreeAsGrammar(Source reference) {
+		final boolean[] parsed = {false};
+		Source source = new Source(reference.getRawInput(), reference.getName());
+		source.setParseEngine(new ParseEngine() {
+			@Override public Node parseCompilationUnit(String input, String name) {
+				Node unit = new EcjParseEngine().parseCompilationUnit(input, name);
+				parsed[0] = unit != null;
+				return unit;
+			}
+		});
+		
+		assertEquals(print(reference), print(source));
+		assertTrue("ecj left the file to the grammar", parsed[0]);
+		assertEquals(describePositions(reference), describePositions(source));
+	}
+}
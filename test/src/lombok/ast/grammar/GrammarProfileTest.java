@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class GrammarProfileTest {
+	@Test
+	public void testAggregatesAcrossSources() throws IOException {
+		GrammarProfile profile = new GrammarProfile();
+		new Source("class A {\n\tint x;\n}\n", "A.java").addProfileInformation(profile);
+		new Source("class B {\n\tvoid m() {\n\t\treturn;\n\t}\n}\n", "B.java").addProfileInformation(profile);
+		assertEquals(2, profile.getRuns());
+		
+		StringBuilder stacks = new StringBuilder();
+		profile.writeCollapsedStacks(stacks, GrammarProfile.Metric.INVOCATIONS);
+		assertTrue(stacks.toString(), stacks.toString().startsWith("compilationUnitEoi 2\n"));
+		assertTrue(stacks.toString(), stacks.toString().contains("compilationUnitEoi;compilationUnit "));
+		
+		StringBuilder table = new StringBuilder();
+		profile.writeTable(table, GrammarProfile.Metric.INVOCATIONS, 3);
+		String[] rows = table.toString().split("\n");
+		assertEquals(4, rows.length);
+		assertTrue(rows[0].startsWith("invocations\t"));
+		for (int i = 2; i < rows.length; i++) {
+			long previous = Long.parseLong(rows[i - 1].split("\t")[0]);
+			assertTrue(table.toString(), previous >= Long.parseLong(rows[i].split("\t")[0]));
+		}
+	}
+	
+	@Test
+	public void testCollapsedStacksFrames() throws IOException {
+		GrammarProfile profile = new GrammarProfile();
+		new Source("class A {\n\tint x = 1, y;\n\tString s = \"a b\";\n}\n", "A.java").addProfileInformation(profile);
+		
+		StringBuilder stacks = new StringBuilder();
+		profile.writeCollapsedStacks(stacks, GrammarProfile.Metric.INVOCATIONS);
+		assertTrue(stacks.toString(), stacks.toString().contains("%3B"));
+		for (String line : stacks.toString().split("\n")) {
+			assertEquals(line, 1, line.length() - line.replace(" ", "").length());
+			String stack = line.substring(0, line.indexOf(' '));
+			assertFalse(line, stack.startsWith(";") || stack.endsWith(";") || stack.contains(";;"));
+			Long.parseLong(line.substring(line.indexOf(' ') + 1));
+		}
+	}
+	
+	@Test
+	public void testEscapeFrame() {
+		assertEquals("'%3B'", GrammarProfile.escapeFrame("';'"));
+		assertEquals("a%20b%25", GrammarProfile.escapeFrame("a b%"));
+		assertEquals("%", GrammarProfile.escapeFrame(""));
+		assertEquals("fieldDeclaration", GrammarProfile.escapeFrame("fieldDeclaration"));
+	}
+}
@@ -26,8 +26,10 @@ import static lombok.ast.grammar.RunForEachFileInDirRunner.fixLineEndings;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import lombok.ast.Node;
 import lombok.ast.grammar.RunForEachFileInDirRunner.DirDescriptor;
@@ -44,6 +46,11 @@ public class IdempotencyTest extends RunForEachFileInDirRunner.SourceFileBasedTe
 		return Collections.singleton(DirDescriptor.of(new File("test/resources/idempotency"), true));
 	}
 	
+	@Override
+	protected List<ParseEngine> getParseEngines() {
+		return Arrays.<ParseEngine>asList(null, new RecursiveDescentParseEngine());
+	}
+	
 	@Test
 	public void testIdempotency(Source source) throws IOException {
 		source.parseCompilationUnit();
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import lombok.ast.ForwardingAstVisitor;
+import lombok.ast.Identifier;
+
+import org.junit.Test;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Lists;
+
+public class IdentifierInterningTest {
+	private static final String INPUT = "class A {\n\tString value;\n\tA(String value) {\n\t\tthis.value = value;\n\t}\n}\n";
+	
+	@Test
+	public void testKeywords() {
+		for (String keyword : BasicsParser.KEYWORDS) assertTrue(keyword, BasicsParser.isKeyword(keyword));
+		for (String word : new String[] {"", "a", "i", "Int", "integer", "classes", "clas", "value", "synchronizedX", "_", "$"}) {
+			assertFalse(word, BasicsParser.isKeyword(word));
+		}
+	}
+	
+	@Test
+	public void testSharedBetweenSources() {
+		Interner<String> interner = Interners.newWeakInterner();
+		Source firstSource = new Source(INPUT, "A.java");
+		firstSource.setIdentifierInterner(interner);
+		Source secondSource = new Source(INPUT, "A.java");
+		secondSource.setIdentifierInterner(interner);
+		List<String> first = identifiers(firstSource);
+		List<String> second = identifiers(secondSource);
+		assertEquals(first, second);
+		for (int i = 0; i < first.size(); i++) assertSame(first.get(i), second.get(i));
+	}
+	
+	@Test
+	public void testWithoutInterner() {
+		List<String> texts = identifiers(new Source(INPUT, "A.java"));
+		int first = texts.indexOf("value");
+		int last = texts.lastIndexOf("value");
+		assertTrue(first < last);
+		assertNotSame(texts.get(first), texts.get(last));
+	}
+	
+	private static List<String> identifiers(Source source) {
+		source.parseCompilationUnit();
+		assertTrue(source.getProblems().isEmpty());
+		final List<String> texts = Lists.newArrayList();
+		source.getNodes().get(0).accept(new ForwardingAstVisitor() {
+			@Override public boolean visitIdentifier(Identifier node) {
+				texts.add(node.astValue());
+				return true;
+			}
+		});
+		return texts;
+	}
+}
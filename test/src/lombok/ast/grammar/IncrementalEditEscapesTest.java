@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+import static lombok.ast.grammar.ParsedSources.*;
+
+import org.junit.Test;
+
+public class IncrementalEditEscapesTest {
+	@Test
+	public void testRemovalThatCreatesEscape() {
+		String input = "class A {\n\tvoid m() {\n\t\tString s = \"\\zu0041\";\n\t}\n}\n";
+		assertEditMatchesFullParse(input, input.indexOf('z'), 1, "");
+	}
+	
+	@Test
+	public void testInsertionThatCreatesEscape() {
+		String input = "class A {\n\tvoid m() {\n\t\tString s = \"\\n\";\n\t}\n}\n";
+		assertEditMatchesFullParse(input, input.indexOf('\\') + 1, 0, "u0041");
+	}
+	
+	private static void assertEditMatchesFullParse(String input, int offset, int removedLength, String insertedText) {
+		Source source = new Source(input, "A.java");
+		source.parseCompilationUnit();
+		assertTrue(source.getProblems().isEmpty());
+		assertFalse(source.getPositionIndex().hasDeltas());
+		
+		assertFalse("an edit that creates an escape can't be patched in", source.applyEdit(offset, removedLength, insertedText));
+		
+		Source full = new Source(source.getRawInput(), source.getName());
+		full.parseCompilationUnit();
+		assertTrue(full.getPositionIndex().hasDeltas());
+		assertEquals(full.getProblems(), source.getProblems());
+		assertEquals(print(full), print(source));
+		assertEquals(describePositions(full), describePositions(source));
+		assertEquals(full.getPositionIndex().hasDeltas(), source.getPositionIndex().hasDeltas());
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+import static lombok.ast.grammar.ParsedSources.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+
+import lombok.ast.Block;
+import lombok.ast.ForwardingAstVisitor;
+import lombok.ast.Node;
+import lombok.ast.grammar.RunForEachFileInDirRunner.DirDescriptor;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(RunForEachFileInDirRunner.class)
+public class IncrementalEditTest extends RunForEachFileInDirRunner.SourceFileBasedTester {
+	private static final String INSERTION = "\n\t\tint incrementalEditTest = 10;";
+	
+	@Override
+	protected Collection<DirDescriptor> getDirDescriptors() {
+		return Arrays.asList(DirDescriptor.of(new File("test/resources/idempotency"), true));
+	}
+	
+	@Test
+	public void testEditInsideBlockMatchesFullParse(Source source) {
+		source.parseCompilationUnit();
+		if (!source.getProblems().isEmpty()) return;
+		
+		final Block[] firstBlock = new Block[1];
+		source.getNodes().get(0).accept(new ForwardingAstVisitor() {
+			@Override public boolean visitNode(Node node) {
+				if (firstBlock[0] == null && node instanceof Block && !node.getPosition().isUnplaced()) firstBlock[0] = (Block) node;
+				return firstBlock[0] != null;
+			}
+		});
+		if (firstBlock[0] == null) return;
+		
+		assertTrue(source.applyEdit(firstBlock[0].getPosition().getStart() + 1, 0, INSERTION));
+		
+		Source full = new Source(source.getRawInput(), source.getName());
+		full.parseCompilationUnit();
+		assertEquals(full.getProblems(), source.getProblems());
+		assertEquals(print(full), print(source));
+		assertEquals(describePositions(full), describePositions(source));
+	}
+}
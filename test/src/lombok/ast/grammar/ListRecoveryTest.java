@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.ast.ConstructorInvocation;
+import lombok.ast.DanglingNodes;
+import lombok.ast.Expression;
+import lombok.ast.ForwardingAstVisitor;
+import lombok.ast.MethodDeclaration;
+import lombok.ast.MethodInvocation;
+import lombok.ast.Node;
+import lombok.ast.StrictListAccessor;
+import lombok.ast.VariableDefinition;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class ListRecoveryTest {
+	@Test
+	public void testMissingCommaBetweenArguments() {
+		assertArguments("b(x y)", "x");
+		assertArguments("this.b(x y)", "x");
+		assertArguments("new B(x y)", "x");
+	}
+	
+	@Test
+	public void testExtraTokenAfterArgument() {
+		assertArguments("b(x, y z)", "x", "y");
+		assertArguments("b((x)", "x");
+	}
+	
+	@Test
+	public void testMissingCommaBetweenParameters() {
+		assertParameters("void a(int x int y) {\n}\n", "x", "y");
+	}
+	
+	@Test
+	public void testExtraTokenAfterParameter() {
+		assertParameters("void a(int x, int y z) {\n}\n", "x", "y");
+		assertParameters("void a(int x;) {\n}\n", "x");
+	}
+	
+	private static void assertArguments(String expression, String... expected) {
+		String input = "class A {\n\tObject a() {\n\t\treturn " + expression + ";\n\t}\n}\n";
+		Source source = new Source(input, "A.java");
+		source.parseCompilationUnit();
+		assertFalse(expression, source.getProblems().isEmpty());
+		
+		final List<StrictListAccessor<Expression, ?>> found = Lists.newArrayList();
+		for (Node node : source.getNodes()) node.accept(new ForwardingAstVisitor() {
+			@Override public boolean visitMethodInvocation(MethodInvocation node) {
+				found.add(node.astArguments());
+				return false;
+			}
+			
+			@Override public boolean visitConstructorInvocation(ConstructorInvocation node) {
+				found.add(node.astArguments());
+				return false;
+			}
+		});
+		assertEquals(expression, 1, found.size());
+		
+		List<String> arguments = Lists.newArrayList();
+		for (Expression argument : found.get(0)) arguments.add(text(input, argument));
+		assertEquals(expression, Arrays.asList(expected), arguments);
+		assertNoDanglingNodes(expression, source);
+	}
+	
+	private static void assertParameters(String member, String... expected) {
+		Source source = new Source(member, "A.java");
+		source.parseMember();
+		assertFalse(member, source.getProblems().isEmpty());
+		assertEquals(member, 1, source.getNodes().size());
+		assertTrue(member, source.getNodes().get(0) instanceof MethodDeclaration);
+		
+		List<String> parameters = Lists.newArrayList();
+		for (VariableDefinition parameter : ((MethodDeclaration) source.getNodes().get(0)).astParameters()) {
+			parameters.add(parameter.astVariables().first().astName().astValue());
+		}
+		assertEquals(member, Arrays.asList(expected), parameters);
+		assertNoDanglingNodes(member, source);
+	}
+	
+	/**
+	 * Whatever recovery made of a list ends up either in the list or as a dangling node; for these inputs it all ends up in the list.
+	 */
+	private static void assertNoDanglingNodes(final String input, Source source) {
+		for (Node node : source.getNodes()) node.accept(new ForwardingAstVisitor() {
+			@Override public boolean visitNode(Node node) {
+				assertEquals(input, 0, DanglingNodes.getDanglingNodes(node).size());
+				return false;
+			}
+		});
+	}
+	
+	private static String text(String input, Node node) {
+		return input.substring(node.getPosition().getStart(), node.getPosition().getEnd());
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+import static lombok.ast.grammar.ParsedSources.*;
+
+import java.util.List;
+
+import lombok.ast.ForwardingAstVisitor;
+import lombok.ast.MethodDeclaration;
+import lombok.ast.Node;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class MemberRecoveryTest {
+	private static final String BROKEN_MEMBER =
+			"class A {\n" +
+			"\t/** Adds. */\n" +
+			"\tint a(int x) {\n\t\treturn x + 1;\n\t}\n" +
+			"\tvoid b() {\n\t\tint y = ;\n\t}\n" +
+			"\tString c() {\n\t\treturn \"}\";\n\t}\n" +
+			"}\n";
+	
+	private static final String BROKEN_HEADER = "clas A {\n\tvoid a() {}\n\tvoid b() {}\n}\n";
+	
+	@Test
+	public void testDamageStaysInMember() {
+		Source source = new Source(BROKEN_MEMBER, "A.java");
+		source.setMemberRecovery(true);
+		List<ParseProblem> problems = source.getProblems();
+		assertFalse(problems.isEmpty());
+		
+		int bStart = BROKEN_MEMBER.indexOf("\tvoid b()");
+		int bEnd = BROKEN_MEMBER.indexOf("\tString c()");
+		for (ParseProblem problem : problems) {
+			assertTrue(problem.toString(), problem.getPosition().getStart() >= bStart && problem.getPosition().getEnd() <= bEnd);
+		}
+		
+		List<MethodDeclaration> methods = methods(source);
+		assertEquals("a", methods.get(0).astMethodName().astValue());
+		assertEquals(BROKEN_MEMBER.indexOf("int a("), methods.get(0).getPosition().getStart());
+		assertNotNull(methods.get(0).astJavadoc());
+		MethodDeclaration c = methods.get(methods.size() - 1);
+		assertEquals("c", c.astMethodName().astValue());
+		assertEquals(BROKEN_MEMBER.indexOf("String c("), c.getPosition().getStart());
+		assertEquals(BROKEN_MEMBER.lastIndexOf('}', BROKEN_MEMBER.length() - 3) + 1, c.getPosition().getEnd());
+	}
+	
+	@Test
+	public void testErrorOutsideMembers() {
+		Source reference = new Source(BROKEN_HEADER, "A.java");
+		Source source = new Source(BROKEN_HEADER, "A.java");
+		source.setMemberRecovery(true);
+		assertEquals(describeProblems(reference.getProblems()), describeProblems(source.getProblems()));
+	}
+	
+	@Test
+	public void testCleanSource() {
+		Source source = new Source(BROKEN_MEMBER.replace("int y = ;", "int y = 0;"), "A.java");
+		source.setMemberRecovery(true);
+		assertTrue(source.getProblems().isEmpty());
+		assertEquals(3, methods(source).size());
+	}
+	
+	private static List<MethodDeclaration> methods(Source source) {
+		final List<MethodDeclaration> methods = Lists.newArrayList();
+		for (Node node : source.getNodes()) node.accept(new ForwardingAstVisitor() {
+			@Override public boolean visitMethodDeclaration(MethodDeclaration node) {
+				methods.add(node);
+				return false;
+			}
+		});
+		return methods;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+import static lombok.ast.grammar.ParsedSources.*;
+
+import lombok.ast.CompilationUnit;
+import lombok.ast.Node;
+import lombok.ast.ecj.EcjParseEngine;
+
+import org.junit.Test;
+
+public class ParseEngineTest {
+	private static final String INPUT = "/** A type. */\nclass A {\n\t// A field.\n\tint x;\n}\n";
+	
+	@Test
+	public void testUsesEngineResult() {
+		final Node unit = new Source(INPUT, "A.java").getNodes().get(0);
+		Source source = new Source(INPUT, "A.java");
+		source.setParseEngine(new ParseEngine() {
+			@Override public Node parseCompilationUnit(String input, String name) {
+				return unit;
+			}
+		});
+		assertSame(unit, source.getNodes().get(0));
+		assertTrue(source.getProblems().isEmpty());
+		
+		/* Structures need the grammar's parse tree, so asking for them reparses with the grammar. */
+		assertFalse(source.getSourceStructures().isEmpty());
+		assertNotSame(unit, source.getNodes().get(0));
+	}
+	
+	@Test
+	public void testFallsBackToGrammar() {
+		final int[] calls = {0};
+		Source source = new Source("class A {\n\tint x = ;\n}\n", "A.java");
+		source.setParseEngine(new ParseEngine() {
+			@Override public Node parseCompilationUnit(String input, String name) {
+				calls[0]++;
+				return null;
+			}
+		});
+		assertFalse(source.getProblems().isEmpty());
+		assertEquals(1, source.getNodes().size());
+		assertEquals(1, calls[0]);
+	}
+	
+	@Test
+	public void testEcjParseEngine() {
+		Source source = new Source(INPUT, "A.java");
+		source.setParseEngine(new EcjParseEngine());
+		assertTrue(source.getProblems().isEmpty());
+		assertTrue(source.getNodes().get(0) instanceof CompilationUnit);
+		
+		Source broken = new Source("class A {\n\tint x = ;\n}\n", "A.java");
+		broken.setParseEngine(new EcjParseEngine());
+		assertFalse(broken.getProblems().isEmpty());
+	}
+	
+	@Test
+	public void testEcjParseEngineDoesNotDecodeEscapesTwice() {
+		/* The escaped backslash decodes to a backslash-u that the grammar leaves alone, so all of the body is one comment. */
+		String input = "class A {\n\t/* \\u005cu002a/ int x; /* */\n}\n";
+		Source reference = new Source(input, "A.java");
+		Source source = new Source(input, "A.java");
+		source.setParseEngine(new EcjParseEngine());
+		assertTrue(source.getProblems().isEmpty());
+		assertEquals(print(reference), print(source));
+		assertEquals(describePositions(reference), describePositions(source));
+		assertTrue(((CompilationUnit) source.getNodes().get(0)).astTypeDeclarations().first().astBody().astMembers().isEmpty());
+	}
+	
+	@Test
+	public void testRecursiveDescentParseEngine() {
+		String input = "package a;\nimport java.util.*;\n" + INPUT.replace("int x;", "int x = 1 + 2 * y[0] >>> 1, z = (int) -x;\n\t<T> T m(T... t) { label: for (;;) break label; return t[0]; }");
+		Source reference = new Source(input, "A.java");
+		Source source = new Source(input, "A.java");
+		source.setParseEngine(new RecursiveDescentParseEngine());
+		assertTrue(source.getProblems().isEmpty());
+		assertEquals(print(reference), print(source));
+		assertEquals(describePositions(reference), describePositions(source));
+		
+		assertNull(new RecursiveDescentParseEngine().parseCompilationUnit("class A {\n\tint x = ;\n}\n", "A.java"));
+	}
+}
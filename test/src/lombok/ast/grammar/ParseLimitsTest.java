@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import lombok.ast.CompilationUnit;
+import lombok.ast.TypeDeclaration;
+
+import org.junit.Test;
+
+public class ParseLimitsTest {
+	private static final String INPUT = "class A {\n\tint x = 1 + 2;\n\tvoid a() {\n\t\tb(x, x * 3);\n\t}\n}\n";
+	
+	@Test
+	public void testStepBudget() {
+		Source source = new Source(INPUT, "A.java");
+		source.setStepBudget(3);
+		assertAborted(source, ParseAbortedProblem.Reason.STEP_BUDGET);
+		
+		Source generous = new Source(INPUT, "A.java");
+		generous.setStepBudget(1000000);
+		assertTrue(generous.getProblems().isEmpty());
+		assertEquals(1, generous.getNodes().size());
+	}
+	
+	@Test
+	public void testPartialResult() {
+		int fieldEnd = INPUT.indexOf(';') + 1;
+		boolean abortedAfterField = false;
+		for (int budget = 1; ; budget++) {
+			Source source = new Source(INPUT, "A.java");
+			source.setStepBudget(budget);
+			if (source.getProblems().isEmpty()) break;
+			assertAborted(source, ParseAbortedProblem.Reason.STEP_BUDGET);
+			if (source.getProblems().get(0).getPosition().getStart() < INPUT.indexOf("void")) continue;
+			abortedAfterField = true;
+			String printed = ParsedSources.print(source);
+			assertTrue(printed, printed.contains("class A"));
+			assertTrue(printed, printed.contains("int x = 1 + 2;"));
+			CompilationUnit unit = (CompilationUnit) source.getNodes().get(0);
+			TypeDeclaration type = unit.astTypeDeclarations().first();
+			assertEquals(fieldEnd, type.astBody().rawMembers().first().getPosition().getEnd());
+		}
+		assertTrue("no budget ran out after the field", abortedAfterField);
+	}
+	
+	@Test
+	public void testDeadline() {
+		Source source = new Source(INPUT, "A.java");
+		source.setDeadline(System.currentTimeMillis() - 1);
+		assertAborted(source, ParseAbortedProblem.Reason.DEADLINE);
+	}
+	
+	@Test
+	public void testDeadlineDuringRecovery() {
+		StringBuilder malformed = new StringBuilder("class A {\n");
+		for (int i = 0; i < 20; i++) malformed.append("\tvoid m").append(i).append("() {\n\t\tf(").append(i).append(", );\n\t}\n");
+		String input = malformed.append("}\n").toString();
+		/* Builds this thread's grammar, so the deadline below only has to cover the parse itself. */
+		new Source(INPUT, "A.java").getProblems();
+		
+		/* The first pass stops at the first error almost immediately; recovering from all of them takes far longer. */
+		Source source = new Source(input, "A.java");
+		source.setDeadline(System.currentTimeMillis() + 200);
+		assertAborted(source, ParseAbortedProblem.Reason.DEADLINE);
+		assertTrue("aborted before recovery started", source.getProblems().get(0).getPosition().getStart() > input.indexOf(", )"));
+	}
+	
+	@Test
+	public void testCancel() {
+		Source source = new Source(INPUT, "A.java");
+		source.cancel();
+		assertAborted(source, ParseAbortedProblem.Reason.CANCELLED);
+		
+		source.clear();
+		assertTrue("cancel only applies to a single parse run", source.getProblems().isEmpty());
+	}
+	
+	@Test
+	public void testMemberExecutor() {
+		StringBuilder large = new StringBuilder("class Large {\n");
+		for (int i = 0; large.length() < 20000; i++) {
+			large.append("\tint f").append(i).append(" = ").append(i).append(";\n\tvoid m").append(i).append("() {\n\t\tf").append(i).append("++;\n\t}\n");
+		}
+		String input = large.append("}\n").toString();
+		
+		/* Finds the smallest budget that a sequential parse fits in. */
+		long low = 1, high = 1 << 24;
+		while (low < high) {
+			long budget = (low + high) / 2;
+			Source source = new Source(input, "Large.java");
+			source.setStepBudget(budget);
+			if (source.getProblems().isEmpty()) high = budget;
+			else low = budget + 1;
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Source generous = new Source(input, "Large.java");
+			generous.setMemberExecutor(executor);
+			generous.setStepBudget(1 << 24);
+			assertTrue(generous.getProblems().toString(), generous.getProblems().isEmpty());
+			
+			Source half = new Source(input, "Large.java");
+			half.setMemberExecutor(executor);
+			half.setStepBudget(low / 2);
+			assertAborted(half, ParseAbortedProblem.Reason.STEP_BUDGET);
+			
+			Source cancelled = new Source(input, "Large.java");
+			cancelled.setMemberExecutor(executor);
+			cancelled.cancel();
+			assertAborted(cancelled, ParseAbortedProblem.Reason.CANCELLED);
+			cancelled.clear();
+			assertTrue(cancelled.getProblems().toString(), cancelled.getProblems().isEmpty());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	private static void assertAborted(Source source, ParseAbortedProblem.Reason reason) {
+		List<ParseProblem> problems = source.getProblems();
+		assertEquals(1, problems.size());
+		assertTrue(problems.get(0) instanceof ParseAbortedProblem);
+		assertEquals(reason, ((ParseAbortedProblem) problems.get(0)).getReason());
+		assertEquals(source.getRawInput().length(), problems.get(0).getPosition().getEnd());
+		assertEquals(1, source.getNodes().size());
+		assertTrue(source.getNodes().get(0) instanceof CompilationUnit);
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+import static lombok.ast.grammar.ParsedSources.*;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import lombok.ast.grammar.RunForEachFileInDirRunner.DirDescriptor;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Checks that each optional parse mode produces the same tree, with the same positions, as the default mode, and, with {@code lombok.ast.test.extended} set,
+ * times each mode against the default. Also counts the matcher invocations with and without dispatching, which are reported with {@code lombok.ast.test.verbose}.
+ */
+@RunWith(RunForEachFileInDirRunner.class)
+public class ParseModePerformanceTest extends RunForEachFileInDirRunner.SourceFileBasedTester {
+	private static final int REPS = 20;
+	private static final boolean VERBOSE = System.getProperty("lombok.ast.test.verbose") != null;
+	private static final boolean EXTENDED = System.getProperty("lombok.ast.test.extended") != null;
+	private static final Map<Mode, Long> totals = new EnumMap<Mode, Long>(Mode.class);
+	private static long charsTotal;
+	private static long dispatchedInvocations, plainInvocations;
+	private static final ExecutorService MEMBER_EXECUTOR = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), new ThreadFactoryBuilder().setDaemon(true).build());
+	
+	private enum Mode {
+		DEFAULT {
+			@Override void configure(Source source) {}
+		},
+		MEMOIZING {
+			@Override void configure(Source source) {
+				source.setMemoizing(true);
+			}
+		},
+		RECOVERING_ONLY {
+			@Override void configure(Source source) {
+				source.setFastPath(false);
+			}
+		},
+		PARALLEL_MEMBERS {
+			@Override void configure(Source source) {
+				source.setMemberExecutor(MEMBER_EXECUTOR);
+			}
+		},
+		PLAIN_FIRST_OF {
+			@Override void configure(Source source) {
+				source.setDispatching(false);
+			}
+		},
+		RECURSIVE_DESCENT {
+			@Override void configure(Source source) {
+				source.setParseEngine(new RecursiveDescentParseEngine());
+			}
+		};
+		
+		abstract void configure(Source source);
+		
+		Source create(Source original) {
+			Source source = new Source(original.getRawInput(), original.getName());
+			configure(source);
+			return source;
+		}
+	}
+	
+	@AfterClass
+	public void summary() {
+		if (VERBOSE) {
+			System.out.printf("[%50s] dispatching: %d plain FirstOf: %d [%6.02f]\n", "*** MATCHER INVOCATIONS ***",
+					dispatchedInvocations, plainInvocations, (double) plainInvocations / Math.max(1, dispatchedInvocations));
+		}
+		if (VERBOSE && EXTENDED) {
+			report("*** TOTALS ***", totals);
+			long taken = totals.get(Mode.DEFAULT);
+			System.out.printf("[%50s] default: %.0f chars/ms\n", "*** THROUGHPUT ***", (double) charsTotal * REPS / Math.max(1, taken));
+		}
+	}
+	
+	@Override protected Collection<DirDescriptor> getDirDescriptors() {
+		List<DirDescriptor> descriptors = Lists.newArrayList();
+		descriptors.add(DirDescriptor.of(new File("test/resources/idempotency"), true));
+		descriptors.add(DirDescriptor.of(new File("test/resources/performance"), true));
+		return descriptors;
+	}
+	
+	@Test
+	public boolean testParseModes(Source original) {
+		Source reference = Mode.DEFAULT.create(original);
+		reference.parseCompilationUnit();
+		String expected = print(reference);
+		List<String> expectedPositions = describePositions(reference);
+		for (Mode mode : Mode.values()) {
+			Source source = mode.create(original);
+			source.parseCompilationUnit();
+			assertEquals(mode.name(), reference.getProblems(), source.getProblems());
+			assertEquals(mode.name(), expected, print(source));
+			assertEquals(mode.name(), expectedPositions, describePositions(source));
+		}
+		
+		/* Dispatching only skips alternatives that would fail on their first character. */
+		long dispatched = countInvocations(Mode.DEFAULT.create(original));
+		long plain = countInvocations(Mode.PLAIN_FIRST_OF.create(original));
+		assertTrue(dispatched + " > " + plain, dispatched <= plain);
+		dispatchedInvocations += dispatched;
+		plainInvocations += plain;
+		
+		if (!EXTENDED) return true;
+		
+		Map<Mode, Long> taken = new EnumMap<Mode, Long>(Mode.class);
+		for (Mode mode : Mode.values()) {
+			long time = time(mode, original);
+			taken.put(mode, time);
+			Long total = totals.get(mode);
+			totals.put(mode, total == null ? time : total + time);
+		}
+		charsTotal += original.getRawInput().length();
+		
+		if (VERBOSE) report(original.getName(), taken);
+		return true;
+	}
+	
+	private static void report(String name, Map<Mode, Long> taken) {
+		long takenByDefault = Math.max(1, taken.get(Mode.DEFAULT));
+		StringBuilder line = new StringBuilder(String.format("[%50s]", name));
+		for (Map.Entry<Mode, Long> entry : taken.entrySet()) {
+			line.append(String.format(" %s: %5d", entry.getKey().name().toLowerCase(), entry.getValue()));
+			if (entry.getKey() != Mode.DEFAULT) line.append(String.format(" [%6.02f]", (double) entry.getValue() / takenByDefault));
+		}
+		System.out.println(line);
+	}
+	
+	private static long countInvocations(Source source) {
+		GrammarProfile profile = new GrammarProfile();
+		source.addProfileInformation(profile);
+		return profile.getTotal(GrammarProfile.Metric.INVOCATIONS);
+	}
+	
+	private static long time(Mode mode, Source original) {
+		mode.create(original).parseCompilationUnit();
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < REPS; i++) mode.create(original).parseCompilationUnit();
+		return System.currentTimeMillis() - start;
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.util.List;
+
+import lombok.ast.ForwardingAstVisitor;
+import lombok.ast.Node;
+import lombok.ast.printer.SourcePrinter;
+import lombok.ast.printer.TextFormatter;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Renders the results of parsing a {@link Source} in forms that tests can compare, such as the results of two different parse modes.
+ */
+final class ParsedSources {
+	private ParsedSources() {}
+	
+	/**
+	 * Prints the first node of {@code source}, or returns the empty string if it has none.
+	 */
+	static String print(Source source) {
+		if (source.getNodes().isEmpty()) return "";
+		TextFormatter formatter = new TextFormatter();
+		source.getNodes().get(0).accept(new SourcePrinter(formatter));
+		return formatter.finish();
+	}
+	
+	/**
+	 * Lists the type and position of every node of {@code source}, in tree order.
+	 */
+	static List<String> describePositions(Source source) {
+		final List<String> result = Lists.newArrayList();
+		for (Node node : source.getNodes()) node.accept(new ForwardingAstVisitor() {
+			@Override public boolean visitNode(Node node) {
+				result.add(node.getClass().getSimpleName() + "[" + node.getPosition().getStart() + "-" + node.getPosition().getEnd() + "]");
+				return false;
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * Lists the type and position of every problem in {@code problems}. The messages are left out; parboiled's parse errors don't
+	 * describe themselves, so the messages of the same error found by two different parse runs differ.
+	 */
+	static List<String> describeProblems(List<ParseProblem> problems) {
+		List<String> result = Lists.newArrayList();
+		for (ParseProblem problem : problems) {
+			result.add(problem.getClass().getSimpleName() + "[" + problem.getPosition().getStart() + "-" + problem.getPosition().getEnd() + "]");
+		}
+		return result;
+	}
+}
@@ -50,7 +50,9 @@ import org.junit.runner.RunWith;
 import org.parboiled.Parboiled;
 import org.parboiled.ReportingParseRunner;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
+import com.google.common.io.Files;
 import com.sun.tools.javac.main.JavaCompiler;
 import com.sun.tools.javac.util.Context;
 
@@ -61,6 +63,7 @@ public class PerformanceTest extends RunForEachFileInDirRunner.SourceFileBasedTe
 	private static final boolean EXTENDED = System.getProperty("lombok.ast.test.extended") != null;
 	private static final double MAX_FACTOR = 15;
 	private static long javacTotal, lombokTotal, ecjTotal, parboiledTotal;
+	private static final GrammarProfile PROFILE = new GrammarProfile();
 	
 	@BeforeClass
 	public void init() {
@@ -79,6 +82,25 @@ public class PerformanceTest extends RunForEachFileInDirRunner.SourceFileBasedTe
 					javacTotal, (double)lombokTotal / javacTotal,
 					ecjTotal, (double)lombokTotal / ecjTotal, (double)ecjTotal / javacTotal,
 					parboiledTotal, (double)lombokTotal / parboiledTotal, (double)parboiledTotal / javacTotal);
+			if (PROFILE.getRuns() > 0) writeGrammarProfile();
+		}
+	}
+	
+	private static void writeGrammarProfile() {
+		try {
+			File collapsedFile = new File("test/reports/grammar.collapsed");
+			File tableFile = new File("test/reports/grammar.tsv");
+			collapsedFile.getParentFile().mkdirs();
+			StringBuilder out = new StringBuilder();
+			PROFILE.writeCollapsedStacks(out, GrammarProfile.Metric.SELF_TIME);
+			Files.write(out, collapsedFile, Charsets.UTF_8);
+			out.setLength(0);
+			PROFILE.writeTable(out, GrammarProfile.Metric.SELF_TIME, -1);
+			Files.write(out, tableFile, Charsets.UTF_8);
+			System.out.printf("Grammar profile of %d files written to: %s and %s\n", PROFILE.getRuns(), collapsedFile.getCanonicalPath(), tableFile.getCanonicalPath());
+		} catch (IOException e) {
+			System.err.println("I/O error writing grammar profile; Possibly ./test/reports is not writable?");
+			e.printStackTrace();
 		}
 	}
 	
@@ -129,6 +151,8 @@ public class PerformanceTest extends RunForEachFileInDirRunner.SourceFileBasedTe
 		takenByParboiled = System.currentTimeMillis() - takenByParboiled;
 		parboiledTotal += takenByParboiled;
 		
+		if (VERBOSE) source.addProfileInformation(PROFILE);
+		
 		String fn = source.getName();
 		String fnPrefix, fnSuffix, fileName; {
 			int sep = fn.lastIndexOf('/');
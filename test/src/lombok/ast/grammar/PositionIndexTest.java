@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PositionIndexTest {
+	@Test
+	public void testLineColumn() {
+		PositionIndex index = new PositionIndex("ab\r\ncd\nef\rg");
+		assertEquals(Arrays.asList(2, 6, 9), index.getLineEndings());
+		assertEquals(4, index.getLineCount());
+		for (int i = 0; i <= 11; i++) {
+			assertEquals(i, index.toOffset(index.getLine(i), index.getColumn(i)));
+		}
+		assertEquals(0, index.getLine(1));
+		assertEquals(1, index.getLine(2));
+		assertEquals(2, index.getColumn(4));
+		assertEquals(3, index.getLine(11));
+	}
+	
+	@Test
+	public void testMultipleBackslashUEscapes() {
+		Source source = new Source("class A { char a = '\\u0041', b = '\\u0042'; }", "A.java");
+		source.parseCompilationUnit();
+		assertTrue(source.getProblems().isEmpty());
+		PositionIndex index = source.getPositionIndex();
+		assertTrue(index.hasDeltas());
+		assertEquals(20, index.toRaw(20));
+		assertEquals(26, index.toRaw(21));
+		assertEquals(34, index.toRaw(29));
+		assertEquals(40, index.toRaw(30));
+		for (int i = 20; i < 26; i++) assertEquals(20, index.toPreprocessed(i));
+		for (int i = 34; i < 40; i++) assertEquals(29, index.toPreprocessed(i));
+		assertEquals(30, index.toPreprocessed(40));
+	}
+}
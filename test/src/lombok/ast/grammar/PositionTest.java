@@ -25,6 +25,7 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -45,6 +46,11 @@ public class PositionTest extends RunForEachFileInDirRunner.SourceFileBasedTeste
 		return Collections.singleton(DirDescriptor.of(new File("test/resources/idempotency"), true));
 	}
 	
+	@Override
+	protected List<ParseEngine> getParseEngines() {
+		return Arrays.<ParseEngine>asList(null, new RecursiveDescentParseEngine());
+	}
+	
 	@Test
 	public void testPositions(Source source) throws IOException {
 		source.parseCompilationUnit();
@@ -106,11 +106,26 @@ public class RunForEachFileInDirRunner extends Runner {
 	@Data
 	private static final class RunData {
 		private final File main, alias;
-		private final Map<Method, Description> methods;
+		private final List<FileTest> tests;
+	}
+	
+	@Data
+	private static final class FileTest {
+		private final Method method;
+		private final ParseEngine parseEngine;
+		private final Description description;
 	}
 	
 	public static abstract class SourceFileBasedTester {
 		protected abstract Collection<DirDescriptor> getDirDescriptors();
+		
+		/**
+		 * Tests that take a {@link Source} run once for each of these engines, which is set on the source before the test gets it.
+		 * {@code null} stands for the grammar itself, which is the only engine unless a tester asks for more.
+		 */
+		protected List<ParseEngine> getParseEngines() {
+			return Collections.singletonList(null);
+		}
 	}
 	
 	private static final Comparator<Method> methodComparator = new Comparator<Method>() {
@@ -161,8 +176,12 @@ public class RunForEachFileInDirRunner extends Runner {
 		Collections.sort(descriptors);
 		
 		File commonRoot = findCommonRoots(descriptors);
+		List<ParseEngine> engines = tester.getParseEngines();
 		
-		for (Method m : testClass.getDeclaredMethods()) {
+		Method[] methods = testClass.getDeclaredMethods();
+		Arrays.sort(methods, methodComparator);
+		
+		for (Method m : methods) {
 			if (m.getAnnotation(BeforeClass.class) != null) {
 				if (m.getParameterTypes().length != 0) {
 					System.err.println("Skipping @BeforeClass method: " + m.getName() + " - it should not have any parameters.");
@@ -190,16 +209,16 @@ public class RunForEachFileInDirRunner extends Runner {
 				if (descriptor.getInclusionPattern() != null && !descriptor.getInclusionPattern().matcher(file.getCanonicalPath()).matches()) continue;
 				if (descriptor.getExclusionPattern() != null && descriptor.getExclusionPattern().matcher(file.getCanonicalPath()).matches()) continue;
 				
-				Map<Method, Description> methodToDescMap = Maps.newTreeMap(methodComparator);
+				List<FileTest> fileTests = Lists.newArrayList();
 				
 				String fileName = commonRoot == null ? file.getCanonicalPath() : commonRoot.toURI().relativize(file.toURI()).toString();
 				String relativePath = root.toURI().relativize(file.toURI()).toString();
 				tests.put(fileName, new RunData(
 						new File(directory, relativePath),
 						mirrorDirectory == null ? null : new File(mirrorDirectory, relativePath),
-						methodToDescMap));
+						fileTests));
 				
-				for (Method m : testClass.getDeclaredMethods()) {
+				for (Method m : methods) {
 					if (m.getAnnotation(Test.class) != null) {
 						if (m.getParameterTypes().length == 0) {
 							if (!noFileNeededMap.containsKey(m)) {
@@ -207,10 +226,17 @@ public class RunForEachFileInDirRunner extends Runner {
 								description.addChild(testDescription);
 								noFileNeededMap.put(m, testDescription);
 							}
+						} else if (Arrays.asList(m.getParameterTypes()).contains(Source.class)) {
+							for (ParseEngine engine : engines) {
+								String engineName = engine == null ? "" : " [" + engine.getClass().getSimpleName() + "]";
+								Description testDescription = Description.createTestDescription(testClass, m.getName() + engineName + ": " + fileName);
+								description.addChild(testDescription);
+								fileTests.add(new FileTest(m, engine, testDescription));
+							}
 						} else {
 							Description testDescription = Description.createTestDescription(testClass, m.getName() + ": " + fileName);
 							description.addChild(testDescription);
-							methodToDescMap.put(m, testDescription);
+							fileTests.add(new FileTest(m, null, testDescription));
 						}
 					}
 				}
@@ -310,7 +336,6 @@ public class RunForEachFileInDirRunner extends Runner {
 		
 		for (Map.Entry<String, RunData> entry : tests.entrySet()) {
 			RunData data = entry.getValue();
-			Map<Method, Description> methodList = data.getMethods();
 			String content;
 			Throwable error;
 			
@@ -325,8 +350,8 @@ public class RunForEachFileInDirRunner extends Runner {
 			
 			boolean skipTest = content != null && content.startsWith("//SKIP");
 			
-			for (Map.Entry<Method, Description> test : methodList.entrySet()) {
-				Description testDescription = test.getValue();
+			for (FileTest test : data.getTests()) {
+				Description testDescription = test.getDescription();
 				if (skipTest) {
 					notifier.fireTestIgnored(testDescription);
 					continue;
@@ -339,7 +364,7 @@ public class RunForEachFileInDirRunner extends Runner {
 				}
 				FileTester tester;
 				try {
-					tester = runTest(content, data.getMain(), data.getAlias(), test.getKey());
+					tester = runTest(content, data.getMain(), data.getAlias(), test.getMethod(), test.getParseEngine());
 				} catch (IOException e) {
 					notifier.fireTestStarted(testDescription);
 					notifier.fireTestFailure(new Failure(testDescription, e));
@@ -382,7 +407,7 @@ public class RunForEachFileInDirRunner extends Runner {
 		}
 	}
 	
-	private FileTester runTest(String rawSource, File main, File alias, final Method method) throws IOException {
+	private FileTester runTest(String rawSource, File main, File alias, final Method method, ParseEngine engine) throws IOException {
 		Class<?>[] paramTypes = method.getParameterTypes();
 		Object[] params;
 		final Test t = method.getAnnotation(Test.class);
@@ -396,7 +421,7 @@ public class RunForEachFileInDirRunner extends Runner {
 			if (alias != null) return null;
 			if (paramTypes[0] == String.class) params = new Object[] {rawSource};
 			else if (paramTypes[0] == File.class) params = new Object[] {main};
-			else if (paramTypes[0] == Source.class) params = new Object[] {new Source(rawSource, main.getAbsolutePath())};
+			else if (paramTypes[0] == Source.class) params = new Object[] {source(rawSource, main, engine)};
 			else return null;
 			break;
 		case 2:
@@ -408,12 +433,12 @@ public class RunForEachFileInDirRunner extends Runner {
 			
 			if (paramTypes[0] == String.class) params[0] = expectedContent;
 			else if (paramTypes[0] == File.class) params[0] = main;
-			else if (paramTypes[0] == Source.class) params[0] = new Source(expectedContent, main.getAbsolutePath());
+			else if (paramTypes[0] == Source.class) params[0] = source(expectedContent, main, engine);
 			else return null;
 			
 			if (paramTypes[1] == String.class) params[1] = rawSource;
 			else if (paramTypes[1] == File.class) params[1] = alias;
-			else if (paramTypes[1] == Source.class) params[1] = new Source(rawSource, alias.getAbsolutePath());
+			else if (paramTypes[1] == Source.class) params[1] = source(rawSource, alias, engine);
 			else return null;
 			
 			break;
@@ -444,4 +469,10 @@ public class RunForEachFileInDirRunner extends Runner {
 			}
 		};
 	}
+	
+	private static Source source(String rawSource, File file, ParseEngine engine) {
+		Source source = new Source(rawSource, file.getAbsolutePath());
+		source.setParseEngine(engine);
+		return source;
+	}
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2015 The Project Lombok Authors.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package lombok.ast.grammar;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import lombok.ast.CompilationUnit;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Measures the time a fresh JVM needs to produce its first {@link CompilationUnit}. This has to be run in a JVM of its own,
+ * once with and once without the pregenerated parser classes on the classpath; the {@code startupBenchmark} target of the build does both.
+ */
+public class StartupBenchmark {
+	private static final String DEFAULT_INPUT = "package a;\n\nimport java.util.List;\n\npublic class A {\n\tint sum(List<Integer> values) {\n" +
+			"\t\tint total = 0;\n\t\tfor (int v : values) total += v;\n\t\treturn total;\n\t}\n}\n";
+	
+	public static void main(String[] args) throws Exception {
+		/* Once the grammar is built, the classes parboiled generated are loaded too, so this has to be checked first. */
+		boolean pregenerated = ParserGroup.hasPregeneratedParsers();
+		long start = System.nanoTime();
+		String input = args.length == 0 ? DEFAULT_INPUT : Files.toString(new File(args[0]), Charsets.UTF_8);
+		
+		Source source = new Source(input, args.length == 0 ? "A.java" : args[0]);
+		source.parseCompilationUnit();
+		if (!(source.getNodes().get(0) instanceof CompilationUnit) || !source.getProblems().isEmpty()) {
+			throw new IllegalStateException("Parse failed: " + source.getProblems());
+		}
+		long firstParse = System.nanoTime() - start;
+		long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+		
+		System.out.printf("pregenerated parsers: %s, first CompilationUnit after %d ms in main (%d ms since JVM start)\n",
+				pregenerated ? "yes" : "no", firstParse / 1000000, uptime);
+	}
+}